@@ -0,0 +1,167 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Runs a blocking request for each ID, with no more than a fixed number running at once.
+ *
+ * Each request runs on its own virtual thread when the runtime supports them, otherwise on a platform thread. A thread is
+ * only started once a permit is available, so the number of threads never exceeds the concurrency limit.
+ *
+ * @author Stuart.Boston
+ *
+ */
+final class BulkFetcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkFetcher.class);
+    private static final Method VIRTUAL_EXECUTOR = findVirtualExecutor();
+
+    /**
+     * A blocking request for a single ID
+     *
+     * @param <T>
+     */
+    interface Loader<T> {
+
+        T load(String id) throws TVRageException;
+    }
+
+    // Hide the constructor
+    private BulkFetcher() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Run the request for each ID and pass the results to the handler as they complete.
+     *
+     * Returns once all of the requests have completed.
+     *
+     * @param <T>
+     * @param ids
+     * @param maxConcurrency
+     * @param loader
+     * @param handler
+     * @throws InterruptedException if the calling thread is interrupted, the running requests are also interrupted
+     */
+    static <T> void fetch(Collection<String> ids, int maxConcurrency, Loader<T> loader, BulkHandler<T> handler) throws InterruptedException {
+        final Semaphore permits = new Semaphore(maxConcurrency);
+        final ExecutorService executor = newExecutor();
+        try {
+            for (final String id : ids) {
+                permits.acquire();
+                executor.execute(() -> {
+                    try {
+                        T result = null;
+                        TVRageException failure = null;
+                        try {
+                            result = loader.load(id);
+                        } catch (TVRageException ex) {
+                            failure = ex;
+                        } catch (RuntimeException ex) {
+                            failure = new TVRageException(ApiExceptionType.UNKNOWN_CAUSE, String.valueOf(ex.getMessage()), (String) null, ex);
+                        }
+
+                        // Failures of the handler are its own, they are not reported as a failure of the request
+                        try {
+                            if (failure == null) {
+                                handler.onResult(id, result);
+                            } else {
+                                handler.onFailure(id, failure);
+                            }
+                        } catch (RuntimeException ex) {
+                            LOG.warn("Bulk handler failed for {}", id, ex);
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+            // Wait for the remaining requests
+            permits.acquire(maxConcurrency);
+            executor.shutdown();
+        } finally {
+            if (!executor.isShutdown()) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Check whether the requests will run on virtual threads
+     *
+     * @return
+     */
+    static boolean isVirtual() {
+        return VIRTUAL_EXECUTOR != null;
+    }
+
+    private static ExecutorService newExecutor() {
+        if (VIRTUAL_EXECUTOR != null) {
+            try {
+                return (ExecutorService) VIRTUAL_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException ex) {
+                LOG.debug("Unable to create virtual thread executor: {}", ex.getMessage());
+            }
+        }
+        return Executors.newCachedThreadPool(new BulkThreadFactory());
+    }
+
+    /**
+     * Virtual threads are only available from Java 21, so look the factory method up rather than linking to it
+     *
+     * @return the method, or null if virtual threads are not available
+     */
+    private static Method findVirtualExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException ex) {
+            LOG.trace("Virtual threads are not available, using platform threads for bulk requests");
+            return null;
+        }
+    }
+
+    /**
+     * Create named daemon threads, so an abandoned fetch does not stop the JVM exiting
+     */
+    private static final class BulkThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger POOL = new AtomicInteger();
+        private final String prefix = "tvrage-bulk-" + POOL.incrementAndGet() + "-";
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi;
+
+/**
+ * Receives the results of a bulk fetch as each request completes.
+ *
+ * The methods are called concurrently from the threads making the requests, so implementations must be thread safe.
+ *
+ * @author Stuart.Boston
+ *
+ * @param <T> The type of result fetched
+ */
+public interface BulkHandler<T> {
+
+    /**
+     * Called with the result for an ID
+     *
+     * @param id
+     * @param result
+     */
+    void onResult(String id, T result);
+
+    /**
+     * Called when the request for an ID fails
+     *
+     * @param id
+     * @param ex
+     */
+    void onFailure(String id, TVRageException ex);
+}
@@ -0,0 +1,50 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi;
+
+import com.omertron.tvrageapi.model.Episode;
+
+/**
+ * Receives the episodes of an episode list one at a time, as they are read from the response.
+ *
+ * @author Stuart.Boston
+ *
+ */
+@FunctionalInterface
+public interface EpisodeConsumer {
+
+    /**
+     * Called once with the show details, before the first episode
+     *
+     * @param showName
+     * @param totalSeasons
+     */
+    default void onShow(String showName, int totalSeasons) {
+        // Not needed by most consumers
+    }
+
+    /**
+     * Called for each episode in the order they appear in the list
+     *
+     * @param episode
+     * @return true to continue reading, false to stop without reading the rest of the list
+     */
+    boolean accept(Episode episode);
+}
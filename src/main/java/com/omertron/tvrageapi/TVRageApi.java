@@ -19,19 +19,55 @@
  */
 package com.omertron.tvrageapi;
 
+import com.omertron.tvrageapi.cache.CacheType;
+import com.omertron.tvrageapi.cache.DiskCache;
+import com.omertron.tvrageapi.cache.ResultCache;
+import com.omertron.tvrageapi.cache.SingleFlight;
+import com.omertron.tvrageapi.model.AirDateIndex;
+import com.omertron.tvrageapi.model.CompactEpisodeList;
 import com.omertron.tvrageapi.model.Episode;
+import com.omertron.tvrageapi.model.EpisodeField;
 import com.omertron.tvrageapi.model.EpisodeList;
+import com.omertron.tvrageapi.model.ImmutableEpisode;
+import com.omertron.tvrageapi.model.ImmutableEpisodeList;
+import com.omertron.tvrageapi.model.ImmutableShowInfo;
+import com.omertron.tvrageapi.model.ShowField;
 import com.omertron.tvrageapi.model.ShowInfo;
-import com.omertron.tvrageapi.tools.DOMHelper;
-import com.omertron.tvrageapi.tools.TVRageParser;
+import com.omertron.tvrageapi.tools.ParserEngine;
+import com.omertron.tvrageapi.tools.StaxParser;
+import com.omertron.tvrageapi.tools.XmlParserFactory;
+import com.omertron.tvrageapi.transport.CircuitBreaker;
+import com.omertron.tvrageapi.transport.ContentHandler;
+import com.omertron.tvrageapi.transport.HedgingPolicy;
+import com.omertron.tvrageapi.transport.HttpTransport;
+import com.omertron.tvrageapi.transport.HttpTransportBuilder;
+import com.omertron.tvrageapi.transport.RateLimiter;
+import com.omertron.tvrageapi.transport.RetryPolicy;
+import com.omertron.tvrageapi.transport.Transport;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.http.client.HttpClient;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.yamj.api.common.http.SimpleHttpClientBuilder;
+import org.yamj.api.common.exception.ApiExceptionType;
 
 /**
  * TV Rage API
@@ -39,16 +75,46 @@ import org.yamj.api.common.http.SimpleHttpClientBuilder;
  * @author Stuart.Boston
  *
  */
-public class TVRageApi {
+public class TVRageApi implements Closeable {
 
     private static final Logger LOG = LoggerFactory.getLogger(TVRageApi.class);
     private String apiKey = null;
+    // The transport is owned by this instance, unless it was provided by the caller
+    private final Transport transport;
+    private final boolean ownsTransport;
+    // Executor used to parse the responses of the asynchronous methods
+    private Executor asyncExecutor = ForkJoinPool.commonPool();
+    // The engine used to parse the responses
+    private ParserEngine parserEngine = ParserEngine.DOM;
+    private XmlParserFactory xmlParserFactory = XmlParserFactory.getDefault();
+    // Optional cache of the parsed results
+    private ResultCache resultCache = null;
+    // Optional persistent cache of the responses
+    private DiskCache diskCache = null;
+    // Concurrent requests for the same URL share a single request
+    private final SingleFlight singleFlight = new SingleFlight();
+    // Optional pacing of the requests sent for the API key
+    private RateLimiter rateLimiter = null;
+    // Optional handling of failed requests
+    private RetryPolicy retryPolicy = null;
+    private CircuitBreaker circuitBreaker = null;
+    private boolean staleFallback = false;
+    // Optional second request for slow responses
+    private HedgingPolicy hedgingPolicy = null;
+    // Results that cannot be changed are shared by the caches rather than copied
+    private boolean immutableResults = false;
+    // Optional index of the air dates of the episode lists read
+    private AirDateIndex airDateIndex = null;
+    // The number of requests a bulk fetch runs at once, 0 to match the transport
+    private int bulkConcurrency = 0;
+    private static final int MAX_BULK_CONCURRENCY = 64;
     public static final String UNKNOWN = "UNKNOWN";
     private static final String API_EPISODE_INFO = "episodeinfo.php";
     private static final String API_EPISODE_LIST = "episode_list.php";
     private static final String API_SEARCH = "search.php";
     private static final String API_SHOWINFO = "showinfo.php";
     private static final String API_SITE = "http://services.tvrage.com/myfeeds/";
+    private String apiSite = API_SITE;
 
     /**
      * Constructor, requires the API Key
@@ -56,8 +122,8 @@ public class TVRageApi {
      * @param apiKey
      */
     public TVRageApi(String apiKey) {
-        // Use a default http client if one is not provided
-        this(apiKey, new SimpleHttpClientBuilder().build());
+        // Use a default transport if one is not provided
+        this(apiKey, new HttpTransportBuilder().build(), true);
     }
 
     /**
@@ -67,12 +133,212 @@ public class TVRageApi {
      * @param httpClient
      */
     public TVRageApi(String apiKey, HttpClient httpClient) {
+        this(apiKey, new HttpTransport(httpClient), true);
+    }
+
+    /**
+     * Constructor, requires API key, a CommonHttpClient and the non-blocking client for the asynchronous methods
+     *
+     * The asynchronous client will be started if it is not already running, but will not be closed by this class.
+     *
+     * @param apiKey
+     * @param httpClient
+     * @param asyncClient
+     */
+    public TVRageApi(String apiKey, HttpClient httpClient, CloseableHttpAsyncClient asyncClient) {
+        this(apiKey, new HttpTransport(httpClient, asyncClient), true);
+    }
+
+    /**
+     * Constructor, requires API key and the transport to use.
+     *
+     * The transport will not be closed by this class, so it can be shared with other instances.
+     *
+     * @param apiKey
+     * @param transport
+     */
+    public TVRageApi(String apiKey, Transport transport) {
+        this(apiKey, transport, false);
+    }
+
+    private TVRageApi(String apiKey, Transport transport, boolean ownsTransport) {
         if (StringUtils.isBlank(apiKey)) {
             throw new UnsupportedOperationException("No API Key provided!");
         }
 
         this.apiKey = apiKey;
-        DOMHelper.setHttpClient(httpClient);
+        this.transport = transport;
+        this.ownsTransport = ownsTransport;
+    }
+
+    /**
+     * Set the base URL of the API pages, for example a local stub server used for testing.
+     *
+     * Defaults to the TVRage site
+     *
+     * @param apiSite the base URL, ending with a '/'
+     */
+    public void setApiSite(String apiSite) {
+        if (StringUtils.isBlank(apiSite)) {
+            throw new IllegalArgumentException("No API site provided!");
+        }
+        this.apiSite = apiSite.endsWith("/") ? apiSite : apiSite + "/";
+    }
+
+    /**
+     * Set the executor used to parse the responses of the asynchronous methods.
+     *
+     * Defaults to the common fork/join pool
+     *
+     * @param asyncExecutor
+     */
+    public void setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    /**
+     * Set the engine used to parse the responses.
+     *
+     * Defaults to the DOM parser
+     *
+     * @param parserEngine
+     */
+    public void setParserEngine(ParserEngine parserEngine) {
+        this.parserEngine = parserEngine;
+    }
+
+    /**
+     * Set the factory used to create the XML parsers.
+     *
+     * Defaults to the shared factory, which does not load DTDs or external entities
+     *
+     * @param xmlParserFactory
+     */
+    public void setXmlParserFactory(XmlParserFactory xmlParserFactory) {
+        this.xmlParserFactory = xmlParserFactory;
+    }
+
+    /**
+     * Set the cache used to hold the parsed results.
+     *
+     * The cache may be shared between several instances, but they should use the same API key. Defaults to no caching
+     *
+     * @param resultCache the cache to use, or null to disable caching
+     */
+    public void setResultCache(ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Set the persistent cache used to hold the responses.
+     *
+     * Responses found in the cache are parsed rather than requested again, so the results are available straight after a
+     * restart. The cache is not closed by this class. Defaults to no persistent caching
+     *
+     * @param diskCache the cache to use, or null to disable persistent caching
+     */
+    public void setDiskCache(DiskCache diskCache) {
+        this.diskCache = diskCache;
+    }
+
+    /**
+     * Set the limiter used to pace the requests sent with this instance's API key.
+     *
+     * The limiter may be shared between instances. Defaults to no limit
+     *
+     * @param rateLimiter the limiter to use, or null to send requests immediately
+     */
+    public void setRateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Set the policy used to retry requests that fail with a connection or server error.
+     *
+     * Defaults to no retries
+     *
+     * @param retryPolicy the policy to use, or null to disable retries
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Set the circuit breaker used to stop requests to failing endpoints.
+     *
+     * The circuit breaker may be shared between instances. Defaults to none
+     *
+     * @param circuitBreaker the circuit breaker to use, or null to always send requests
+     */
+    public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Use expired responses from the persistent cache when the site can not be reached or the circuit is open.
+     *
+     * Responses are used up to the stale age of the disk cache, which also keeps them through restarts and compactions.
+     * Defaults to false
+     *
+     * @param staleFallback
+     */
+    public void setStaleFallback(boolean staleFallback) {
+        this.staleFallback = staleFallback;
+    }
+
+    /**
+     * Send a second request if the response is slower than usual, using whichever response arrives first.
+     *
+     * Hedged requests are made with the non-blocking client, including those from the blocking methods. The transport needs
+     * more than one connection per route, otherwise the second request waits for the first. Defaults to none
+     *
+     * @param hedgingPolicy the policy to use, or null to only send one request
+     */
+    public void setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        this.hedgingPolicy = hedgingPolicy;
+    }
+
+    /**
+     * Set the number of requests a bulk fetch runs at the same time.
+     *
+     * Requests over the connections per route of the transport wait for a connection, and fail with a CONNECTION_ERROR if
+     * they wait longer than its connection request timeout. So a value above the transport limit only helps if the transport
+     * has been built with more connections. Defaults to the transport limit, up to 64.
+     *
+     * HttpTransportBuilder defaults to a single connection per route, so with the default transport a bulk fetch runs one
+     * request at a time. Raise its maxConnPerRoute for concurrent bulk fetches. A transport created from an HttpClient
+     * reports two, the per route default of HttpClients
+     *
+     * @param bulkConcurrency
+     */
+    public void setBulkConcurrency(int bulkConcurrency) {
+        if (bulkConcurrency <= 0) {
+            throw new IllegalArgumentException("Bulk concurrency must be positive");
+        }
+        this.bulkConcurrency = bulkConcurrency;
+    }
+
+    /**
+     * Return immutable results, which the result cache and concurrent callers share without making copies.
+     *
+     * Any attempt to change an immutable result throws an UnsupportedOperationException. Defaults to false
+     *
+     * @param immutableResults
+     */
+    public void setImmutableResults(boolean immutableResults) {
+        this.immutableResults = immutableResults;
+    }
+
+    /**
+     * Set the index updated with the air dates of the episode lists read.
+     *
+     * Each full episode list that is requested or read from the disk cache replaces the episodes of its show in the index.
+     * Lists returned from the result cache have already been indexed. Defaults to no index
+     *
+     * @param airDateIndex the index to update, or null to disable indexing
+     */
+    public void setAirDateIndex(AirDateIndex airDateIndex) {
+        this.airDateIndex = airDateIndex;
     }
 
     /**
@@ -85,6 +351,22 @@ public class TVRageApi {
      * @throws com.omertron.tvrageapi.TVRageException
      */
     public Episode getEpisodeInfo(String showID, String seasonId, String episodeId) throws TVRageException {
+        return getEpisodeInfo(showID, seasonId, episodeId, EpisodeField.ALL);
+    }
+
+    /**
+     * Get only the wanted fields of a specific episode.
+     *
+     * The other fields are skipped by the parser and left unset
+     *
+     * @param showID
+     * @param seasonId
+     * @param episodeId
+     * @param fields
+     * @return
+     * @throws com.omertron.tvrageapi.TVRageException
+     */
+    public Episode getEpisodeInfo(String showID, String seasonId, String episodeId, Set<EpisodeField> fields) throws TVRageException {
         if (!isValidString(showID) || !isValidString(seasonId) || !isValidString(episodeId)) {
             return new Episode();
         }
@@ -94,7 +376,9 @@ public class TVRageApi {
         tvrageURL.append("&ep=").append(seasonId);
         tvrageURL.append("x").append(episodeId);
 
-        return TVRageParser.getEpisodeInfo(tvrageURL.toString());
+        final String url = tvrageURL.toString();
+        return fetch(CacheType.EPISODE_INFO, episodeKey(showID, seasonId, episodeId), viewKey(fields, EpisodeField.ALL.size()), url,
+                content -> parserEngine.parseEpisodeInfo(xmlParserFactory, content, url, fields));
     }
 
     /**
@@ -105,12 +389,151 @@ public class TVRageApi {
      * @throws com.omertron.tvrageapi.TVRageException
      */
     public EpisodeList getEpisodeList(String showID) throws TVRageException {
+        return getEpisodeList(showID, EpisodeField.ALL);
+    }
+
+    /**
+     * Get only the wanted fields of all episodes for a show.
+     *
+     * The other fields are skipped by the parser and left unset. A full list already in the result cache is returned as it
+     * is.
+     *
+     * @param showID
+     * @param fields
+     * @return
+     * @throws com.omertron.tvrageapi.TVRageException
+     */
+    public EpisodeList getEpisodeList(String showID, Set<EpisodeField> fields) throws TVRageException {
         if (!isValidString(showID)) {
             return new EpisodeList();
         }
 
-        String tvrageURL = buildURL(API_EPISODE_LIST, showID).toString();
-        return TVRageParser.getEpisodeList(tvrageURL);
+        final String tvrageURL = buildURL(API_EPISODE_LIST, showID).toString();
+        return fetch(CacheType.EPISODE_LIST, showID, viewKey(fields, EpisodeField.ALL.size()), tvrageURL,
+                indexing(showID, fields, content -> parserEngine.parseEpisodeList(xmlParserFactory, content, tvrageURL, fields)));
+    }
+
+    /**
+     * Get the episodes of a single season of a show.
+     *
+     * Only the season wanted is parsed, the others are skipped
+     *
+     * @param showID
+     * @param season
+     * @return
+     * @throws com.omertron.tvrageapi.TVRageException
+     */
+    public EpisodeList getSeason(String showID, int season) throws TVRageException {
+        return getSeasons(showID, Collections.singleton(season), EpisodeField.ALL);
+    }
+
+    /**
+     * Get the episodes of several seasons of a show
+     *
+     * @param showID
+     * @param seasons
+     * @return
+     * @throws com.omertron.tvrageapi.TVRageException
+     */
+    public EpisodeList getSeasons(String showID, Collection<Integer> seasons) throws TVRageException {
+        return getSeasons(showID, seasons, EpisodeField.ALL);
+    }
+
+    /**
+     * Get only the wanted fields of the episodes of several seasons of a show.
+     *
+     * The other seasons are skipped by the parser, and the STAX engine stops reading the response once the last of the
+     * wanted seasons has been read. A full list already in the result cache is used if there is one.
+     *
+     * @param showID
+     * @param seasons
+     * @param fields
+     * @return
+     * @throws com.omertron.tvrageapi.TVRageException
+     */
+    public EpisodeList getSeasons(String showID, Collection<Integer> seasons, Set<EpisodeField> fields) throws TVRageException {
+        if (!isValidString(showID) || seasons.isEmpty()) {
+            return new EpisodeList();
+        }
+
+        final Set<Integer> wanted = new TreeSet<>(seasons);
+        final String tvrageURL = buildURL(API_EPISODE_LIST, showID).toString();
+        EpisodeList episodeList = fetch(CacheType.EPISODE_LIST, showID, viewKey(fields, EpisodeField.ALL.size()) + seasonKey(wanted), tvrageURL,
+                content -> parserEngine.parseEpisodeList(xmlParserFactory, content, tvrageURL, fields, wanted));
+
+        // A full list from the result cache has all of the seasons, and may be read only
+        EpisodeList selected = new EpisodeList();
+        selected.setShowName(episodeList.getShowName());
+        selected.setTotalSeasons(episodeList.getTotalSeasons());
+        for (Episode episode : episodeList.getEpisodes().values()) {
+            if (wanted.contains(episode.getSeason())) {
+                selected.addEpisode(episode);
+            }
+        }
+        return immutableResults ? ImmutableEpisodeList.copyOf(selected) : selected;
+    }
+
+    /**
+     * Pass each episode of a show to the consumer as soon as it is read from the response.
+     *
+     * The episodes are read with the StAX parser and are not kept, so the memory used does not depend on the length of the
+     * list. A list in the result cache is used if there is one, otherwise the list is requested. The request is not retried,
+     * as the episodes already passed on would be repeated.
+     *
+     * @param showID
+     * @param consumer
+     * @return the number of episodes passed to the consumer
+     * @throws com.omertron.tvrageapi.TVRageException
+     */
+    public int streamEpisodeList(String showID, EpisodeConsumer consumer) throws TVRageException {
+        return streamEpisodeList(showID, EpisodeField.ALL, consumer);
+    }
+
+    /**
+     * Pass only the wanted fields of each episode of a show to the consumer as soon as it is read from the response.
+     *
+     * @param showID
+     * @param fields
+     * @param consumer
+     * @return the number of episodes passed to the consumer
+     * @throws com.omertron.tvrageapi.TVRageException
+     */
+    public int streamEpisodeList(String showID, Set<EpisodeField> fields, EpisodeConsumer consumer) throws TVRageException {
+        if (!isValidString(showID)) {
+            return 0;
+        }
+
+        EpisodeList cached = getCached(CacheType.EPISODE_LIST, showID, viewKey(fields, EpisodeField.ALL.size()));
+        if (cached != null) {
+            consumer.onShow(cached.getShowName(), cached.getTotalSeasons());
+            int count = 0;
+            for (Episode episode : cached.getEpisodes().values()) {
+                count++;
+                if (!consumer.accept(episode)) {
+                    break;
+                }
+            }
+            return count;
+        }
+
+        final String tvrageURL = buildURL(API_EPISODE_LIST, showID).toString();
+        return attempt(tvrageURL, content -> StaxParser.streamEpisodeList(xmlParserFactory, content, tvrageURL, fields, consumer));
+    }
+
+    /**
+     * Get the episode lists for many shows, passing each to the handler as soon as it is available.
+     *
+     * Each request runs on its own virtual thread where the runtime supports them, with no more than the bulk concurrency
+     * running at once. The requests share the connections of the transport, so the throughput is limited by its connections
+     * per route as well as the bulk concurrency. Returns once every show has been passed to the handler.
+     *
+     * @param showIDs
+     * @param handler called concurrently as each request completes
+     * @throws InterruptedException
+     */
+    public void fetchEpisodeLists(Collection<String> showIDs, BulkHandler<EpisodeList> handler) throws InterruptedException {
+        int concurrency = bulkConcurrency > 0 ? bulkConcurrency : Math.min(MAX_BULK_CONCURRENCY, transport.getMaxConcurrency());
+        BulkFetcher.fetch(showIDs, concurrency, this::getEpisodeList, handler);
     }
 
     /**
@@ -121,17 +544,27 @@ public class TVRageApi {
      * @throws com.omertron.tvrageapi.TVRageException
      */
     public ShowInfo getShowInfo(int showID) throws TVRageException {
+        return getShowInfo(showID, ShowField.ALL);
+    }
+
+    /**
+     * Get only the wanted fields of the show information using the show ID.
+     *
+     * The other fields are skipped by the parser and left unset
+     *
+     * @param showID
+     * @param fields
+     * @return
+     * @throws com.omertron.tvrageapi.TVRageException
+     */
+    public ShowInfo getShowInfo(int showID, Set<ShowField> fields) throws TVRageException {
         if (showID == 0) {
             return new ShowInfo();
         }
 
-        String tvrageURL = buildURL(API_SHOWINFO, Integer.toString(showID)).toString();
-        List<ShowInfo> showList = TVRageParser.getShowInfo(tvrageURL);
-        if (showList.isEmpty()) {
-            return new ShowInfo();
-        } else {
-            return showList.get(0);
-        }
+        final String tvrageURL = buildURL(API_SHOWINFO, Integer.toString(showID)).toString();
+        return fetch(CacheType.SHOW_INFO, Integer.toString(showID), viewKey(fields, ShowField.ALL.size()), tvrageURL,
+                content -> firstShow(parserEngine.parseShowInfo(xmlParserFactory, content, tvrageURL, fields)));
     }
 
     /**
@@ -142,9 +575,21 @@ public class TVRageApi {
      * @throws com.omertron.tvrageapi.TVRageException
      */
     public ShowInfo getShowInfo(String showID) throws TVRageException {
+        return getShowInfo(showID, ShowField.ALL);
+    }
+
+    /**
+     * Get only the wanted fields of the show information using the show ID
+     *
+     * @param showID
+     * @param fields
+     * @return
+     * @throws com.omertron.tvrageapi.TVRageException
+     */
+    public ShowInfo getShowInfo(String showID, Set<ShowField> fields) throws TVRageException {
         int id = NumberUtils.toInt(showID, 0);
         if (id > 0) {
-            return getShowInfo(id);
+            return getShowInfo(id, fields);
         } else {
             return new ShowInfo();
         }
@@ -158,12 +603,719 @@ public class TVRageApi {
      * @throws com.omertron.tvrageapi.TVRageException
      */
     public List<ShowInfo> searchShow(String showName) throws TVRageException {
+        return searchShow(showName, ShowField.ALL);
+    }
+
+    /**
+     * Search for the show using the show name, only reading the wanted fields of each show
+     *
+     * @param showName
+     * @param fields
+     * @return list of matching shows
+     * @throws com.omertron.tvrageapi.TVRageException
+     */
+    public List<ShowInfo> searchShow(String showName, Set<ShowField> fields) throws TVRageException {
         if (!isValidString(showName)) {
             return new ArrayList<>();
         }
 
-        String tvrageURL = buildURL(API_SEARCH, showName).toString();
-        return TVRageParser.getSearchShow(tvrageURL);
+        final String tvrageURL = buildURL(API_SEARCH, showName).toString();
+        return fetch(CacheType.SEARCH, searchKey(showName), viewKey(fields, ShowField.ALL.size()), tvrageURL,
+                content -> parserEngine.parseSearchShow(xmlParserFactory, content, tvrageURL, fields));
+    }
+
+    /**
+     * Get the information for a specific episode without blocking the calling thread
+     *
+     * Any failure will complete the future exceptionally with a TVRageException as the cause
+     *
+     * @param showID
+     * @param seasonId
+     * @param episodeId
+     * @return
+     */
+    public CompletableFuture<Episode> getEpisodeInfoAsync(String showID, String seasonId, String episodeId) {
+        return getEpisodeInfoAsync(showID, seasonId, episodeId, EpisodeField.ALL);
+    }
+
+    /**
+     * Get only the wanted fields of a specific episode without blocking the calling thread
+     *
+     * @param showID
+     * @param seasonId
+     * @param episodeId
+     * @param fields
+     * @return
+     */
+    public CompletableFuture<Episode> getEpisodeInfoAsync(String showID, String seasonId, String episodeId, Set<EpisodeField> fields) {
+        if (!isValidString(showID) || !isValidString(seasonId) || !isValidString(episodeId)) {
+            return CompletableFuture.completedFuture(new Episode());
+        }
+
+        StringBuilder tvrageURL = buildURL(API_EPISODE_INFO, showID);
+        // Append the Season & Episode to the URL
+        tvrageURL.append("&ep=").append(seasonId);
+        tvrageURL.append("x").append(episodeId);
+
+        final String url = tvrageURL.toString();
+        return fetchAsync(CacheType.EPISODE_INFO, episodeKey(showID, seasonId, episodeId), viewKey(fields, EpisodeField.ALL.size()), url,
+                content -> parserEngine.parseEpisodeInfo(xmlParserFactory, content, url, fields));
+    }
+
+    /**
+     * Get the episode information for all episodes for a show without blocking the calling thread
+     *
+     * @param showID
+     * @return
+     */
+    public CompletableFuture<EpisodeList> getEpisodeListAsync(String showID) {
+        return getEpisodeListAsync(showID, EpisodeField.ALL);
+    }
+
+    /**
+     * Get only the wanted fields of all episodes for a show without blocking the calling thread
+     *
+     * @param showID
+     * @param fields
+     * @return
+     */
+    public CompletableFuture<EpisodeList> getEpisodeListAsync(String showID, Set<EpisodeField> fields) {
+        if (!isValidString(showID)) {
+            return CompletableFuture.completedFuture(new EpisodeList());
+        }
+
+        final String tvrageURL = buildURL(API_EPISODE_LIST, showID).toString();
+        return fetchAsync(CacheType.EPISODE_LIST, showID, viewKey(fields, EpisodeField.ALL.size()), tvrageURL,
+                indexing(showID, fields, content -> parserEngine.parseEpisodeList(xmlParserFactory, content, tvrageURL, fields)));
+    }
+
+    /**
+     * Get the show information using the show ID without blocking the calling thread
+     *
+     * @param showID
+     * @return
+     */
+    public CompletableFuture<ShowInfo> getShowInfoAsync(int showID) {
+        return getShowInfoAsync(showID, ShowField.ALL);
+    }
+
+    /**
+     * Get only the wanted fields of the show information without blocking the calling thread
+     *
+     * @param showID
+     * @param fields
+     * @return
+     */
+    public CompletableFuture<ShowInfo> getShowInfoAsync(int showID, Set<ShowField> fields) {
+        if (showID == 0) {
+            return CompletableFuture.completedFuture(new ShowInfo());
+        }
+
+        final String tvrageURL = buildURL(API_SHOWINFO, Integer.toString(showID)).toString();
+        return fetchAsync(CacheType.SHOW_INFO, Integer.toString(showID), viewKey(fields, ShowField.ALL.size()), tvrageURL,
+                content -> firstShow(parserEngine.parseShowInfo(xmlParserFactory, content, tvrageURL, fields)));
+    }
+
+    /**
+     * Get the show information using the show ID without blocking the calling thread
+     *
+     * @param showID
+     * @return
+     */
+    public CompletableFuture<ShowInfo> getShowInfoAsync(String showID) {
+        return getShowInfoAsync(showID, ShowField.ALL);
+    }
+
+    /**
+     * Get only the wanted fields of the show information using the show ID without blocking the calling thread
+     *
+     * @param showID
+     * @param fields
+     * @return
+     */
+    public CompletableFuture<ShowInfo> getShowInfoAsync(String showID, Set<ShowField> fields) {
+        int id = NumberUtils.toInt(showID, 0);
+        if (id > 0) {
+            return getShowInfoAsync(id, fields);
+        } else {
+            return CompletableFuture.completedFuture(new ShowInfo());
+        }
+    }
+
+    /**
+     * Search for the show using the show name without blocking the calling thread
+     *
+     * @param showName
+     * @return list of matching shows
+     */
+    public CompletableFuture<List<ShowInfo>> searchShowAsync(String showName) {
+        return searchShowAsync(showName, ShowField.ALL);
+    }
+
+    /**
+     * Search for the show using the show name without blocking the calling thread, only reading the wanted fields of each
+     * show
+     *
+     * @param showName
+     * @param fields
+     * @return list of matching shows
+     */
+    public CompletableFuture<List<ShowInfo>> searchShowAsync(String showName, Set<ShowField> fields) {
+        if (!isValidString(showName)) {
+            return CompletableFuture.<List<ShowInfo>>completedFuture(new ArrayList<>());
+        }
+
+        final String tvrageURL = buildURL(API_SEARCH, showName).toString();
+        return fetchAsync(CacheType.SEARCH, searchKey(showName), viewKey(fields, ShowField.ALL.size()), tvrageURL,
+                content -> parserEngine.parseSearchShow(xmlParserFactory, content, tvrageURL, fields));
+    }
+
+    /**
+     * Get the result from the caches, or request the URL and parse the response.
+     *
+     * Only one request is made for concurrent calls with the same URL and fields, the other callers are given a copy of its
+     * result. The stored response is shared by all of the fields, the parsed results are cached separately for each.
+     *
+     * @param <T>
+     * @param type
+     * @param key
+     * @param view the fields being parsed, empty for all of them
+     * @param url
+     * @param resultParser
+     * @return
+     * @throws TVRageException
+     */
+    private <T> T fetch(CacheType type, String key, String view, String url, ContentHandler<T> resultParser) throws TVRageException {
+        final ContentHandler<T> parser = freezing(resultParser);
+        T cached = getCached(type, key, view);
+        if (cached != null) {
+            return cached;
+        }
+
+        final String resultKey = key + view;
+        return singleFlight.execute(type, url + view, () -> {
+            DiskCache disk = diskCache;
+            if (disk != null) {
+                T stored = readStored(disk, type, key, resultKey, url, parser, disk.getMaxAge(type));
+                if (stored != null) {
+                    return stored;
+                }
+            }
+
+            try {
+                return request(url, caching(type, key, resultKey, url, parser));
+            } catch (TVRageException ex) {
+                T stale = readStale(ex, type, key, resultKey, url, parser);
+                if (stale == null) {
+                    throw ex;
+                }
+                return stale;
+            }
+        });
+    }
+
+    /**
+     * Get the result from the caches, or request the URL using the non-blocking client and parse the response on the async
+     * executor
+     *
+     * @param <T>
+     * @param type
+     * @param key
+     * @param view the fields being parsed, empty for all of them
+     * @param url
+     * @param resultParser
+     * @return
+     */
+    private <T> CompletableFuture<T> fetchAsync(CacheType type, String key, String view, String url, ContentHandler<T> resultParser) {
+        final ContentHandler<T> parser = freezing(resultParser);
+        T cached = getCached(type, key, view);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        final String resultKey = key + view;
+        return singleFlight.executeAsync(type, url + view, () -> {
+            final DiskCache disk = diskCache;
+            CompletableFuture<T> result;
+            if (disk == null) {
+                result = requestAsync(url, caching(type, key, resultKey, url, parser));
+            } else {
+                // Read the stored response on the executor, so the calling thread does not wait for the disk
+                result = CompletableFuture.supplyAsync(() -> readStored(disk, type, key, resultKey, url, parser, disk.getMaxAge(type)), asyncExecutor)
+                        .thenCompose(stored -> stored == null
+                                ? requestAsync(url, caching(type, key, resultKey, url, parser))
+                                : CompletableFuture.completedFuture(stored));
+            }
+
+            if (!staleFallback || disk == null) {
+                return result;
+            }
+            return result.handle((value, error) -> {
+                if (error == null) {
+                    return CompletableFuture.completedFuture(value);
+                }
+
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                return CompletableFuture.supplyAsync(() -> {
+                    T stale = cause instanceof TVRageException ? readStale((TVRageException) cause, type, key, resultKey, url, parser) : null;
+                    if (stale == null) {
+                        throw new CompletionException(cause);
+                    }
+                    return stale;
+                }, asyncExecutor);
+            }).thenCompose(future -> future);
+        });
+    }
+
+    /**
+     * Wrap the parser so that full episode lists update the air date index, if there is one
+     *
+     * @param showID
+     * @param fields
+     * @param parser
+     * @return
+     */
+    private ContentHandler<EpisodeList> indexing(String showID, Set<EpisodeField> fields, ContentHandler<EpisodeList> parser) {
+        final AirDateIndex index = airDateIndex;
+        if (index == null || fields.size() != EpisodeField.ALL.size()) {
+            return parser;
+        }
+        return content -> {
+            EpisodeList episodeList = parser.handle(content);
+            index.update(showID, episodeList);
+            return episodeList;
+        };
+    }
+
+    /**
+     * Wrap the parser so that the results are immutable, if they are wanted
+     *
+     * @param <T>
+     * @param parser
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    private <T> ContentHandler<T> freezing(ContentHandler<T> parser) {
+        if (!immutableResults) {
+            return parser;
+        }
+        return content -> (T) toImmutable(parser.handle(content));
+    }
+
+    /**
+     * Get an immutable copy of a parsed result
+     *
+     * @param result
+     * @return
+     */
+    private static Object toImmutable(Object result) {
+        if (result instanceof EpisodeList) {
+            return result instanceof CompactEpisodeList ? result : ImmutableEpisodeList.copyOf((EpisodeList) result);
+        } else if (result instanceof Episode) {
+            return ImmutableEpisode.copyOf((Episode) result);
+        } else if (result instanceof ShowInfo) {
+            return ImmutableShowInfo.copyOf((ShowInfo) result);
+        } else if (result instanceof List) {
+            List<ShowInfo> shows = new ArrayList<>();
+            for (Object show : (List<?>) result) {
+                shows.add(ImmutableShowInfo.copyOf((ShowInfo) show));
+            }
+            return shows;
+        }
+        return result;
+    }
+
+    /**
+     * Get a copy of a result that can be changed, if it is immutable
+     *
+     * @param result
+     * @return
+     */
+    private static Object toMutable(Object result) {
+        if (result instanceof ImmutableEpisodeList) {
+            return new EpisodeList((EpisodeList) result);
+        } else if (result instanceof ImmutableEpisode) {
+            return new Episode((Episode) result);
+        } else if (result instanceof ImmutableShowInfo) {
+            return new ShowInfo((ShowInfo) result);
+        } else if (result instanceof List) {
+            List<ShowInfo> shows = new ArrayList<>();
+            for (Object show : (List<?>) result) {
+                shows.add(show instanceof ImmutableShowInfo ? new ShowInfo((ShowInfo) show) : (ShowInfo) show);
+            }
+            return shows;
+        }
+        return result;
+    }
+
+    /**
+     * Get the result from the result cache, a result with all of the fields will do when only some are wanted.
+     *
+     * The cache may be shared with an instance that has a different immutable results setting, so the result is copied if it
+     * does not match the setting of this instance
+     *
+     * @param <T>
+     * @param type
+     * @param key
+     * @param view
+     * @return the result, or null if there is none cached
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T getCached(CacheType type, String key, String view) {
+        ResultCache cache = resultCache;
+        if (cache == null) {
+            return null;
+        }
+
+        Object cached = cache.get(type, key + view);
+        if (cached == null && !view.isEmpty()) {
+            cached = cache.get(type, key);
+        }
+        if (cached == null) {
+            return null;
+        }
+        return (T) (immutableResults ? toImmutable(cached) : toMutable(cached));
+    }
+
+    /**
+     * Request the URL, retrying any failures allowed by the retry policy
+     *
+     * @param <T>
+     * @param url
+     * @param handler
+     * @return
+     * @throws TVRageException
+     */
+    private <T> T request(String url, ContentHandler<T> handler) throws TVRageException {
+        RetryPolicy retry = retryPolicy;
+        if (retry == null) {
+            return attempt(url, handler);
+        }
+        return retry.execute(url, () -> attempt(url, handler));
+    }
+
+    /**
+     * Request the URL using the non-blocking client, retrying any failures allowed by the retry policy
+     *
+     * @param <T>
+     * @param url
+     * @param handler
+     * @return
+     */
+    private <T> CompletableFuture<T> requestAsync(String url, ContentHandler<T> handler) {
+        RetryPolicy retry = retryPolicy;
+        if (retry == null) {
+            return attemptAsync(url, handler);
+        }
+        return retry.executeAsync(url, () -> attemptAsync(url, handler));
+    }
+
+    /**
+     * Make a single request, once the circuit breaker and rate limiter allow it
+     *
+     * @param <T>
+     * @param url
+     * @param handler
+     * @return
+     * @throws TVRageException
+     */
+    private <T> T attempt(String url, ContentHandler<T> handler) throws TVRageException {
+        final CircuitBreaker breaker = circuitBreaker;
+        final RateLimiter limiter = rateLimiter;
+        final String endpoint = getEndpoint(url);
+
+        // Only the holder of the trial request of a half open circuit may free the trial
+        final boolean trial = breaker != null && breaker.acquire(endpoint, url);
+
+        if (limiter != null) {
+            try {
+                limiter.acquire(apiKey, url);
+            } catch (TVRageException ex) {
+                if (breaker != null) {
+                    breaker.release(endpoint, trial);
+                }
+                throw ex;
+            }
+        }
+
+        try {
+            T result = send(endpoint, url, handler);
+            if (breaker != null) {
+                breaker.onSuccess(endpoint);
+            }
+            return result;
+        } catch (TVRageException ex) {
+            recordFailure(breaker, limiter, endpoint, ex, trial);
+            throw ex;
+        }
+    }
+
+    /**
+     * Make a single request using the non-blocking client, once the circuit breaker and rate limiter allow it
+     *
+     * @param <T>
+     * @param url
+     * @param handler
+     * @return
+     */
+    private <T> CompletableFuture<T> attemptAsync(String url, ContentHandler<T> handler) {
+        final CircuitBreaker breaker = circuitBreaker;
+        final RateLimiter limiter = rateLimiter;
+        final String endpoint = getEndpoint(url);
+
+        final boolean trial;
+        try {
+            trial = breaker != null && breaker.acquire(endpoint, url);
+        } catch (TVRageException ex) {
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(ex);
+            return rejected;
+        }
+
+        CompletableFuture<Void> ready = limiter == null ? CompletableFuture.completedFuture(null) : limiter.acquireAsync(apiKey, url);
+        return ready.handle((value, error) -> {
+            if (error != null) {
+                if (breaker != null) {
+                    breaker.release(endpoint, trial);
+                }
+                throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+            }
+
+            return sendAsync(endpoint, url, handler)
+                    .whenComplete((result, failure) -> {
+                        Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                        if (cause == null) {
+                            if (breaker != null) {
+                                breaker.onSuccess(endpoint);
+                            }
+                        } else if (cause instanceof TVRageException) {
+                            recordFailure(breaker, limiter, endpoint, (TVRageException) cause, trial);
+                        } else if (breaker != null) {
+                            breaker.release(endpoint, trial);
+                        }
+                    });
+        }).thenCompose(future -> future);
+    }
+
+    /**
+     * Send the request to the transport, hedging it if required
+     *
+     * @param <T>
+     * @param endpoint
+     * @param url
+     * @param handler
+     * @return
+     * @throws TVRageException
+     */
+    private <T> T send(String endpoint, String url, ContentHandler<T> handler) throws TVRageException {
+        if (hedgingPolicy == null) {
+            return transport.requestContent(url, handler);
+        }
+
+        try {
+            return sendAsync(endpoint, url, handler).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new TVRageException(ApiExceptionType.CONNECTION_ERROR, "Interrupted waiting for response", url, ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof TVRageException) {
+                throw (TVRageException) ex.getCause();
+            }
+            throw new TVRageException(ApiExceptionType.UNKNOWN_CAUSE, String.valueOf(ex.getCause()), url, ex.getCause());
+        }
+    }
+
+    /**
+     * Send the request to the transport using the non-blocking client, hedging it if required.
+     *
+     * The hedged copy is another request against the rate limit of the key, so it is only sent if the limiter has a slot
+     * free straight away
+     *
+     * @param <T>
+     * @param endpoint
+     * @param url
+     * @param handler
+     * @return
+     */
+    private <T> CompletableFuture<T> sendAsync(String endpoint, String url, ContentHandler<T> handler) {
+        final HedgingPolicy hedging = hedgingPolicy;
+        if (hedging == null) {
+            return transport.requestContentAsync(url, handler, asyncExecutor);
+        }
+        final RateLimiter limiter = rateLimiter;
+        return hedging.execute(endpoint, () -> transport.requestContentAsync(url, handler, asyncExecutor),
+                () -> limiter == null || limiter.tryAcquire(apiKey));
+    }
+
+    private void recordFailure(CircuitBreaker breaker, RateLimiter limiter, String endpoint, TVRageException ex, boolean trial) {
+        if (limiter != null && ex.isThrottled()) {
+            limiter.backOff(apiKey, ex.getRetryAfter());
+        }
+        if (breaker != null) {
+            breaker.onFailure(endpoint, ex, trial);
+        }
+    }
+
+    /**
+     * Get a stale response from the persistent cache if the request failed because the site is unavailable
+     *
+     * @return the result, or null if there is none to use
+     */
+    private <T> T readStale(TVRageException ex, CacheType type, String key, String resultKey, String url, ContentHandler<T> parser) {
+        DiskCache disk = diskCache;
+        if (!staleFallback || disk == null
+                || (ex.getExceptionType() != ApiExceptionType.CONNECTION_ERROR && ex.getExceptionType() != ApiExceptionType.HTTP_503_ERROR)) {
+            return null;
+        }
+
+        T stale = readStored(disk, type, key, resultKey, url, parser, disk.getStaleAge(type));
+        if (stale != null) {
+            LOG.info("Using stored response for {} as the request failed: {}", url, ex.getResponse());
+        }
+        return stale;
+    }
+
+    /**
+     * Parse the response stored in the persistent cache
+     *
+     * @return the result, or null if there is no usable response stored
+     */
+    private <T> T readStored(DiskCache disk, CacheType type, String key, String resultKey, String url, ContentHandler<T> parser, long maxAge) {
+        try (InputStream stored = disk.get(type, key, maxAge)) {
+            if (stored == null) {
+                return null;
+            }
+
+            T result = parser.handle(stored);
+            ResultCache cache = resultCache;
+            if (cache != null) {
+                cache.put(type, resultKey, result);
+            }
+            return result;
+        } catch (TVRageException | IOException ex) {
+            LOG.warn("Failed to read stored response for {}: {}", url, ex.getMessage());
+            disk.remove(type, key);
+            return null;
+        }
+    }
+
+    /**
+     * Wrap the parser so that the response and the result are added to the caches
+     *
+     * @param <T>
+     * @param type
+     * @param key the key of the stored response
+     * @param resultKey the key of the parsed result
+     * @param url
+     * @param parser
+     * @return
+     */
+    private <T> ContentHandler<T> caching(CacheType type, String key, String resultKey, String url, ContentHandler<T> parser) {
+        final ResultCache cache = resultCache;
+        final DiskCache disk = diskCache;
+        if (cache == null && disk == null) {
+            return parser;
+        }
+
+        return content -> {
+            T result;
+            if (disk == null) {
+                result = parser.handle(content);
+            } else {
+                // The response is only stored once it has been parsed successfully
+                byte[] data = readContent(content, url);
+                result = parser.handle(new ByteArrayInputStream(data));
+                disk.put(type, key, data);
+            }
+
+            if (cache != null) {
+                cache.put(type, resultKey, result);
+            }
+            return result;
+        };
+    }
+
+    private static byte[] readContent(InputStream content, String url) throws TVRageException {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (IOException ex) {
+            throw new TVRageException(ApiExceptionType.CONNECTION_ERROR, ex.getMessage(), url, ex);
+        }
+    }
+
+    /**
+     * Get the endpoint from the URL, used to track the failures of each endpoint separately
+     *
+     * @param url
+     * @return
+     */
+    private static String getEndpoint(String url) {
+        int query = url.indexOf('?');
+        int end = query < 0 ? url.length() : query;
+        return url.substring(url.lastIndexOf('/', end - 1) + 1, end);
+    }
+
+    private static ShowInfo firstShow(List<ShowInfo> showList) {
+        return showList.isEmpty() ? new ShowInfo() : showList.get(0);
+    }
+
+    private static String episodeKey(String showID, String seasonId, String episodeId) {
+        return showID + ":" + seasonId + "x" + episodeId;
+    }
+
+    /**
+     * Get the suffix added to the cache keys of results that only have some of the fields
+     *
+     * @param fields
+     * @param total the number of fields available
+     * @return
+     */
+    private static String viewKey(Set<? extends Enum<?>> fields, int total) {
+        if (fields.size() == total) {
+            return "";
+        }
+
+        long mask = 0;
+        for (Enum<?> field : fields) {
+            mask |= 1L << field.ordinal();
+        }
+        return "|" + Long.toHexString(mask);
+    }
+
+    /**
+     * Get the suffix added to the cache keys of results that only have some of the seasons
+     *
+     * @param seasons
+     * @return
+     */
+    private static String seasonKey(Set<Integer> seasons) {
+        StringBuilder key = new StringBuilder("@");
+        for (Integer season : seasons) {
+            key.append(season).append(',');
+        }
+        return key.toString();
+    }
+
+    private static String searchKey(String showName) {
+        return showName.trim().toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Release the transport if it was created by this class
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (ownsTransport) {
+            transport.close();
+        }
     }
 
     /**
@@ -173,7 +1325,7 @@ public class TVRageApi {
      */
     private StringBuilder buildURL(String urlParameter, String urlData) {
         StringBuilder tvrageURL = new StringBuilder();
-        tvrageURL.append(API_SITE);
+        tvrageURL.append(apiSite);
         tvrageURL.append(urlParameter);
         tvrageURL.append("?key=");
         tvrageURL.append(apiKey);
@@ -25,6 +25,9 @@ import org.yamj.api.common.exception.ApiExceptionType;
 
 public class TVRageException extends ApiException {
 
+    // How long the server asked for requests to be delayed, in milliseconds
+    private long retryAfter = 0;
+
     public TVRageException(ApiExceptionType exceptionType, String response) {
         super(exceptionType, response);
     }
@@ -45,6 +48,20 @@ public class TVRageException extends ApiException {
         super(exceptionType, response, responseCode, url);
     }
 
+    /**
+     * Exception for a response that asked for requests to be delayed
+     *
+     * @param exceptionType
+     * @param response
+     * @param responseCode
+     * @param url
+     * @param retryAfter the delay requested by the server in milliseconds, 0 if none was given
+     */
+    public TVRageException(ApiExceptionType exceptionType, String response, int responseCode, String url, long retryAfter) {
+        super(exceptionType, response, responseCode, url);
+        this.retryAfter = retryAfter;
+    }
+
     public TVRageException(ApiExceptionType exceptionType, String response, URL url, Throwable cause) {
         super(exceptionType, response, url, cause);
     }
@@ -60,4 +77,23 @@ public class TVRageException extends ApiException {
     public TVRageException(ApiExceptionType exceptionType, String response, int responseCode, String url, Throwable cause) {
         super(exceptionType, response, responseCode, url, cause);
     }
+
+    /**
+     * The delay requested by the server before sending further requests
+     *
+     * @return the delay in milliseconds, or 0 if none was requested
+     */
+    public long getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Check if the server rejected the request because too many requests were being sent
+     *
+     * @return
+     */
+    public boolean isThrottled() {
+        // A server error with a Retry-After header is also used for throttling
+        return getResponseCode() == 429 || (getResponseCode() >= 500 && retryAfter > 0);
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.cache;
+
+import com.omertron.tvrageapi.model.CompactEpisodeList;
+import com.omertron.tvrageapi.model.Episode;
+import com.omertron.tvrageapi.model.EpisodeList;
+import com.omertron.tvrageapi.model.ImmutableEpisode;
+import com.omertron.tvrageapi.model.ImmutableEpisodeList;
+import com.omertron.tvrageapi.model.ImmutableShowInfo;
+import com.omertron.tvrageapi.model.ShowInfo;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The types of result that can be cached, along with how they are weighed and copied.
+ *
+ * The models are mutable, so the cache only ever hands out copies of the values it holds. The immutable models are shared
+ * rather than copied.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public enum CacheType {
+
+    /**
+     * Results of showinfo.php, keyed by show ID
+     */
+    SHOW_INFO(TimeUnit.HOURS.toMillis(6)) {
+        @Override
+        int weigh(Object value) {
+            return 1;
+        }
+
+        @Override
+        Object copy(Object value) {
+            if (value instanceof ImmutableShowInfo) {
+                return value;
+            }
+            return new ShowInfo((ShowInfo) value);
+        }
+    },
+    /**
+     * Results of episode_list.php, keyed by show ID and weighed by the number of episodes
+     */
+    EPISODE_LIST(TimeUnit.HOURS.toMillis(1)) {
+        @Override
+        int weigh(Object value) {
+            return Math.max(1, ((EpisodeList) value).getEpisodeCount());
+        }
+
+        @Override
+        Object copy(Object value) {
+            if (value instanceof CompactEpisodeList || value instanceof ImmutableEpisodeList) {
+                // Read only, so it can be shared
+                return value;
+            }
+            return new EpisodeList((EpisodeList) value);
+        }
+    },
+    /**
+     * Results of episodeinfo.php, keyed by show ID and episode
+     */
+    EPISODE_INFO(TimeUnit.HOURS.toMillis(1)) {
+        @Override
+        int weigh(Object value) {
+            return 1;
+        }
+
+        @Override
+        Object copy(Object value) {
+            if (value instanceof ImmutableEpisode) {
+                return value;
+            }
+            return new Episode((Episode) value);
+        }
+    },
+    /**
+     * Results of search.php, keyed by the search term and weighed by the number of shows
+     */
+    SEARCH(TimeUnit.MINUTES.toMillis(30)) {
+        @Override
+        int weigh(Object value) {
+            return Math.max(1, ((List<?>) value).size());
+        }
+
+        @Override
+        Object copy(Object value) {
+            List<?> shows = (List<?>) value;
+            List<ShowInfo> copy = new ArrayList<>(shows.size());
+            for (Object show : shows) {
+                copy.add(show instanceof ImmutableShowInfo ? (ShowInfo) show : new ShowInfo((ShowInfo) show));
+            }
+            return copy;
+        }
+    };
+
+    private final long defaultTtl;
+
+    private CacheType(long defaultTtl) {
+        this.defaultTtl = defaultTtl;
+    }
+
+    /**
+     * The time to live used unless one is set on the builder
+     *
+     * @return the time in milliseconds
+     */
+    public long getDefaultTtl() {
+        return defaultTtl;
+    }
+
+    /**
+     * Get the weight of the value, used to bound the size of the cache
+     *
+     * @param value
+     * @return
+     */
+    abstract int weigh(Object value);
+
+    /**
+     * Create a copy of the value that shares no mutable state with it
+     *
+     * @param value
+     * @return
+     */
+    abstract Object copy(Object value);
+}
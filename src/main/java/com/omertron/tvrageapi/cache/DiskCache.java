@@ -0,0 +1,653 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent cache of the compressed responses, so that a restarted process does not need to request them all again.
+ *
+ * Responses are appended to segment files in the cache directory along with the time they were stored. An index of the latest
+ * record for each request is kept in memory and rebuilt from the segments when the cache is opened, any damaged records at
+ * the end of a segment (from a crash part way through a write) are discarded.
+ *
+ * Once the segments grow beyond the maximum size, or are mostly replaced records, the cache is compacted by copying the newest
+ * live records into a single new segment and deleting the old ones.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class DiskCache implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DiskCache.class);
+    // "TVRC" followed by the format version
+    private static final int MAGIC = 0x54565243;
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 5;
+    // Record length and checksum
+    private static final int RECORD_PREFIX = 8;
+    // Checksum, timestamp, key length and data length
+    private static final int MIN_RECORD_LENGTH = 4 + 8 + 2 + 4;
+    private static final int TOMBSTONE = -1;
+    private static final String SUFFIX = ".seg";
+    private static final char KEY_SEPARATOR = '/';
+    private static final int MAX_KEY_LENGTH = 1024;
+
+    private final Path directory;
+    private final long maxSize;
+    private final long segmentSize;
+    private final long[] maxAges;
+    private final long staleAge;
+    private final LongSupplier clock;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by the lock
+    private final Map<String, Location> index = new HashMap<>();
+    private final TreeMap<Integer, FileChannel> segments = new TreeMap<>();
+    private FileChannel active = null;
+    private int activeId = 0;
+    private long activeSize = 0;
+    private long totalBytes = 0;
+    private long liveBytes = 0;
+    private boolean closed = false;
+
+    DiskCache(DiskCacheBuilder config) throws IOException {
+        this.directory = config.getDirectory();
+        this.maxSize = config.getMaxSize();
+        this.segmentSize = config.getSegmentSize();
+        this.maxAges = new long[CacheType.values().length];
+        for (CacheType type : CacheType.values()) {
+            maxAges[type.ordinal()] = config.getMaxAge(type, TimeUnit.MILLISECONDS);
+        }
+        this.staleAge = config.getStaleAge(TimeUnit.MILLISECONDS);
+        this.clock = config.getClock();
+
+        Files.createDirectories(directory);
+        lock.writeLock().lock();
+        try {
+            load();
+            if (isCompactionNeeded()) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the stored response if it is no older than the maximum age for the type
+     *
+     * @param type
+     * @param key
+     * @return the uncompressed content or null if there is no usable response
+     */
+    public InputStream get(CacheType type, String key) {
+        return get(type, key, maxAges[type.ordinal()]);
+    }
+
+    /**
+     * Get the stored response if it is no older than the age given
+     *
+     * @param type
+     * @param key
+     * @param maxAge the maximum age in milliseconds
+     * @return the uncompressed content or null if there is no usable response
+     */
+    public InputStream get(CacheType type, String key, long maxAge) {
+        String storeKey = storeKey(type, key);
+        lock.readLock().lock();
+        try {
+            Location location = index.get(storeKey);
+            if (closed || location == null || clock.getAsLong() - location.timestamp > maxAge) {
+                return null;
+            }
+
+            Record record = readRecord(segments.get(location.segment), location.offset, location.length);
+            if (record == null || !storeKey.equals(record.key)) {
+                LOG.warn("Damaged record for '{}' in cache segment {}", storeKey, location.segment);
+                return null;
+            }
+            return new InflaterInputStream(new ByteArrayInputStream(record.data));
+        } catch (IOException ex) {
+            LOG.warn("Failed to read '{}' from the cache: {}", storeKey, ex.getMessage());
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The maximum age of a stored response of the type that will be used
+     *
+     * @param type
+     * @return the age in milliseconds
+     */
+    public long getMaxAge(CacheType type) {
+        return maxAges[type.ordinal()];
+    }
+
+    /**
+     * The maximum age of a stored response of the type that is kept for use when the site can not be reached
+     *
+     * @param type
+     * @return the age in milliseconds
+     */
+    public long getStaleAge(CacheType type) {
+        long age = maxAges[type.ordinal()] + staleAge;
+        // Saturate rather than overflow for very long ages
+        return age < 0 ? Long.MAX_VALUE : age;
+    }
+
+    /**
+     * Store the response, replacing any earlier response for the same request
+     *
+     * @param type
+     * @param key
+     * @param content the uncompressed content
+     */
+    public void put(CacheType type, String key, byte[] content) {
+        String storeKey = storeKey(type, key);
+        long timestamp = clock.getAsLong();
+        byte[] record;
+        try {
+            record = encode(storeKey, timestamp, compress(content));
+        } catch (IOException ex) {
+            LOG.warn("Failed to compress '{}': {}", storeKey, ex.getMessage());
+            return;
+        }
+
+        if (record.length > Math.min(segmentSize, maxSize / 2) || storeKey.length() > MAX_KEY_LENGTH) {
+            LOG.debug("Response for '{}' is too large to cache ({} bytes)", storeKey, record.length);
+            return;
+        }
+
+        append(storeKey, record, timestamp, type);
+    }
+
+    /**
+     * Remove the stored response
+     *
+     * @param type
+     * @param key
+     */
+    public void remove(CacheType type, String key) {
+        String storeKey = storeKey(type, key);
+        if (storeKey.length() <= MAX_KEY_LENGTH) {
+            long timestamp = clock.getAsLong();
+            append(storeKey, encode(storeKey, timestamp, null), timestamp, null);
+        }
+    }
+
+    /**
+     * The number of responses stored
+     *
+     * @return
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The total size of the segment files
+     *
+     * @return the size in bytes
+     */
+    public long diskSize() {
+        lock.readLock().lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copy the newest live responses into a new segment and delete the old segments.
+     *
+     * Responses older than the stale age of their type are dropped, as are the oldest responses if the total would be more
+     * than three quarters of the maximum size. Expired responses within the stale age are kept for the stale fallback.
+     *
+     * @throws IOException
+     */
+    public void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+
+            long now = clock.getAsLong();
+            List<Map.Entry<String, Location>> live = new ArrayList<>(index.size());
+            for (Map.Entry<String, Location> entry : index.entrySet()) {
+                if (now - entry.getValue().timestamp <= getStaleAge(entry.getValue().type)) {
+                    live.add(entry);
+                }
+            }
+            // Newest first, so the oldest are dropped if there is not enough room
+            live.sort((a, b) -> Long.compare(b.getValue().timestamp, a.getValue().timestamp));
+
+            int newId = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+            FileChannel out = createSegment(newId);
+            Map<String, Location> newIndex = new HashMap<>();
+            long target = maxSize / 4 * 3;
+            long position = HEADER_SIZE;
+            try {
+                for (Map.Entry<String, Location> entry : live) {
+                    Location location = entry.getValue();
+                    if (position + location.length > target) {
+                        continue;
+                    }
+
+                    ByteBuffer buffer = ByteBuffer.allocate(location.length);
+                    readFully(segments.get(location.segment), buffer, location.offset);
+                    buffer.flip();
+                    writeFully(out, buffer, position);
+                    newIndex.put(entry.getKey(), new Location(newId, position, location.length, location.timestamp, location.type));
+                    position += location.length;
+                }
+                out.force(true);
+            } catch (IOException ex) {
+                // Leave the existing segments in place
+                closeQuietly(out);
+                Files.deleteIfExists(segmentPath(newId));
+                throw ex;
+            }
+
+            // The new segment is complete, so the old ones are no longer needed
+            for (Map.Entry<Integer, FileChannel> segment : segments.entrySet()) {
+                closeQuietly(segment.getValue());
+                Files.deleteIfExists(segmentPath(segment.getKey()));
+            }
+            segments.clear();
+            segments.put(newId, out);
+            LOG.debug("Compacted cache from {} to {} bytes, {} of {} responses kept", totalBytes, position, newIndex.size(), index.size());
+
+            index.clear();
+            index.putAll(newIndex);
+            active = out;
+            activeId = newId;
+            activeSize = position;
+            totalBytes = position;
+            liveBytes = position - HEADER_SIZE;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Flush and close the segment files
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (active != null) {
+                active.force(true);
+            }
+            for (FileChannel channel : segments.values()) {
+                closeQuietly(channel);
+            }
+            segments.clear();
+            index.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void append(String storeKey, byte[] record, long timestamp, CacheType type) {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+
+            if (active == null || activeSize + record.length > segmentSize) {
+                roll();
+            }
+
+            long offset = activeSize;
+            writeFully(active, ByteBuffer.wrap(record), offset);
+            activeSize += record.length;
+            totalBytes += record.length;
+
+            Location previous = type == null ? index.remove(storeKey)
+                    : index.put(storeKey, new Location(activeId, offset, record.length, timestamp, type));
+            if (previous != null) {
+                liveBytes -= previous.length;
+            }
+            if (type != null) {
+                liveBytes += record.length;
+            }
+
+            if (isCompactionNeeded()) {
+                compact();
+            }
+        } catch (IOException ex) {
+            LOG.warn("Failed to write '{}' to the cache: {}", storeKey, ex.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean isCompactionNeeded() {
+        // Over the size limit, or more than half of the space is used by replaced records
+        return totalBytes > maxSize || (totalBytes > segmentSize && liveBytes * 2 < totalBytes);
+    }
+
+    /**
+     * Start a new active segment
+     *
+     * @throws IOException
+     */
+    private void roll() throws IOException {
+        int newId = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        active = createSegment(newId);
+        activeId = newId;
+        activeSize = HEADER_SIZE;
+        totalBytes += HEADER_SIZE;
+        segments.put(newId, active);
+    }
+
+    private FileChannel createSegment(int id) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(id), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).put(VERSION).flip();
+        writeFully(channel, header, 0);
+        return channel;
+    }
+
+    private Path segmentPath(int id) {
+        return directory.resolve(String.format("%08d%s", id, SUFFIX));
+    }
+
+    /**
+     * Rebuild the index from the segment files, oldest first so that later records replace earlier ones
+     *
+     * @throws IOException
+     */
+    private void load() throws IOException {
+        TreeMap<Integer, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                try {
+                    files.put(Integer.parseInt(name.substring(0, name.length() - SUFFIX.length())), file);
+                } catch (NumberFormatException ex) {
+                    LOG.debug("Ignoring unexpected file in cache directory: {}", name);
+                }
+            }
+        }
+
+        for (Map.Entry<Integer, Path> file : files.entrySet()) {
+            FileChannel channel = FileChannel.open(file.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (!hasValidHeader(channel)) {
+                LOG.warn("Deleting unreadable cache segment {}", file.getValue());
+                closeQuietly(channel);
+                Files.delete(file.getValue());
+                continue;
+            }
+
+            long end = loadSegment(file.getKey(), channel);
+            if (end < channel.size()) {
+                LOG.warn("Discarding {} damaged bytes at the end of cache segment {}", channel.size() - end, file.getValue());
+                channel.truncate(end);
+            }
+
+            segments.put(file.getKey(), channel);
+            totalBytes += end;
+            active = channel;
+            activeId = file.getKey();
+            activeSize = end;
+        }
+        LOG.debug("Loaded {} cached responses from {}", index.size(), directory);
+    }
+
+    /**
+     * Add the records in the segment to the index
+     *
+     * @param id
+     * @param channel
+     * @return the position after the last valid record
+     * @throws IOException
+     */
+    private long loadSegment(int id, FileChannel channel) throws IOException {
+        long size = channel.size();
+        long position = HEADER_SIZE;
+        ByteBuffer prefix = ByteBuffer.allocate(4);
+        while (position + RECORD_PREFIX <= size) {
+            prefix.clear();
+            readFully(channel, prefix, position);
+            int length = prefix.getInt(0) + 4;
+            if (length < MIN_RECORD_LENGTH + 4 || position + length > size) {
+                break;
+            }
+
+            Record record = readRecord(channel, position, length);
+            if (record == null) {
+                break;
+            }
+
+            CacheType type = typeOf(record.key);
+            Location previous;
+            if (record.data == null || type == null) {
+                previous = index.remove(record.key);
+            } else {
+                previous = index.put(record.key, new Location(id, position, length, record.timestamp, type));
+                liveBytes += length;
+            }
+            if (previous != null) {
+                liveBytes -= previous.length;
+            }
+            position += length;
+        }
+        return position;
+    }
+
+    private static boolean hasValidHeader(FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(channel, header, 0);
+        return header.getInt(0) == MAGIC && header.get(4) == VERSION;
+    }
+
+    /**
+     * Read and check a record
+     *
+     * @return the record, or null if the checksum does not match
+     */
+    private static Record readRecord(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        readFully(channel, buffer, position);
+        buffer.flip();
+
+        buffer.position(4);
+        int checksum = buffer.getInt();
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), RECORD_PREFIX, length - RECORD_PREFIX);
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+
+        long timestamp = buffer.getLong();
+        int keyLength = buffer.getShort() & 0xFFFF;
+        if (keyLength > buffer.remaining() - 4) {
+            return null;
+        }
+        byte[] key = new byte[keyLength];
+        buffer.get(key);
+        int dataLength = buffer.getInt();
+        byte[] data = null;
+        if (dataLength != TOMBSTONE) {
+            if (dataLength < 0 || dataLength > buffer.remaining()) {
+                return null;
+            }
+            data = new byte[dataLength];
+            buffer.get(data);
+        }
+        return new Record(new String(key, StandardCharsets.UTF_8), timestamp, data);
+    }
+
+    /**
+     * Create a record, which is a tombstone if there is no data.
+     *
+     * Layout: length, CRC32 of the rest, timestamp, key length, key, data length, data
+     */
+    private static byte[] encode(String storeKey, long timestamp, byte[] data) {
+        byte[] key = storeKey.getBytes(StandardCharsets.UTF_8);
+        int dataLength = data == null ? 0 : data.length;
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_PREFIX + 8 + 2 + key.length + 4 + dataLength);
+        buffer.putInt(buffer.capacity() - 4);
+        buffer.putInt(0);
+        buffer.putLong(timestamp);
+        buffer.putShort((short) key.length);
+        buffer.put(key);
+        buffer.putInt(data == null ? TOMBSTONE : data.length);
+        if (data != null) {
+            buffer.put(data);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), RECORD_PREFIX, buffer.capacity() - RECORD_PREFIX);
+        buffer.putInt(4, (int) crc.getValue());
+        return buffer.array();
+    }
+
+    private static byte[] compress(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out)) {
+            deflater.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    private static String storeKey(CacheType type, String key) {
+        return type.name() + KEY_SEPARATOR + key;
+    }
+
+    private static CacheType typeOf(String storeKey) {
+        int separator = storeKey.indexOf(KEY_SEPARATOR);
+        if (separator > 0) {
+            try {
+                return CacheType.valueOf(storeKey.substring(0, separator));
+            } catch (IllegalArgumentException ex) {
+                LOG.trace("Unknown cache type in key '{}'", storeKey, ex);
+            }
+        }
+        return null;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of cache segment");
+            }
+            offset += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ex) {
+            LOG.trace("Failed to close cache segment", ex);
+        }
+    }
+
+    /**
+     * Where the latest record for a request is stored
+     */
+    private static final class Location {
+
+        private final int segment;
+        private final long offset;
+        private final int length;
+        private final long timestamp;
+        private final CacheType type;
+
+        Location(int segment, long offset, int length, long timestamp, CacheType type) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.timestamp = timestamp;
+            this.type = type;
+        }
+    }
+
+    private static final class Record {
+
+        private final String key;
+        private final long timestamp;
+        private final byte[] data;
+
+        Record(String key, long timestamp, byte[] data) {
+            this.key = key;
+            this.timestamp = timestamp;
+            this.data = data;
+        }
+    }
+}
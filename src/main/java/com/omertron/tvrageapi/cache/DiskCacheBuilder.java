@@ -0,0 +1,162 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.cache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Builder for a DiskCache
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class DiskCacheBuilder {
+
+    private final Path directory;
+    private long maxSize = 64L * 1024 * 1024;
+    private long segmentSize = 4L * 1024 * 1024;
+    private final Map<CacheType, Long> maxAges = new EnumMap<>(CacheType.class);
+    private long staleAge = TimeUnit.DAYS.toMillis(7);
+    private LongSupplier clock = System::currentTimeMillis;
+
+    /**
+     * Create a builder for a cache stored in the directory
+     *
+     * @param directory
+     */
+    public DiskCacheBuilder(Path directory) {
+        this.directory = directory;
+        for (CacheType type : CacheType.values()) {
+            maxAges.put(type, type.getDefaultTtl());
+        }
+    }
+
+    /**
+     * The maximum size of the cache files, the oldest responses are dropped when the cache is compacted to stay below it
+     *
+     * @param maxSize the size in bytes
+     * @return
+     */
+    public DiskCacheBuilder setMaxSize(long maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    /**
+     * The size at which a new segment file is started
+     *
+     * @param segmentSize the size in bytes
+     * @return
+     */
+    public DiskCacheBuilder setSegmentSize(long segmentSize) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive");
+        }
+        this.segmentSize = segmentSize;
+        return this;
+    }
+
+    /**
+     * How old a stored response of the type can be and still be used
+     *
+     * @param type
+     * @param duration
+     * @param unit
+     * @return
+     */
+    public DiskCacheBuilder setMaxAge(CacheType type, long duration, TimeUnit unit) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("Maximum age can not be negative");
+        }
+        maxAges.put(type, unit.toMillis(duration));
+        return this;
+    }
+
+    /**
+     * How long a response is kept once it is older than its maximum age, for use when the site can not be reached.
+     *
+     * Expired responses are only dropped by a compaction once they are past this age, or to keep the cache below its maximum
+     * size. Defaults to 7 days, set it to 0 to drop expired responses
+     *
+     * @param duration
+     * @param unit
+     * @return
+     */
+    public DiskCacheBuilder setStaleAge(long duration, TimeUnit unit) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("Stale age can not be negative");
+        }
+        this.staleAge = unit.toMillis(duration);
+        return this;
+    }
+
+    /**
+     * Source of the current time in milliseconds, for testing
+     *
+     * @param clock
+     * @return
+     */
+    DiskCacheBuilder setClock(LongSupplier clock) {
+        this.clock = clock;
+        return this;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public long getSegmentSize() {
+        return segmentSize;
+    }
+
+    public long getMaxAge(CacheType type, TimeUnit unit) {
+        return unit.convert(maxAges.get(type), TimeUnit.MILLISECONDS);
+    }
+
+    public long getStaleAge(TimeUnit unit) {
+        return unit.convert(staleAge, TimeUnit.MILLISECONDS);
+    }
+
+    LongSupplier getClock() {
+        return clock;
+    }
+
+    /**
+     * Open the cache, loading the index of any responses already stored in the directory
+     *
+     * @return
+     * @throws IOException
+     */
+    public DiskCache build() throws IOException {
+        return new DiskCache(this);
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * In memory cache of the parsed results, bounded by age and total weight.
+ *
+ * The entries are split between a number of segments, each with its own lock, so threads working on different shows rarely
+ * wait for each other. Within each segment the least recently used entries are evicted first once its share of the maximum
+ * weight is exceeded. Expired entries are removed when they are next looked up or by {@link #cleanUp()}.
+ *
+ * Values are copied when they are added and again when they are returned, so callers are free to change the results they are
+ * given.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class ResultCache {
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final long[] ttls;
+    private final LongSupplier ticker;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    ResultCache(ResultCacheBuilder config) {
+        int count = 1;
+        while (count < config.getConcurrencyLevel()) {
+            count <<= 1;
+        }
+
+        long segmentWeight = Math.max(1L, (config.getMaxWeight() + count - 1) / count);
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(segmentWeight);
+        }
+        this.segmentMask = count - 1;
+
+        this.ttls = new long[CacheType.values().length];
+        for (CacheType type : CacheType.values()) {
+            ttls[type.ordinal()] = config.getTtl(type, TimeUnit.NANOSECONDS);
+        }
+        this.ticker = config.getTicker();
+    }
+
+    /**
+     * Get a copy of the cached result
+     *
+     * @param <T>
+     * @param type
+     * @param key
+     * @return the result or null if it is not cached or has expired
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(CacheType type, String key) {
+        Key cacheKey = new Key(type, key);
+        Entry entry = segmentFor(cacheKey).get(cacheKey, ticker.getAsLong());
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        // The cached value is never changed, so it is safe to copy it outside of the lock
+        return (T) type.copy(entry.value);
+    }
+
+    /**
+     * Add a copy of the result to the cache, replacing any existing value
+     *
+     * @param type
+     * @param key
+     * @param value
+     */
+    public void put(CacheType type, String key, Object value) {
+        long ttl = ttls[type.ordinal()];
+        if (value == null || ttl == 0) {
+            return;
+        }
+
+        Key cacheKey = new Key(type, key);
+        Entry entry = new Entry(type.copy(value), type.weigh(value), ticker.getAsLong() + ttl);
+        segmentFor(cacheKey).put(cacheKey, entry);
+    }
+
+    /**
+     * Remove the result from the cache
+     *
+     * @param type
+     * @param key
+     */
+    public void invalidate(CacheType type, String key) {
+        Key cacheKey = new Key(type, key);
+        segmentFor(cacheKey).remove(cacheKey);
+    }
+
+    /**
+     * Remove all results from the cache
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Remove all of the expired results
+     */
+    public void cleanUp() {
+        long now = ticker.getAsLong();
+        for (Segment segment : segments) {
+            segment.removeExpired(now);
+        }
+    }
+
+    /**
+     * The number of results held, including any that have expired but not yet been removed
+     *
+     * @return
+     */
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * The total weight of the results held
+     *
+     * @return
+     */
+    public long weight() {
+        long weight = 0;
+        for (Segment segment : segments) {
+            weight += segment.weight();
+        }
+        return weight;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    private Segment segmentFor(Key key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & segmentMask];
+    }
+
+    /**
+     * Key made up of the type of result and its identifier
+     */
+    private static final class Key {
+
+        private final CacheType type;
+        private final String id;
+        private final int hash;
+
+        Key(CacheType type, String id) {
+            this.type = type;
+            this.id = id;
+            this.hash = 31 * type.hashCode() + id.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof Key) {
+                final Key other = (Key) obj;
+                return type == other.type && id.equals(other.id);
+            } else {
+                return false;
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final int weight;
+        private final long expires;
+
+        Entry(Object value, int weight, long expires) {
+            this.value = value;
+            this.weight = weight;
+            this.expires = expires;
+        }
+
+        boolean isExpired(long now) {
+            return now - expires >= 0;
+        }
+    }
+
+    /**
+     * A share of the cache guarded by a single lock, with the entries kept in access order
+     */
+    private static final class Segment extends ReentrantLock {
+
+        private static final long serialVersionUID = 1L;
+        private final transient Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final long maxWeight;
+        private long totalWeight = 0;
+
+        Segment(long maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+
+        Entry get(Key key, long now) {
+            lock();
+            try {
+                Entry entry = entries.get(key);
+                if (entry != null && entry.isExpired(now)) {
+                    entries.remove(key);
+                    totalWeight -= entry.weight;
+                    return null;
+                }
+                return entry;
+            } finally {
+                unlock();
+            }
+        }
+
+        void put(Key key, Entry entry) {
+            lock();
+            try {
+                Entry previous = entries.remove(key);
+                if (previous != null) {
+                    totalWeight -= previous.weight;
+                }
+
+                if (entry.weight > maxWeight) {
+                    // Would evict everything else and still not fit
+                    return;
+                }
+
+                entries.put(key, entry);
+                totalWeight += entry.weight;
+
+                Iterator<Entry> lru = entries.values().iterator();
+                while (totalWeight > maxWeight && lru.hasNext()) {
+                    totalWeight -= lru.next().weight;
+                    lru.remove();
+                }
+            } finally {
+                unlock();
+            }
+        }
+
+        void remove(Key key) {
+            lock();
+            try {
+                Entry previous = entries.remove(key);
+                if (previous != null) {
+                    totalWeight -= previous.weight;
+                }
+            } finally {
+                unlock();
+            }
+        }
+
+        void removeExpired(long now) {
+            lock();
+            try {
+                Iterator<Entry> it = entries.values().iterator();
+                while (it.hasNext()) {
+                    Entry entry = it.next();
+                    if (entry.isExpired(now)) {
+                        totalWeight -= entry.weight;
+                        it.remove();
+                    }
+                }
+            } finally {
+                unlock();
+            }
+        }
+
+        void clear() {
+            lock();
+            try {
+                entries.clear();
+                totalWeight = 0;
+            } finally {
+                unlock();
+            }
+        }
+
+        int size() {
+            lock();
+            try {
+                return entries.size();
+            } finally {
+                unlock();
+            }
+        }
+
+        long weight() {
+            lock();
+            try {
+                return totalWeight;
+            } finally {
+                unlock();
+            }
+        }
+    }
+}
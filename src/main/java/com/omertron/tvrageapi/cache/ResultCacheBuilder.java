@@ -0,0 +1,130 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.cache;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Builder for a ResultCache
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class ResultCacheBuilder {
+
+    private long maxWeight = 250_000L;
+    private int concurrencyLevel = 16;
+    private final Map<CacheType, Long> ttls = new EnumMap<>(CacheType.class);
+    private LongSupplier ticker = System::nanoTime;
+
+    public ResultCacheBuilder() {
+        for (CacheType type : CacheType.values()) {
+            ttls.put(type, TimeUnit.MILLISECONDS.toNanos(type.getDefaultTtl()));
+        }
+    }
+
+    /**
+     * The maximum total weight of the cached results.
+     *
+     * Each show or episode weighs 1, episode lists weigh the number of episodes they contain and search results the number of
+     * shows found.
+     *
+     * @param maxWeight
+     * @return
+     */
+    public ResultCacheBuilder setMaxWeight(long maxWeight) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be positive");
+        }
+        this.maxWeight = maxWeight;
+        return this;
+    }
+
+    /**
+     * The number of lock stripes, rounded up to a power of two.
+     *
+     * More stripes allow more threads to use the cache at the same time, but the weight bound is split between them
+     *
+     * @param concurrencyLevel
+     * @return
+     */
+    public ResultCacheBuilder setConcurrencyLevel(int concurrencyLevel) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Concurrency level must be positive");
+        }
+        this.concurrencyLevel = concurrencyLevel;
+        return this;
+    }
+
+    /**
+     * How long results of the type are kept, a value of 0 disables caching of the type
+     *
+     * @param type
+     * @param duration
+     * @param unit
+     * @return
+     */
+    public ResultCacheBuilder setTtl(CacheType type, long duration, TimeUnit unit) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("Time to live can not be negative");
+        }
+        ttls.put(type, unit.toNanos(duration));
+        return this;
+    }
+
+    /**
+     * Source of the current time in nanoseconds, for testing
+     *
+     * @param ticker
+     * @return
+     */
+    ResultCacheBuilder setTicker(LongSupplier ticker) {
+        this.ticker = ticker;
+        return this;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public int getConcurrencyLevel() {
+        return concurrencyLevel;
+    }
+
+    public long getTtl(CacheType type, TimeUnit unit) {
+        return unit.convert(ttls.get(type), TimeUnit.NANOSECONDS);
+    }
+
+    LongSupplier getTicker() {
+        return ticker;
+    }
+
+    /**
+     * Create the cache with the current configuration
+     *
+     * @return
+     */
+    public ResultCache build() {
+        return new ResultCache(this);
+    }
+}
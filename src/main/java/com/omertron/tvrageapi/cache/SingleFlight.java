@@ -0,0 +1,153 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.cache;
+
+import com.omertron.tvrageapi.TVRageException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Joins concurrent requests for the same URL, so only one of them is sent and parsed.
+ *
+ * The first caller for a URL does the work, any callers that arrive while it is in progress wait for it. Every caller,
+ * including the first, is given its own copy of the result, so changing one cannot affect the others while they are being
+ * copied. Failures, including errors, are passed to all of the waiting callers.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class SingleFlight {
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Loads the result for a URL
+     *
+     * @param <T>
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+
+        T load() throws TVRageException;
+    }
+
+    /**
+     * Load the result, or wait for the load that is already in progress for the URL
+     *
+     * @param <T>
+     * @param type the type of the result, used to copy it
+     * @param url
+     * @param loader
+     * @return
+     * @throws TVRageException
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(CacheType type, String url, Loader<T> loader) throws TVRageException {
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(url, call);
+        if (existing != null) {
+            return (T) type.copy(await(existing, url));
+        }
+
+        try {
+            T result = loader.load();
+            call.complete(result);
+            return (T) type.copy(result);
+        } catch (Throwable ex) {
+            call.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(url, call);
+        }
+    }
+
+    /**
+     * Start the load, or join the load that is already in progress for the URL
+     *
+     * @param <T>
+     * @param type the type of the result, used to copy it
+     * @param url
+     * @param loader
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(CacheType type, String url, Supplier<CompletableFuture<T>> loader) {
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(url, call);
+        if (existing != null) {
+            return existing.thenApply(result -> (T) type.copy(result));
+        }
+
+        CompletableFuture<T> result;
+        try {
+            result = loader.get();
+        } catch (Throwable ex) {
+            inFlight.remove(url, call);
+            call.completeExceptionally(ex);
+            throw ex;
+        }
+
+        result.whenComplete((value, error) -> {
+            inFlight.remove(url, call);
+            if (error == null) {
+                call.complete(value);
+            } else {
+                call.completeExceptionally(error);
+            }
+        });
+        return result.thenApply(value -> (T) type.copy(value));
+    }
+
+    /**
+     * The number of URLs currently being loaded
+     *
+     * @return
+     */
+    public int size() {
+        return inFlight.size();
+    }
+
+    private static Object await(CompletableFuture<Object> call, String url) throws TVRageException {
+        try {
+            return call.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new TVRageException(ApiExceptionType.CONNECTION_ERROR, "Interrupted waiting for response", url, ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof TVRageException) {
+                throw (TVRageException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new TVRageException(ApiExceptionType.UNKNOWN_CAUSE, cause.getMessage(), url, cause);
+        }
+    }
+}
@@ -0,0 +1,407 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An index of the air dates of the episodes of many shows, for finding the episodes that air on a day or between two days.
+ *
+ * The air dates are held as epoch days in a single sorted array, which is searched with a binary search. Refreshing the list
+ * of a show merges its episodes into a new array rather than sorting everything again. The arrays are replaced rather than
+ * changed, so queries do not lock and can run while the index is updated.
+ *
+ * Episodes without an air date are not included. The index holds immutable copies of the episodes.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public final class AirDateIndex {
+
+    private static final Snapshot EMPTY = new Snapshot(new int[0], new int[0], new Entry[0]);
+    // Each update is given its own token, so the merge can find the entries it replaces from the arrays alone
+    private final AtomicInteger tokens = new AtomicInteger();
+    // The indexed episodes of each show, guarded by the index
+    private final Map<String, Entry[]> shows = new HashMap<>();
+    // The token of the last change to each show, so an update that finishes after a newer one is not applied
+    private final Map<String, Integer> latest = new HashMap<>();
+    // Updates started before the index was cleared are not applied
+    private int clearedToken;
+    private boolean cleared = false;
+    private volatile Snapshot snapshot = EMPTY;
+
+    /**
+     * Add or replace the episodes of a show.
+     *
+     * If concurrent updates of the same show finish out of order, the list from the update that started last is kept
+     *
+     * @param showID
+     * @param episodeList
+     */
+    public void update(String showID, EpisodeList episodeList) {
+        int token = tokens.getAndIncrement();
+        Entry[] added = createEntries(showID, episodeList, token);
+        synchronized (shows) {
+            if (isCurrent(showID, token)) {
+                Entry[] previous = added.length == 0 ? shows.remove(showID) : shows.put(showID, added);
+                snapshot = merge(snapshot, previous, added);
+            }
+        }
+    }
+
+    /**
+     * Add or replace the episodes of many shows, sorting the index once rather than merging each show
+     *
+     * @param episodeLists the episode lists, keyed by the show ID
+     */
+    public void updateAll(Map<String, ? extends EpisodeList> episodeLists) {
+        Map<String, Entry[]> created = new HashMap<>(episodeLists.size() * 2);
+        Map<String, Integer> createdTokens = new HashMap<>(episodeLists.size() * 2);
+        for (Map.Entry<String, ? extends EpisodeList> entry : episodeLists.entrySet()) {
+            int token = tokens.getAndIncrement();
+            createdTokens.put(entry.getKey(), token);
+            created.put(entry.getKey(), createEntries(entry.getKey(), entry.getValue(), token));
+        }
+
+        synchronized (shows) {
+            for (Map.Entry<String, Entry[]> entry : created.entrySet()) {
+                if (!isCurrent(entry.getKey(), createdTokens.get(entry.getKey()))) {
+                    continue;
+                }
+                if (entry.getValue().length == 0) {
+                    shows.remove(entry.getKey());
+                } else {
+                    shows.put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            List<Entry> all = new ArrayList<>();
+            for (Entry[] entries : shows.values()) {
+                all.addAll(Arrays.asList(entries));
+            }
+            Entry[] sorted = all.toArray(new Entry[all.size()]);
+            Arrays.sort(sorted, AirDateIndex::compare);
+            int[] days = new int[sorted.length];
+            int[] updates = new int[sorted.length];
+            for (int position = 0; position < sorted.length; position++) {
+                days[position] = sorted[position].day;
+                updates[position] = sorted[position].token;
+            }
+            snapshot = new Snapshot(days, updates, sorted);
+        }
+    }
+
+    /**
+     * Remove the episodes of a show
+     *
+     * @param showID
+     */
+    public void remove(String showID) {
+        int token = tokens.getAndIncrement();
+        synchronized (shows) {
+            if (!isCurrent(showID, token)) {
+                return;
+            }
+            Entry[] previous = shows.remove(showID);
+            if (previous != null) {
+                snapshot = merge(snapshot, previous, new Entry[0]);
+            }
+        }
+    }
+
+    /**
+     * Remove all of the shows
+     */
+    public void clear() {
+        int token = tokens.getAndIncrement();
+        synchronized (shows) {
+            shows.clear();
+            latest.clear();
+            clearedToken = token;
+            cleared = true;
+            snapshot = EMPTY;
+        }
+    }
+
+    /**
+     * Get the episodes that air between the two days, including both of them
+     *
+     * @param from
+     * @param to
+     * @return the episodes in air date order
+     */
+    public List<Entry> getRange(LocalDate from, LocalDate to) {
+        Snapshot current = snapshot;
+        int start = current.lowerBound(from.toEpochDay());
+        int end = current.lowerBound(to.toEpochDay() + 1);
+        if (start >= end) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(current.entries).subList(start, end));
+    }
+
+    /**
+     * Get the episodes that air on the day
+     *
+     * @param day
+     * @return
+     */
+    public List<Entry> getAiredOn(LocalDate day) {
+        return getRange(day, day);
+    }
+
+    /**
+     * Count the episodes that air between the two days, including both of them
+     *
+     * @param from
+     * @param to
+     * @return
+     */
+    public int countRange(LocalDate from, LocalDate to) {
+        Snapshot current = snapshot;
+        return Math.max(0, current.lowerBound(to.toEpochDay() + 1) - current.lowerBound(from.toEpochDay()));
+    }
+
+    /**
+     * Get the number of episodes indexed
+     *
+     * @return
+     */
+    public int size() {
+        return snapshot.entries.length;
+    }
+
+    /**
+     * Get the number of shows with episodes indexed
+     *
+     * @return
+     */
+    public int getShowCount() {
+        synchronized (shows) {
+            return shows.size();
+        }
+    }
+
+    /**
+     * Check that no newer change has been made to the show, and record the change if so.
+     *
+     * The tokens are compared by their difference so they can wrap around. Must be called holding the lock
+     *
+     * @param showID
+     * @param token
+     * @return true if the change should be applied
+     */
+    private boolean isCurrent(String showID, int token) {
+        if (cleared && token - clearedToken < 0) {
+            return false;
+        }
+        Integer last = latest.get(showID);
+        if (last != null && token - last < 0) {
+            return false;
+        }
+        latest.put(showID, token);
+        return true;
+    }
+
+    private static boolean isIndexable(LocalDate airDate) {
+        long day = airDate.toEpochDay();
+        return day >= Integer.MIN_VALUE && day <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Create the entries for the episodes of a show with an air date, in order
+     *
+     * @param showID
+     * @param episodeList
+     * @param token the token of the update
+     * @return
+     */
+    private static Entry[] createEntries(String showID, EpisodeList episodeList, int token) {
+        EpisodeIndex index = episodeList.getIndex();
+        List<Entry> dated = new ArrayList<>(index.size());
+        for (int position = 0; position < index.size(); position++) {
+            Episode episode = index.getAt(position);
+            LocalDate airDate = episode.getAirLocalDate();
+            if (airDate != null && isIndexable(airDate)) {
+                dated.add(new Entry(showID, episodeList.getShowName(), ImmutableEpisode.copyOf(episode), (int) airDate.toEpochDay(),
+                        token));
+            }
+        }
+        Entry[] entries = dated.toArray(new Entry[dated.size()]);
+        // The episodes are already in order, so the sort keeps that order within each day
+        Arrays.sort(entries, AirDateIndex::compare);
+        return entries;
+    }
+
+    /**
+     * Replace the entries of a show with its new entries, keeping the order
+     *
+     * @param current
+     * @param previous the entries the show had, or null
+     * @param added the new entries of the show, in order
+     * @return
+     */
+    private static Snapshot merge(Snapshot current, Entry[] previous, Entry[] added) {
+        int removed = previous == null ? 0 : previous.length;
+        int removedToken = removed == 0 ? 0 : previous[0].token;
+        int size = current.entries.length - removed + added.length;
+        int[] days = new int[size];
+        int[] updates = new int[size];
+        Entry[] entries = new Entry[size];
+
+        int next = 0;
+        int position = 0;
+        for (int loop = 0; loop < current.entries.length; loop++) {
+            int day = current.days[loop];
+            if (removed > 0 && current.tokens[loop] == removedToken) {
+                continue;
+            }
+            // Only the entries on the same day need to be read to find the order
+            while (next < added.length
+                    && (added[next].day < day || added[next].day == day && compare(added[next], current.entries[loop]) < 0)) {
+                days[position] = added[next].day;
+                updates[position] = added[next].token;
+                entries[position++] = added[next++];
+            }
+            days[position] = day;
+            updates[position] = current.tokens[loop];
+            entries[position++] = current.entries[loop];
+        }
+        while (next < added.length) {
+            days[position] = added[next].day;
+            updates[position] = added[next].token;
+            entries[position++] = added[next++];
+        }
+        return new Snapshot(days, updates, entries);
+    }
+
+    /**
+     * Order the entries by day, then by show and episode so the order does not depend on the order of the updates
+     *
+     * @param first
+     * @param second
+     * @return
+     */
+    private static int compare(Entry first, Entry second) {
+        int result = Integer.compare(first.day, second.day);
+        if (result == 0) {
+            result = first.showID.compareTo(second.showID);
+        }
+        if (result == 0) {
+            result = first.episode.getEpisodeNumber().compareTo(second.episode.getEpisodeNumber());
+        }
+        return result;
+    }
+
+    /**
+     * The sorted arrays at one point in time
+     */
+    private static final class Snapshot {
+
+        // Sorted epoch days
+        private final int[] days;
+        // The update tokens of the entries, in the same order as the days
+        private final int[] tokens;
+        // The episodes in the same order as the days
+        private final Entry[] entries;
+
+        Snapshot(int[] days, int[] tokens, Entry[] entries) {
+            this.days = days;
+            this.tokens = tokens;
+            this.entries = entries;
+        }
+
+        /**
+         * Find the position of the first entry on or after the day
+         *
+         * @param day
+         * @return
+         */
+        int lowerBound(long day) {
+            if (day <= Integer.MIN_VALUE) {
+                return 0;
+            }
+            if (day > Integer.MAX_VALUE) {
+                return days.length;
+            }
+
+            int low = 0;
+            int high = days.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (days[middle] < day) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * An episode in the index, with the show it belongs to
+     */
+    public static final class Entry {
+
+        private final String showID;
+        private final String showName;
+        private final Episode episode;
+        private final int day;
+        private final int token;
+
+        Entry(String showID, String showName, Episode episode, int day, int token) {
+            this.showID = showID;
+            this.showName = showName;
+            this.episode = episode;
+            this.day = day;
+            this.token = token;
+        }
+
+        public String getShowID() {
+            return showID;
+        }
+
+        public String getShowName() {
+            return showName;
+        }
+
+        public Episode getEpisode() {
+            return episode;
+        }
+
+        public LocalDate getAirDate() {
+            return LocalDate.ofEpochDay(day);
+        }
+
+        @Override
+        public String toString() {
+            return showName + " (" + showID + ") " + getAirDate() + " " + episode.getEpisodeNumber().getSeason() + "x"
+                    + episode.getEpisodeNumber().getEpisode() + " " + episode.getTitle();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.model;
+
+import static com.omertron.tvrageapi.TVRageApi.isValidString;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.commons.lang3.math.NumberUtils;
+
+/**
+ * A read only episode list that keeps the episodes in parallel arrays rather than as objects, for holding large numbers of
+ * episodes in memory.
+ *
+ * The text of the episodes is stored once as UTF-8 in a single byte array shared by all of the fields, so repeated values
+ * are only held once. Episodes are created from the arrays when they are requested, so changes made to them are not kept.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public final class CompactEpisodeList extends EpisodeList {
+
+    private static final long serialVersionUID = 1L;
+    // Used for an unknown text value or air date
+    private static final int NONE = -1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final String showName;
+    private final int totalSeasons;
+    // Sorted packed season & episode numbers, the other arrays are in the same order
+    private final long[] keys;
+    // Sorted absolute numbers, packed with the position
+    private final long[] absoluteIndex;
+    private final int[] absolutes;
+    private final int[] airDates;
+    private final float[] ratings;
+    private final int[] productionIds;
+    private final int[] links;
+    private final int[] titles;
+    private final int[] summaries;
+    private final int[] screenCaps;
+    // The distinct text values, the offsets have an extra entry for the end of the last value
+    private final byte[] text;
+    private final int[] textOffsets;
+
+    /**
+     * Create a compact copy of the episode list
+     *
+     * @param source
+     */
+    public CompactEpisodeList(EpisodeList source) {
+        showName = source.getShowName();
+        totalSeasons = source.getTotalSeasons();
+
+        EpisodeIndex sorted = new EpisodeIndex(source.getEpisodes().values());
+        int size = sorted.size();
+        keys = new long[size];
+        absolutes = new int[size];
+        airDates = new int[size];
+        ratings = new float[size];
+        productionIds = new int[size];
+        links = new int[size];
+        titles = new int[size];
+        summaries = new int[size];
+        screenCaps = new int[size];
+
+        TextBuilder builder = new TextBuilder();
+        long[] absolute = new long[size];
+        int absoluteCount = 0;
+        for (int position = 0; position < size; position++) {
+            Episode episode = sorted.getAt(position);
+            keys[position] = EpisodeIndex.pack(episode.getSeason(), episode.getEpisode());
+            absolutes[position] = episode.getEpisodeNumber().getAbsolute();
+            if (absolutes[position] > 0) {
+                absolute[absoluteCount++] = ((long) absolutes[position] << 32) | position;
+            }
+            airDates[position] = toEpochDay(episode.getAirLocalDate());
+            ratings[position] = episode.getRating();
+            productionIds[position] = builder.add(episode.getProductionId());
+            links[position] = builder.add(episode.getLink());
+            titles[position] = builder.add(episode.getTitle());
+            summaries[position] = builder.add(episode.getSummary());
+            screenCaps[position] = builder.add(episode.getScreenCap());
+        }
+
+        absoluteIndex = Arrays.copyOf(absolute, absoluteCount);
+        Arrays.sort(absoluteIndex);
+        text = builder.out.toByteArray();
+        textOffsets = Arrays.copyOf(builder.offsets, builder.count + 1);
+    }
+
+    @Override
+    public boolean isValid() {
+        return isValidString(showName) && keys.length > 0;
+    }
+
+    @Override
+    public String getShowName() {
+        return showName;
+    }
+
+    @Override
+    public int getTotalSeasons() {
+        return totalSeasons;
+    }
+
+    @Override
+    public int getEpisodeCount() {
+        return keys.length;
+    }
+
+    /**
+     * Get all of the episodes.
+     *
+     * Every episode is created, so this should be avoided for large lists
+     *
+     * @return a map that cannot be changed
+     */
+    @Override
+    public Map<EpisodeNumber, Episode> getEpisodes() {
+        Map<EpisodeNumber, Episode> episodes = new TreeMap<>();
+        for (int position = 0; position < keys.length; position++) {
+            Episode episode = getEpisodeAt(position);
+            episodes.put(episode.getEpisodeNumber(), episode);
+        }
+        return Collections.unmodifiableMap(episodes);
+    }
+
+    /**
+     * Create an index of all of the episodes, this is not kept so the lookup methods of this class should be used instead
+     *
+     * @return
+     */
+    @Override
+    public EpisodeIndex getIndex() {
+        return new EpisodeIndex(getEpisodes().values());
+    }
+
+    @Override
+    public Episode getEpisode(EpisodeNumber episodeNumber) {
+        return getEpisode(episodeNumber.getSeason(), episodeNumber.getEpisode());
+    }
+
+    @Override
+    public Episode getEpisode(int season, int episode) {
+        int position = Arrays.binarySearch(keys, EpisodeIndex.pack(season, episode));
+        return position < 0 ? null : getEpisodeAt(position);
+    }
+
+    @Override
+    public Episode getEpisode(String season, String episode) {
+        return getEpisode(NumberUtils.toInt(season, 0), NumberUtils.toInt(episode, 0));
+    }
+
+    @Override
+    public Episode getEpisodeByAbsolute(int absolute) {
+        int position = EpisodeIndex.findAbsolute(absoluteIndex, absolute);
+        return position < 0 ? null : getEpisodeAt(position);
+    }
+
+    /**
+     * Create the episode at the position in the season & episode order
+     *
+     * @param position
+     * @return
+     */
+    public Episode getEpisodeAt(int position) {
+        Episode episode = new Episode();
+        long key = keys[position];
+        episode.setEpisodeNumber(new EpisodeNumber((int) (key >> 32), (int) key ^ Integer.MIN_VALUE, absolutes[position]));
+        if (airDates[position] != NO_DATE) {
+            episode.setAirDate(LocalDate.ofEpochDay(airDates[position]));
+        }
+        episode.setRating(ratings[position]);
+        episode.setProductionId(getText(productionIds[position]));
+        episode.setLink(getText(links[position]));
+        episode.setTitle(getText(titles[position]));
+        episode.setSummary(getText(summaries[position]));
+        episode.setScreenCap(getText(screenCaps[position]));
+        return episode;
+    }
+
+    @Override
+    public void setEpisodeList(Map<EpisodeNumber, Episode> episodeList) {
+        throw new UnsupportedOperationException("The list is read only");
+    }
+
+    @Override
+    public void addEpisode(Episode episode) {
+        throw new UnsupportedOperationException("The list is read only");
+    }
+
+    @Override
+    public void setShowName(String showName) {
+        throw new UnsupportedOperationException("The list is read only");
+    }
+
+    @Override
+    public void setTotalSeasons(int totalSeasons) {
+        throw new UnsupportedOperationException("The list is read only");
+    }
+
+    @Override
+    public void setTotalSeasons(String totalSeasons) {
+        throw new UnsupportedOperationException("The list is read only");
+    }
+
+    @Override
+    public String toString() {
+        return "CompactEpisodeList[showName=" + showName + ",totalSeasons=" + totalSeasons + ",episodes=" + keys.length + "]";
+    }
+
+    private String getText(int id) {
+        if (id == NONE) {
+            return null;
+        }
+        return new String(text, textOffsets[id], textOffsets[id + 1] - textOffsets[id], StandardCharsets.UTF_8);
+    }
+
+    private static int toEpochDay(LocalDate date) {
+        if (date == null) {
+            return NO_DATE;
+        }
+        long day = date.toEpochDay();
+        // Dates that do not fit are not expected, but are treated as unknown
+        return day > Integer.MIN_VALUE && day <= Integer.MAX_VALUE ? (int) day : NO_DATE;
+    }
+
+    /**
+     * Collects the distinct text values while the list is created
+     */
+    private static final class TextBuilder {
+
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private int[] offsets = new int[64];
+        private int count = 0;
+
+        int add(String value) {
+            if (!isValidString(value)) {
+                return NONE;
+            }
+
+            Integer id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.write(bytes, 0, bytes.length);
+            if (count + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[count + 1] = out.size();
+            ids.put(value, count);
+            return count++;
+        }
+    }
+}
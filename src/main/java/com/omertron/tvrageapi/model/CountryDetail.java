@@ -55,6 +55,16 @@ public class CountryDetail implements Serializable {
         this.detail = detail;
     }
 
+    /**
+     * Copy constructor
+     *
+     * @param other
+     */
+    public CountryDetail(CountryDetail other) {
+        this.country = other.country;
+        this.detail = other.detail;
+    }
+
     public String getCountry() {
         return country;
     }
@@ -21,38 +21,55 @@ package com.omertron.tvrageapi.model;
 
 import com.omertron.tvrageapi.TVRageApi;
 import static com.omertron.tvrageapi.TVRageApi.isValidString;
+import com.omertron.tvrageapi.tools.DateParser;
 import java.io.Serializable;
+import java.time.LocalDate;
 import java.util.Date;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.apache.commons.lang3.math.NumberUtils;
-import org.pojava.datetime.DateTime;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 public class Episode implements Serializable {
 
-    private static final Logger LOG = LoggerFactory.getLogger(Episode.class);
-
     /*
-     * Serial Version
+     * Serial Version, increased when the air date changed from Date to LocalDate
      */
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
     /*
      * Properties
      */
     private static final String UNKNOWN = TVRageApi.UNKNOWN;
     private EpisodeNumber episodeNumber = new EpisodeNumber(0, 0);
     private String productionId = UNKNOWN;
-    private Date airDate = null;
+    private LocalDate airDate = null;
     private String link = UNKNOWN;
     private String title = UNKNOWN;
     private String summary = UNKNOWN;
     private float rating = 0.0f;
     private String screenCap = UNKNOWN;
 
+    public Episode() {
+        // Default values are set on the properties
+    }
+
+    /**
+     * Copy constructor
+     *
+     * @param other
+     */
+    public Episode(Episode other) {
+        this.episodeNumber = new EpisodeNumber(other.episodeNumber);
+        this.productionId = other.productionId;
+        this.airDate = other.airDate;
+        this.link = other.link;
+        this.title = other.title;
+        this.summary = other.summary;
+        this.rating = other.rating;
+        this.screenCap = other.screenCap;
+    }
+
     public void setEpisodeNumber(EpisodeNumber episodeNumber) {
         this.episodeNumber = episodeNumber;
     }
@@ -95,26 +112,30 @@ public class Episode implements Serializable {
         }
     }
 
+    /**
+     * Get the air date as the start of the day in the default time zone
+     *
+     * @return
+     */
     public Date getAirDate() {
-        return airDate == null ? null : (Date) airDate.clone();
+        return DateParser.toDate(airDate);
+    }
+
+    public LocalDate getAirLocalDate() {
+        return airDate;
     }
 
     public void setAirDate(Date airDate) {
-        if (airDate == null) {
-            this.airDate = null;
-        } else {
-            this.airDate = (Date) airDate.clone();
-        }
+        this.airDate = DateParser.toLocalDate(airDate);
+    }
+
+    public void setAirDate(LocalDate airDate) {
+        this.airDate = airDate;
     }
 
     public void setAirDate(String airDate) {
         if (isValidString(airDate)) {
-            try {
-                this.airDate = (new DateTime(airDate)).toDate();
-            } catch (Exception ex) {
-                LOG.trace("Failed to convert date: {}", airDate, ex);
-                this.airDate = null;
-            }
+            this.airDate = DateParser.parse(airDate);
         } else {
             this.airDate = null;
         }
@@ -0,0 +1,134 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.model;
+
+import java.time.LocalDate;
+
+/**
+ * Builder for an ImmutableEpisode.
+ *
+ * The values are checked in the same way as the setters of Episode, and the builder can be used again after it is built.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class EpisodeBuilder {
+
+    private final Episode episode = new Episode();
+
+    /**
+     * Set the season, episode and absolute numbers
+     *
+     * @param season
+     * @param number
+     * @param absolute
+     * @return
+     */
+    public EpisodeBuilder setEpisodeNumber(int season, int number, int absolute) {
+        episode.setEpisodeNumber(new EpisodeNumber(season, number, absolute));
+        return this;
+    }
+
+    /**
+     * Set the production ID
+     *
+     * @param productionId
+     * @return
+     */
+    public EpisodeBuilder setProductionId(String productionId) {
+        episode.setProductionId(productionId);
+        return this;
+    }
+
+    /**
+     * Set the date the episode was first shown
+     *
+     * @param airDate
+     * @return
+     */
+    public EpisodeBuilder setAirDate(LocalDate airDate) {
+        episode.setAirDate(airDate);
+        return this;
+    }
+
+    /**
+     * Set the link to the episode page
+     *
+     * @param link
+     * @return
+     */
+    public EpisodeBuilder setLink(String link) {
+        episode.setLink(link);
+        return this;
+    }
+
+    /**
+     * Set the title
+     *
+     * @param title
+     * @return
+     */
+    public EpisodeBuilder setTitle(String title) {
+        episode.setTitle(title);
+        return this;
+    }
+
+    /**
+     * Set the summary
+     *
+     * @param summary
+     * @return
+     */
+    public EpisodeBuilder setSummary(String summary) {
+        episode.setSummary(summary);
+        return this;
+    }
+
+    /**
+     * Set the rating
+     *
+     * @param rating
+     * @return
+     */
+    public EpisodeBuilder setRating(float rating) {
+        episode.setRating(rating);
+        return this;
+    }
+
+    /**
+     * Set the link to the screen capture
+     *
+     * @param screenCap
+     * @return
+     */
+    public EpisodeBuilder setScreenCap(String screenCap) {
+        episode.setScreenCap(screenCap);
+        return this;
+    }
+
+    /**
+     * Create the episode with the current values
+     *
+     * @return
+     */
+    public ImmutableEpisode build() {
+        return ImmutableEpisode.copyOf(episode);
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.model;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The optional fields of an Episode, used to only parse the fields that are needed.
+ *
+ * The season and episode numbers are always parsed.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public enum EpisodeField {
+
+    PRODUCTION_ID,
+    AIR_DATE,
+    LINK,
+    TITLE,
+    SUMMARY,
+    RATING,
+    SCREEN_CAP;
+
+    /**
+     * All of the fields
+     */
+    public static final Set<EpisodeField> ALL = Collections.unmodifiableSet(EnumSet.allOf(EpisodeField.class));
+}
@@ -0,0 +1,157 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A read-only index of the episodes of a list, for looking up episodes without creating any objects.
+ *
+ * The season and episode numbers are packed into a single long and kept in a sorted array, which is searched with a binary
+ * search. The absolute numbers are indexed in the same way, episodes with no absolute number are not included.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public final class EpisodeIndex {
+
+    private static final long POSITION_MASK = 0xFFFFFFFFL;
+    // Sorted packed season & episode numbers
+    private final long[] keys;
+    // The episodes in the same order as the keys
+    private final Episode[] episodes;
+    // Sorted absolute numbers, packed with the position of the episode
+    private final long[] absolutes;
+
+    /**
+     * Create the index for the episodes
+     *
+     * @param values
+     */
+    public EpisodeIndex(Collection<Episode> values) {
+        Episode[] sorted = values.toArray(new Episode[values.size()]);
+        Arrays.sort(sorted, (first, second) -> first.getEpisodeNumber().compareTo(second.getEpisodeNumber()));
+
+        long[] packed = new long[sorted.length];
+        Episode[] ordered = new Episode[sorted.length];
+        long[] absolute = new long[sorted.length];
+        int size = 0;
+        int absoluteCount = 0;
+        for (Episode episode : sorted) {
+            long key = pack(episode.getSeason(), episode.getEpisode());
+            if (size > 0 && packed[size - 1] == key) {
+                // The same episode number twice, only one can be found so the last is kept along with its absolute number
+                size--;
+                if (absoluteCount > 0 && (absolute[absoluteCount - 1] & POSITION_MASK) == size) {
+                    absoluteCount--;
+                }
+            }
+            packed[size] = key;
+            ordered[size] = episode;
+            if (episode.getEpisodeNumber().getAbsolute() > 0) {
+                absolute[absoluteCount++] = ((long) episode.getEpisodeNumber().getAbsolute() << 32) | size;
+            }
+            size++;
+        }
+
+        // Trim the arrays so the binary search does not need the size
+        keys = Arrays.copyOf(packed, size);
+        episodes = Arrays.copyOf(ordered, size);
+        absolutes = Arrays.copyOf(absolute, absoluteCount);
+        Arrays.sort(absolutes);
+    }
+
+    /**
+     * Pack the season and episode numbers into a single key, in the same order as the EpisodeNumber
+     *
+     * @param season
+     * @param episode
+     * @return
+     */
+    public static long pack(int season, int episode) {
+        // Flip the sign bit of the episode so negative numbers are ordered before positive ones
+        return ((long) season << 32) | ((episode ^ Integer.MIN_VALUE) & POSITION_MASK);
+    }
+
+    /**
+     * Get the episode
+     *
+     * @param season
+     * @param episode
+     * @return the episode, or null if it is not in the list
+     */
+    public Episode get(int season, int episode) {
+        int position = Arrays.binarySearch(keys, pack(season, episode));
+        return position < 0 ? null : episodes[position];
+    }
+
+    /**
+     * Get the episode using the absolute number across all seasons
+     *
+     * @param absolute
+     * @return the first episode with the number, or null if there is none
+     */
+    public Episode getByAbsolute(int absolute) {
+        int position = findAbsolute(absolutes, absolute);
+        return position < 0 ? null : episodes[position];
+    }
+
+    /**
+     * Find the position of the first episode with the absolute number
+     *
+     * @param absolutes the sorted absolute numbers packed with the positions
+     * @param absolute
+     * @return the position, or -1 if there is none
+     */
+    static int findAbsolute(long[] absolutes, int absolute) {
+        // Find the first entry at or after the absolute number
+        long target = (long) absolute << 32;
+        int low = 0;
+        int high = absolutes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (absolutes[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        if (low < absolutes.length && (int) (absolutes[low] >> 32) == absolute) {
+            return (int) (absolutes[low] & POSITION_MASK);
+        }
+        return -1;
+    }
+
+    /**
+     * Get the episode at the position in the season & episode order
+     *
+     * @param position
+     * @return
+     */
+    public Episode getAt(int position) {
+        return episodes[position];
+    }
+
+    public int size() {
+        return keys.length;
+    }
+}
@@ -46,6 +46,8 @@ public class EpisodeList implements Serializable {
     private String showName;
     private int totalSeasons;
     private Map<EpisodeNumber, Episode> episodes;
+    // Index for the lookups of a read only list, created when first needed
+    private transient volatile EpisodeIndex index;
 
     public EpisodeList() {
         showName = TVRageApi.UNKNOWN;
@@ -53,6 +55,21 @@ public class EpisodeList implements Serializable {
         episodes = new TreeMap<>();
     }
 
+    /**
+     * Copy constructor, the episodes are copied as well
+     *
+     * @param other
+     */
+    public EpisodeList(EpisodeList other) {
+        showName = other.getShowName();
+        totalSeasons = other.getTotalSeasons();
+        episodes = new TreeMap<>();
+        for (Episode episode : other.getEpisodes().values()) {
+            Episode copy = new Episode(episode);
+            episodes.put(copy.getEpisodeNumber(), copy);
+        }
+    }
+
     public boolean isValid() {
         return isValidString(showName) && !episodes.isEmpty();
     }
@@ -61,24 +78,97 @@ public class EpisodeList implements Serializable {
         return episodes;
     }
 
+    /**
+     * Check if the episodes can no longer be changed, so the lookup index can be kept
+     *
+     * @return
+     */
+    boolean isReadOnly() {
+        return false;
+    }
+
+    public int getEpisodeCount() {
+        return episodes.size();
+    }
+
     public void setEpisodeList(Map<EpisodeNumber, Episode> episodeList) {
         this.episodes = episodeList;
+        index = null;
     }
 
     public void addEpisode(Episode episode) {
         episodes.put(episode.getEpisodeNumber(), episode);
+        index = null;
+    }
+
+    /**
+     * Get an index of the episodes.
+     *
+     * The index of a read only list is created once and used for its lookups. The episodes of any other list can be changed
+     * through the map, so a new index of the current episodes is created on each call and is not changed if episodes are
+     * added afterwards. Hold the index for bulk lookups rather than calling getEpisode for each
+     *
+     * @return
+     */
+    public EpisodeIndex getIndex() {
+        if (!isReadOnly()) {
+            return new EpisodeIndex(episodes.values());
+        }
+
+        EpisodeIndex current = index;
+        if (current == null) {
+            current = new EpisodeIndex(episodes.values());
+            index = current;
+        }
+        return current;
     }
 
     public Episode getEpisode(EpisodeNumber episodeNumber) {
+        if (isReadOnly()) {
+            return getIndex().get(episodeNumber.getSeason(), episodeNumber.getEpisode());
+        }
         return episodes.get(episodeNumber);
     }
 
+    /**
+     * Get the episode.
+     *
+     * Lookups on a list that can be changed go through the map of episodes, creating an EpisodeNumber for each. For many
+     * lookups, such as when matching files, hold the index from getIndex() and look the episodes up in that instead
+     *
+     * @param season
+     * @param episode
+     * @return the episode, or null if it is not in the list
+     */
     public Episode getEpisode(int season, int episode) {
+        if (isReadOnly()) {
+            return getIndex().get(season, episode);
+        }
         return getEpisode(new EpisodeNumber(season, episode));
     }
 
     public Episode getEpisode(String season, String episode) {
-        return getEpisode(new EpisodeNumber(season, episode));
+        return getEpisode(NumberUtils.toInt(season, 0), NumberUtils.toInt(episode, 0));
+    }
+
+    /**
+     * Get the episode using the absolute number across all seasons
+     *
+     * @param absolute
+     * @return the episode, or null if there is none with the number
+     */
+    public Episode getEpisodeByAbsolute(int absolute) {
+        if (isReadOnly()) {
+            return getIndex().getByAbsolute(absolute);
+        }
+        if (absolute > 0) {
+            for (Episode episode : episodes.values()) {
+                if (episode.getEpisodeNumber().getAbsolute() == absolute) {
+                    return episode;
+                }
+            }
+        }
+        return null;
     }
 
     public String getShowName() {
@@ -0,0 +1,75 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.model;
+
+/**
+ * Builder for an ImmutableEpisodeList.
+ *
+ * The builder can be used again after it is built.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class EpisodeListBuilder {
+
+    private final EpisodeList episodeList = new EpisodeList();
+
+    /**
+     * Set the name of the show
+     *
+     * @param showName
+     * @return
+     */
+    public EpisodeListBuilder setShowName(String showName) {
+        episodeList.setShowName(showName);
+        return this;
+    }
+
+    /**
+     * Set the number of seasons of the show
+     *
+     * @param totalSeasons
+     * @return
+     */
+    public EpisodeListBuilder setTotalSeasons(int totalSeasons) {
+        episodeList.setTotalSeasons(totalSeasons);
+        return this;
+    }
+
+    /**
+     * Add an episode, replacing any with the same season and episode numbers
+     *
+     * @param episode
+     * @return
+     */
+    public EpisodeListBuilder addEpisode(Episode episode) {
+        episodeList.addEpisode(ImmutableEpisode.copyOf(episode));
+        return this;
+    }
+
+    /**
+     * Create the list with the current episodes
+     *
+     * @return
+     */
+    public ImmutableEpisodeList build() {
+        return ImmutableEpisodeList.copyOf(episodeList);
+    }
+}
@@ -20,8 +20,6 @@
 package com.omertron.tvrageapi.model;
 
 import java.io.Serializable;
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.apache.commons.lang3.math.NumberUtils;
@@ -69,6 +67,17 @@ public class EpisodeNumber implements Comparable<EpisodeNumber>, Serializable {
         this.absolute = calculateAbsolute(this.season, this.episode);
     }
 
+    /**
+     * Copy constructor
+     *
+     * @param other
+     */
+    public EpisodeNumber(EpisodeNumber other) {
+        this.season = other.season;
+        this.episode = other.episode;
+        this.absolute = other.absolute;
+    }
+
     public EpisodeNumber(String season, String episode, String absolute) {
         this.season = NumberUtils.toInt(season, 0);
         this.episode = NumberUtils.toInt(episode, 0);
@@ -76,16 +85,25 @@ public class EpisodeNumber implements Comparable<EpisodeNumber>, Serializable {
     }
 
     private int calculateAbsolute(int season, int episode) {
-        // Make the season very large for comparison purposes (will handle up to 1,000 episodes)
+        // An estimate used when the real absolute number is not known
         return (season * FACTOR) + episode;
     }
 
+    /**
+     * Order by season and then by episode.
+     *
+     * The absolute number is not compared
+     *
+     * @param anotherEpisodeNumber
+     * @return
+     */
     @Override
     public int compareTo(EpisodeNumber anotherEpisodeNumber) {
-        int otherSeason = anotherEpisodeNumber.getSeason();
-        int otherEpisode = anotherEpisodeNumber.getEpisode();
-
-        return calculateAbsolute(season, episode) - calculateAbsolute(otherSeason, otherEpisode);
+        int result = Integer.compare(season, anotherEpisodeNumber.getSeason());
+        if (result == 0) {
+            result = Integer.compare(episode, anotherEpisodeNumber.getEpisode());
+        }
+        return result;
     }
 
     public int getAbsolute() {
@@ -144,22 +162,20 @@ public class EpisodeNumber implements Comparable<EpisodeNumber>, Serializable {
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder()
-                .append(absolute)
-                .append(episode)
-                .append(season)
-                .toHashCode();
+        // Called for every lookup, so the builder is not used
+        int hash = 17;
+        hash = 37 * hash + absolute;
+        hash = 37 * hash + episode;
+        return 37 * hash + season;
     }
 
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof EpisodeNumber) {
             final EpisodeNumber other = (EpisodeNumber) obj;
-            return new EqualsBuilder()
-                    .append(absolute, other.absolute)
-                    .append(episode, other.episode)
-                    .append(season, other.season)
-                    .isEquals();
+            return absolute == other.absolute
+                    && episode == other.episode
+                    && season == other.season;
         } else {
             return false;
         }
@@ -0,0 +1,108 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.model;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * An episode that cannot be changed, so it can be shared between threads and caches without being copied.
+ *
+ * Any attempt to change it throws an UnsupportedOperationException. Use the copy constructor of Episode to get a copy that
+ * can be changed.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public final class ImmutableEpisode extends Episode {
+
+    private static final long serialVersionUID = 1L;
+    private static final String READ_ONLY = "The episode is read only";
+
+    private ImmutableEpisode(Episode other) {
+        super(other);
+        super.setEpisodeNumber(new ImmutableEpisodeNumber(other.getEpisodeNumber()));
+    }
+
+    /**
+     * Get an immutable copy of the episode
+     *
+     * @param episode
+     * @return the episode itself if it is already immutable
+     */
+    public static ImmutableEpisode copyOf(Episode episode) {
+        return episode instanceof ImmutableEpisode ? (ImmutableEpisode) episode : new ImmutableEpisode(episode);
+    }
+
+    @Override
+    public void setEpisodeNumber(EpisodeNumber episodeNumber) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setProductionId(String productionId) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setAirDate(Date airDate) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setAirDate(LocalDate airDate) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setAirDate(String airDate) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setLink(String link) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setTitle(String title) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setSummary(String summary) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setRating(float rating) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setRating(String rating) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setScreenCap(String screenCap) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.model;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An episode list that cannot be changed, so it can be shared between threads and caches without being copied.
+ *
+ * The map of episodes and the episodes in it cannot be changed either. Use the copy constructor of EpisodeList to get a copy
+ * that can be changed.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public final class ImmutableEpisodeList extends EpisodeList {
+
+    private static final long serialVersionUID = 1L;
+    private static final String READ_ONLY = "The list is read only";
+
+    private ImmutableEpisodeList(EpisodeList other) {
+        super.setShowName(other.getShowName());
+        super.setTotalSeasons(other.getTotalSeasons());
+
+        Map<EpisodeNumber, Episode> copy = new TreeMap<>();
+        for (Episode episode : other.getEpisodes().values()) {
+            ImmutableEpisode immutable = ImmutableEpisode.copyOf(episode);
+            copy.put(immutable.getEpisodeNumber(), immutable);
+        }
+        super.setEpisodeList(Collections.unmodifiableMap(copy));
+    }
+
+    /**
+     * Get an immutable copy of the episode list
+     *
+     * @param episodeList
+     * @return the list itself if it is already immutable
+     */
+    public static ImmutableEpisodeList copyOf(EpisodeList episodeList) {
+        return episodeList instanceof ImmutableEpisodeList ? (ImmutableEpisodeList) episodeList : new ImmutableEpisodeList(episodeList);
+    }
+
+    @Override
+    boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public void setEpisodeList(Map<EpisodeNumber, Episode> episodeList) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void addEpisode(Episode episode) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setShowName(String showName) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setTotalSeasons(int totalSeasons) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setTotalSeasons(String totalSeasons) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+}
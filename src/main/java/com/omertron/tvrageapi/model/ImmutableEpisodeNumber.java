@@ -0,0 +1,70 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.model;
+
+/**
+ * An episode number that cannot be changed, used by the immutable models
+ *
+ * @author Stuart.Boston
+ *
+ */
+final class ImmutableEpisodeNumber extends EpisodeNumber {
+
+    private static final long serialVersionUID = 1L;
+    private static final String READ_ONLY = "The episode number is read only";
+
+    ImmutableEpisodeNumber(EpisodeNumber other) {
+        super(other);
+    }
+
+    static EpisodeNumber copyOf(EpisodeNumber other) {
+        return other instanceof ImmutableEpisodeNumber ? other : new ImmutableEpisodeNumber(other);
+    }
+
+    @Override
+    public void setAbsolute(int absolute) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setAbsolute(String absolute) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setEpisode(int episode) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setEpisode(String episode) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setSeason(int season) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setSeason(String season) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+}
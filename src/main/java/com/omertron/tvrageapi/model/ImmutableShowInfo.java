@@ -0,0 +1,215 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Show information that cannot be changed, so it can be shared between threads and caches without being copied.
+ *
+ * The lists cannot be changed either. Use the copy constructor of ShowInfo to get a copy that can be changed.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public final class ImmutableShowInfo extends ShowInfo {
+
+    private static final long serialVersionUID = 1L;
+    private static final String READ_ONLY = "The show information is read only";
+
+    private ImmutableShowInfo(ShowInfo other) {
+        super(other);
+        super.setAkas(copyDetails(other.getAkas()));
+        super.setGenres(Collections.unmodifiableList(new ArrayList<>(other.getGenres())));
+        super.setNetwork(copyDetails(other.getNetwork()));
+    }
+
+    /**
+     * Get an immutable copy of the show information
+     *
+     * @param showInfo
+     * @return the show information itself if it is already immutable
+     */
+    public static ImmutableShowInfo copyOf(ShowInfo showInfo) {
+        return showInfo instanceof ImmutableShowInfo ? (ImmutableShowInfo) showInfo : new ImmutableShowInfo(showInfo);
+    }
+
+    private static List<CountryDetail> copyDetails(List<CountryDetail> details) {
+        List<CountryDetail> copy = new ArrayList<>(details.size());
+        for (CountryDetail detail : details) {
+            copy.add(ImmutableCountryDetail.copyOf(detail));
+        }
+        return Collections.unmodifiableList(copy);
+    }
+
+    @Override
+    public void addAka(CountryDetail newAka) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void addAka(String country, String aka) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void addGenre(String genre) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void addNetwork(CountryDetail newNetwork) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void addNetwork(String country, String networkName) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setAirDay(String airDay) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setAirTime(String airTime) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setAkas(List<CountryDetail> akas) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setClassification(String classification) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setCountry(String country) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setEnded(String ended) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setGenres(List<String> genres) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setNetwork(List<CountryDetail> network) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setOriginCountry(String originCountry) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setRuntime(int runtime) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setRuntime(String runtime) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setShowID(int showID) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setShowID(String showID) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setShowLink(String showLink) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setShowName(String showName) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setStartDate(Date startDate) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setStartDate(LocalDate startDate) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setStartDate(String startDate) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setStarted(int started) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setStarted(String started) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setStatus(String status) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setSummary(String summary) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setTimezone(String timezone) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setTotalSeasons(int totalSeasons) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setTotalSeasons(String totalSeasons) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+}
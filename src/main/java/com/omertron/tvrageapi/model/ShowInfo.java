@@ -21,7 +21,9 @@ package com.omertron.tvrageapi.model;
 
 import com.omertron.tvrageapi.TVRageApi;
 import static com.omertron.tvrageapi.TVRageApi.isValidString;
+import com.omertron.tvrageapi.tools.DateParser;
 import java.io.Serializable;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -30,9 +32,6 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.apache.commons.lang3.math.NumberUtils;
-import org.pojava.datetime.DateTime;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * Full information about the show
@@ -42,11 +41,10 @@ import org.slf4j.LoggerFactory;
  */
 public class ShowInfo implements Serializable {
 
-    private static final Logger LOG = LoggerFactory.getLogger(ShowInfo.class);
     /*
-     * Serial Version
+     * Serial Version, increased when the start date changed from Date to LocalDate
      */
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
     /*
      * Properties
      */
@@ -63,13 +61,52 @@ public class ShowInfo implements Serializable {
     private int showID = 0;
     private String showLink = TVRageApi.UNKNOWN;
     private String showName = TVRageApi.UNKNOWN;
-    private Date startDate = null;
+    private LocalDate startDate = null;
     private int started = 0;
     private String status = TVRageApi.UNKNOWN;
     private String summary = TVRageApi.UNKNOWN;
     private String timezone = TVRageApi.UNKNOWN;
     private int totalSeasons = 0;
 
+    public ShowInfo() {
+        // Default values are set on the properties
+    }
+
+    /**
+     * Copy constructor, the lists are copied as well
+     *
+     * @param other
+     */
+    public ShowInfo(ShowInfo other) {
+        this.airDay = other.airDay;
+        this.airTime = other.airTime;
+        this.akas = copyDetails(other.akas);
+        this.classification = other.classification;
+        this.country = other.country;
+        this.ended = other.ended;
+        this.genres = new ArrayList<>(other.genres);
+        this.network = copyDetails(other.network);
+        this.originCountry = other.originCountry;
+        this.runtime = other.runtime;
+        this.showID = other.showID;
+        this.showLink = other.showLink;
+        this.showName = other.showName;
+        this.startDate = other.startDate;
+        this.started = other.started;
+        this.status = other.status;
+        this.summary = other.summary;
+        this.timezone = other.timezone;
+        this.totalSeasons = other.totalSeasons;
+    }
+
+    private static List<CountryDetail> copyDetails(List<CountryDetail> details) {
+        List<CountryDetail> copy = new ArrayList<>(details.size());
+        for (CountryDetail detail : details) {
+            copy.add(new CountryDetail(detail));
+        }
+        return copy;
+    }
+
     public boolean isValid() {
         return showID > 0;
     }
@@ -187,8 +224,17 @@ public class ShowInfo implements Serializable {
         return showName;
     }
 
+    /**
+     * Get the start date as the start of the day in the default time zone
+     *
+     * @return
+     */
     public Date getStartDate() {
-        return startDate == null ? null : (Date) startDate.clone();
+        return DateParser.toDate(startDate);
+    }
+
+    public LocalDate getStartLocalDate() {
+        return startDate;
     }
 
     public int getStarted() {
@@ -304,18 +350,16 @@ public class ShowInfo implements Serializable {
     }
 
     public void setStartDate(Date startDate) {
-        this.startDate = (Date) startDate.clone();
+        this.startDate = DateParser.toLocalDate(startDate);
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
     }
 
     public void setStartDate(String startDate) {
         if (isValidString(startDate)) {
-            try {
-                this.startDate = (new DateTime(startDate)).toDate();
-            } catch (Exception ex) {
-                LOG.trace("Failed to convert date: {}", startDate, ex);
-                // We can't do anything about this error, so return
-                this.startDate = null;
-            }
+            this.startDate = DateParser.parse(startDate);
         }
     }
 
@@ -0,0 +1,255 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.model;
+
+import java.time.LocalDate;
+
+/**
+ * Builder for an ImmutableShowInfo.
+ *
+ * The values are checked in the same way as the setters of ShowInfo, and the builder can be used again after it is built.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class ShowInfoBuilder {
+
+    private final ShowInfo showInfo = new ShowInfo();
+
+    /**
+     * Set the TVRage ID of the show
+     *
+     * @param showID
+     * @return
+     */
+    public ShowInfoBuilder setShowID(int showID) {
+        showInfo.setShowID(showID);
+        return this;
+    }
+
+    /**
+     * Set the name of the show
+     *
+     * @param showName
+     * @return
+     */
+    public ShowInfoBuilder setShowName(String showName) {
+        showInfo.setShowName(showName);
+        return this;
+    }
+
+    /**
+     * Set the link to the show page
+     *
+     * @param showLink
+     * @return
+     */
+    public ShowInfoBuilder setShowLink(String showLink) {
+        showInfo.setShowLink(showLink);
+        return this;
+    }
+
+    /**
+     * Set the country the show is from
+     *
+     * @param country
+     * @return
+     */
+    public ShowInfoBuilder setCountry(String country) {
+        showInfo.setCountry(country);
+        return this;
+    }
+
+    /**
+     * Set the country the show was first shown in
+     *
+     * @param originCountry
+     * @return
+     */
+    public ShowInfoBuilder setOriginCountry(String originCountry) {
+        showInfo.setOriginCountry(originCountry);
+        return this;
+    }
+
+    /**
+     * Set the year the show started
+     *
+     * @param started
+     * @return
+     */
+    public ShowInfoBuilder setStarted(int started) {
+        showInfo.setStarted(started);
+        return this;
+    }
+
+    /**
+     * Set the date the show started
+     *
+     * @param startDate
+     * @return
+     */
+    public ShowInfoBuilder setStartDate(LocalDate startDate) {
+        showInfo.setStartDate(startDate);
+        return this;
+    }
+
+    /**
+     * Set when the show ended
+     *
+     * @param ended
+     * @return
+     */
+    public ShowInfoBuilder setEnded(String ended) {
+        showInfo.setEnded(ended);
+        return this;
+    }
+
+    /**
+     * Set the number of seasons
+     *
+     * @param totalSeasons
+     * @return
+     */
+    public ShowInfoBuilder setTotalSeasons(int totalSeasons) {
+        showInfo.setTotalSeasons(totalSeasons);
+        return this;
+    }
+
+    /**
+     * Set the status of the show
+     *
+     * @param status
+     * @return
+     */
+    public ShowInfoBuilder setStatus(String status) {
+        showInfo.setStatus(status);
+        return this;
+    }
+
+    /**
+     * Set the classification of the show
+     *
+     * @param classification
+     * @return
+     */
+    public ShowInfoBuilder setClassification(String classification) {
+        showInfo.setClassification(classification);
+        return this;
+    }
+
+    /**
+     * Set the summary
+     *
+     * @param summary
+     * @return
+     */
+    public ShowInfoBuilder setSummary(String summary) {
+        showInfo.setSummary(summary);
+        return this;
+    }
+
+    /**
+     * Set the length of the episodes in minutes
+     *
+     * @param runtime
+     * @return
+     */
+    public ShowInfoBuilder setRuntime(int runtime) {
+        showInfo.setRuntime(runtime);
+        return this;
+    }
+
+    /**
+     * Set the time the show is shown
+     *
+     * @param airTime
+     * @return
+     */
+    public ShowInfoBuilder setAirTime(String airTime) {
+        showInfo.setAirTime(airTime);
+        return this;
+    }
+
+    /**
+     * Set the day the show is shown
+     *
+     * @param airDay
+     * @return
+     */
+    public ShowInfoBuilder setAirDay(String airDay) {
+        showInfo.setAirDay(airDay);
+        return this;
+    }
+
+    /**
+     * Set the time zone of the air time
+     *
+     * @param timezone
+     * @return
+     */
+    public ShowInfoBuilder setTimezone(String timezone) {
+        showInfo.setTimezone(timezone);
+        return this;
+    }
+
+    /**
+     * Add a network that shows the show
+     *
+     * @param country
+     * @param networkName
+     * @return
+     */
+    public ShowInfoBuilder addNetwork(String country, String networkName) {
+        showInfo.addNetwork(country, networkName);
+        return this;
+    }
+
+    /**
+     * Add another name of the show
+     *
+     * @param country
+     * @param aka
+     * @return
+     */
+    public ShowInfoBuilder addAka(String country, String aka) {
+        showInfo.addAka(country, aka);
+        return this;
+    }
+
+    /**
+     * Add a genre
+     *
+     * @param genre
+     * @return
+     */
+    public ShowInfoBuilder addGenre(String genre) {
+        showInfo.addGenre(genre);
+        return this;
+    }
+
+    /**
+     * Create the show information with the current values
+     *
+     * @return
+     */
+    public ImmutableShowInfo build() {
+        return ImmutableShowInfo.copyOf(showInfo);
+    }
+}
@@ -20,24 +20,20 @@
 package com.omertron.tvrageapi.tools;
 
 import com.omertron.tvrageapi.TVRageException;
+import com.omertron.tvrageapi.transport.HttpTransport;
+import com.omertron.tvrageapi.transport.HttpTransportBuilder;
+import com.omertron.tvrageapi.transport.Transport;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.Charset;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import org.apache.http.client.HttpClient;
-import org.apache.http.client.methods.HttpGet;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 import org.yamj.api.common.exception.ApiExceptionType;
-import org.yamj.api.common.http.DigestedResponse;
-import org.yamj.api.common.http.DigestedResponseReader;
 
 /**
  * Generic set of routines to process the DOM model data
@@ -47,12 +43,9 @@ import org.yamj.api.common.http.DigestedResponseReader;
  */
 public class DOMHelper {
 
-    private static final Logger LOG = LoggerFactory.getLogger(DOMHelper.class);
-
-    private static HttpClient httpClient;
-    private static final String DEFAULT_CHARSET = "UTF-8";
-    private static final Charset CHARSET = Charset.forName(DEFAULT_CHARSET);
     private static final String UNABLE_TO_PARSE = "Unable to parse response, please try again later.";
+    // Transport for the deprecated URL methods, created when first needed
+    private static volatile Transport transport;
 
     // Hide the constructor
     protected DOMHelper() {
@@ -60,8 +53,15 @@ public class DOMHelper {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Set the client used by getEventDocFromUrl
+     *
+     * @param httpClient
+     * @deprecated Each TVRageApi has its own transport, use a TVRageApi or a Transport to request the content
+     */
+    @Deprecated
     public static void setHttpClient(HttpClient httpClient) {
-        DOMHelper.httpClient = httpClient;
+        DOMHelper.transport = new HttpTransport(httpClient);
     }
 
     /**
@@ -80,13 +80,22 @@ public class DOMHelper {
             if (tagElement == null) {
                 return "";
             }
+            return getValue(tagElement);
+        }
+    }
 
-            NodeList tagNodeList = tagElement.getChildNodes();
-            if (tagNodeList == null || tagNodeList.getLength() == 0) {
-                return "";
-            }
-            return tagNodeList.item(0).getNodeValue();
+    /**
+     * Gets the string value of the element passed
+     *
+     * @param element
+     * @return
+     */
+    public static String getValue(Element element) {
+        Node firstChild = element.getFirstChild();
+        if (firstChild == null) {
+            return "";
         }
+        return firstChild.getNodeValue();
     }
 
     /**
@@ -95,54 +104,87 @@ public class DOMHelper {
      * @param url
      * @return
      * @throws com.omertron.tvrageapi.TVRageException
+     * @deprecated Each TVRageApi has its own transport, use a TVRageApi or a Transport to request the content
      */
+    @Deprecated
     public static Document getEventDocFromUrl(String url) throws TVRageException {
-        Document doc;
-        InputStream in = null;
+        return getEventDocFromUrl(getTransport(), url);
+    }
 
-        try {
-            in = new ByteArrayInputStream(requestWebContent(url));
+    /**
+     * Get a DOM document from the supplied URL, requested through the transport
+     *
+     * @param transport
+     * @param url
+     * @return
+     * @throws com.omertron.tvrageapi.TVRageException
+     */
+    public static Document getEventDocFromUrl(Transport transport, final String url) throws TVRageException {
+        return transport.requestContent(url, content -> getEventDoc(content, url));
+    }
 
-            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-            DocumentBuilder db = dbf.newDocumentBuilder();
-            doc = db.parse(in);
-            doc.getDocumentElement().normalize();
-            return doc;
-        } catch (ParserConfigurationException | SAXException | IOException ex) {
-            throw new TVRageException(ApiExceptionType.MAPPING_FAILED, UNABLE_TO_PARSE, url, ex);
-        } finally {
-            try {
-                if (in != null) {
-                    in.close();
+    /**
+     * Get the transport set by setHttpClient, or a default transport if none was set
+     *
+     * @return
+     */
+    private static Transport getTransport() {
+        Transport current = transport;
+        if (current == null) {
+            synchronized (DOMHelper.class) {
+                current = transport;
+                if (current == null) {
+                    current = new HttpTransportBuilder().build();
+                    transport = current;
                 }
-            } catch (IOException ex) {
-                // Input Stream was already closed or null
-                LOG.trace("Stream already closed for getEventDocFromUrl", ex);
             }
         }
+        return current;
     }
 
     /**
-     * Get content from URL in byte array
+     * Get a DOM document from content that has already been retrieved
      *
-     * @param url
+     * @param content
+     * @param url the source URL, used for error reporting
      * @return
-     * @throws TVRageException
+     * @throws com.omertron.tvrageapi.TVRageException
      */
-    private static byte[] requestWebContent(String url) throws TVRageException {
-        try {
-            HttpGet httpGet = new HttpGet(url);
-            httpGet.addHeader("accept", "application/xml");
-            final DigestedResponse response = DigestedResponseReader.requestContent(httpClient, httpGet, CHARSET);
+    public static Document getEventDoc(byte[] content, String url) throws TVRageException {
+        return getEventDoc(new ByteArrayInputStream(content), url);
+    }
 
-            if (response.getStatusCode() >= 500) {
-                throw new TVRageException(ApiExceptionType.HTTP_503_ERROR, url);
-            } else if (response.getStatusCode() >= 300) {
-                throw new TVRageException(ApiExceptionType.HTTP_404_ERROR, url);
-            }
+    /**
+     * Get a DOM document by parsing the stream directly.
+     *
+     * The stream is not closed by this method.
+     *
+     * @param in
+     * @param url the source URL, used for error reporting
+     * @return
+     * @throws com.omertron.tvrageapi.TVRageException
+     */
+    public static Document getEventDoc(InputStream in, String url) throws TVRageException {
+        return getEventDoc(XmlParserFactory.getDefault(), in, url);
+    }
 
-            return response.getContent().getBytes(DEFAULT_CHARSET);
-        } catch (IOException ex) {
+    /**
+     * Get a DOM document by parsing the stream directly with a builder from the factory.
+     *
+     * The stream is not closed by this method.
+     *
+     * @param factory
+     * @param in
+     * @param url the source URL, used for error reporting
+     * @return
+     * @throws com.omertron.tvrageapi.TVRageException
+     */
+    public static Document getEventDoc(XmlParserFactory factory, InputStream in, String url) throws TVRageException {
+        try {
+            Document doc = factory.getDocumentBuilder().parse(in);
+            doc.getDocumentElement().normalize();
+            return doc;
+        } catch (ParserConfigurationException | SAXException | IOException ex) {
             throw new TVRageException(ApiExceptionType.MAPPING_FAILED, UNABLE_TO_PARSE, url, ex);
         }
     }
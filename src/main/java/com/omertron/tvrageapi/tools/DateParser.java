@@ -0,0 +1,264 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.tools;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import org.pojava.datetime.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parse the dates used by TVRage without the overhead of a general purpose date parser.
+ *
+ * The formats "yyyy-MM-dd", "MMM/dd/yyyy" and the partial forms "yyyy-MM" and "MMM/yyyy" are read directly from the
+ * characters. A partial date, or one with a day of "00", is taken as the first day of the month. Dates without a month, such
+ * as the "0000-00-00" placeholder, are not dates. Any other text is passed to the general purpose parser.
+ *
+ * Episode lists repeat the same dates many times, so the most recent results are remembered.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public final class DateParser {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DateParser.class);
+    private static final String[] MONTHS = {"jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"};
+    // Returned by the fast path for text in a known format that is not a valid date
+    private static final LocalDate INVALID = LocalDate.MIN;
+    private static final int MEMO_SIZE = 512;
+    private static final Entry[] MEMO = new Entry[MEMO_SIZE];
+
+    // Hide the constructor
+    private DateParser() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Parse the text into a date
+     *
+     * @param text
+     * @return the date, or null if the text is not a date
+     */
+    public static LocalDate parse(String text) {
+        if (text == null) {
+            return null;
+        }
+
+        // The entries are immutable, so a race only costs a repeated parse
+        int index = text.hashCode() & (MEMO_SIZE - 1);
+        Entry entry = MEMO[index];
+        if (entry != null && entry.text.equals(text)) {
+            return entry.date;
+        }
+
+        LocalDate date = parseText(text);
+        MEMO[index] = new Entry(text, date);
+        return date;
+    }
+
+    /**
+     * Parse the text into a date at the start of the day in the default time zone
+     *
+     * @param text
+     * @return the date, or null if the text is not a date
+     */
+    public static Date parseDate(String text) {
+        return toDate(parse(text));
+    }
+
+    /**
+     * Convert the date to the start of the day in the default time zone
+     *
+     * @param date
+     * @return
+     */
+    public static Date toDate(LocalDate date) {
+        return date == null ? null : Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * Convert the date to a local date in the default time zone
+     *
+     * @param date
+     * @return
+     */
+    public static LocalDate toLocalDate(Date date) {
+        return date == null ? null : date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private static LocalDate parseText(String text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return null;
+        }
+
+        LocalDate date = Character.isDigit(text.charAt(start)) ? parseNumeric(text, start, end) : parseNamed(text, start, end);
+        if (date == INVALID) {
+            return null;
+        } else if (date != null) {
+            return date;
+        }
+
+        // Not one of the known formats
+        try {
+            return toLocalDate(new DateTime(text).toDate());
+        } catch (RuntimeException ex) {
+            LOG.trace("Failed to convert date: {}", text, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Parse "yyyy-MM-dd" or "yyyy-MM"
+     */
+    private static LocalDate parseNumeric(String text, int start, int end) {
+        int pos = digitsEnd(text, start, end);
+        if (pos - start != 4) {
+            return null;
+        }
+        int year = toInt(text, start, pos);
+        if (pos == end) {
+            // Only the year is known
+            return INVALID;
+        }
+
+        if (text.charAt(pos) != '-') {
+            return null;
+        }
+        int monthStart = pos + 1;
+        pos = digitsEnd(text, monthStart, end);
+        if (pos - monthStart < 1 || pos - monthStart > 2) {
+            return null;
+        }
+        int month = toInt(text, monthStart, pos);
+
+        int day = 0;
+        if (pos < end) {
+            if (text.charAt(pos) != '-') {
+                return null;
+            }
+            int dayStart = pos + 1;
+            pos = digitsEnd(text, dayStart, end);
+            if (pos != end || pos - dayStart < 1 || pos - dayStart > 2) {
+                return null;
+            }
+            day = toInt(text, dayStart, pos);
+        }
+        return toLocalDate(year, month, day);
+    }
+
+    /**
+     * Parse "MMM/dd/yyyy" or "MMM/yyyy"
+     */
+    private static LocalDate parseNamed(String text, int start, int end) {
+        int pos = start;
+        while (pos < end && Character.isLetter(text.charAt(pos))) {
+            pos++;
+        }
+        int month = toMonth(text, start, pos);
+        if (month == 0 || pos == end || text.charAt(pos) != '/') {
+            return null;
+        }
+
+        int partStart = pos + 1;
+        pos = digitsEnd(text, partStart, end);
+        int length = pos - partStart;
+        if (pos == end && length == 4) {
+            // Only the month and year are known
+            return toLocalDate(toInt(text, partStart, pos), month, 0);
+        }
+        if (length < 1 || length > 2 || pos == end || text.charAt(pos) != '/') {
+            return null;
+        }
+        int day = toInt(text, partStart, pos);
+
+        int yearStart = pos + 1;
+        pos = digitsEnd(text, yearStart, end);
+        if (pos != end || pos - yearStart != 4) {
+            return null;
+        }
+        return toLocalDate(toInt(text, yearStart, pos), month, day);
+    }
+
+    private static LocalDate toLocalDate(int year, int month, int day) {
+        if (year == 0 || month < 1 || month > 12) {
+            return INVALID;
+        }
+
+        LocalDate first = LocalDate.of(year, month, 1);
+        if (day == 0) {
+            return first;
+        }
+        return day > first.lengthOfMonth() ? INVALID : first.withDayOfMonth(day);
+    }
+
+    /**
+     * Get the month number from the first three letters of the name
+     *
+     * @return the month, or 0 if the name is not a month
+     */
+    private static int toMonth(String text, int start, int end) {
+        if (end - start < 3) {
+            return 0;
+        }
+        for (int i = 0; i < MONTHS.length; i++) {
+            if (text.regionMatches(true, start, MONTHS[i], 0, 3)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static int digitsEnd(String text, int start, int end) {
+        int pos = start;
+        while (pos < end && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int toInt(String text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static final class Entry {
+
+        private final String text;
+        private final LocalDate date;
+
+        Entry(String text, LocalDate date) {
+            this.text = text;
+            this.date = date;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.tools;
+
+import com.omertron.tvrageapi.model.EpisodeField;
+import com.omertron.tvrageapi.model.ShowField;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The response elements that hold each of the optional fields, so the parsers can skip the elements that are not wanted.
+ *
+ * @author Stuart.Boston
+ *
+ */
+final class FieldElements {
+
+    private static final Map<String, EpisodeField> EPISODE = new HashMap<>();
+    private static final Map<String, ShowField> SHOW = new HashMap<>();
+
+    static {
+        EPISODE.put("prodnum", EpisodeField.PRODUCTION_ID);
+        EPISODE.put("airdate", EpisodeField.AIR_DATE);
+        EPISODE.put("link", EpisodeField.LINK);
+        EPISODE.put("url", EpisodeField.LINK);
+        EPISODE.put("title", EpisodeField.TITLE);
+        EPISODE.put("summary", EpisodeField.SUMMARY);
+        EPISODE.put("rating", EpisodeField.RATING);
+        EPISODE.put("screencap", EpisodeField.SCREEN_CAP);
+
+        SHOW.put("showlink", ShowField.LINK);
+        SHOW.put("link", ShowField.LINK);
+        SHOW.put("country", ShowField.COUNTRY);
+        SHOW.put("origin_country", ShowField.COUNTRY);
+        SHOW.put("started", ShowField.STARTED);
+        SHOW.put("startdate", ShowField.START_DATE);
+        SHOW.put("ended", ShowField.ENDED);
+        SHOW.put("seasons", ShowField.TOTAL_SEASONS);
+        SHOW.put("status", ShowField.STATUS);
+        SHOW.put("classification", ShowField.CLASSIFICATION);
+        SHOW.put("summary", ShowField.SUMMARY);
+        SHOW.put("runtime", ShowField.RUNTIME);
+        SHOW.put("airtime", ShowField.AIR_TIME);
+        SHOW.put("airday", ShowField.AIR_DAY);
+        SHOW.put("timezone", ShowField.TIMEZONE);
+        SHOW.put("network", ShowField.NETWORK);
+        SHOW.put("akas", ShowField.AKAS);
+        SHOW.put("aka", ShowField.AKAS);
+        SHOW.put("genres", ShowField.GENRES);
+        SHOW.put("genre", ShowField.GENRES);
+    }
+
+    // Hide the constructor
+    private FieldElements() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Check if an element of an episode should be skipped
+     *
+     * @param tagName
+     * @param fields the fields wanted
+     * @return true if the element holds a field that is not wanted
+     */
+    static boolean skipEpisode(String tagName, Set<EpisodeField> fields) {
+        if (fields.size() == EpisodeField.ALL.size()) {
+            return false;
+        }
+        EpisodeField field = EPISODE.get(tagName);
+        return field != null && !fields.contains(field);
+    }
+
+    /**
+     * Check if an element of a show should be skipped
+     *
+     * @param tagName
+     * @param fields the fields wanted
+     * @return true if the element holds a field that is not wanted
+     */
+    static boolean skipShow(String tagName, Set<ShowField> fields) {
+        if (fields.size() == ShowField.ALL.size()) {
+            return false;
+        }
+        ShowField field = SHOW.get(tagName);
+        return field != null && !fields.contains(field);
+    }
+}
@@ -0,0 +1,585 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.tools;
+
+import com.omertron.tvrageapi.TVRageApi;
+import com.omertron.tvrageapi.TVRageException;
+import com.omertron.tvrageapi.model.CountryDetail;
+import com.omertron.tvrageapi.model.Episode;
+import com.omertron.tvrageapi.model.EpisodeIndex;
+import com.omertron.tvrageapi.model.EpisodeList;
+import com.omertron.tvrageapi.model.EpisodeNumber;
+import com.omertron.tvrageapi.model.ShowInfo;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * A compact binary form of the model objects, for storing or passing them on without Java serialization.
+ *
+ * Each payload starts with a header holding the format version and the type of object. Numbers are written as variable
+ * length integers, so small values take a single byte. Strings are written once and then referred to by their position in
+ * the payload, which suits the values repeated across an episode list or search results. Dates are written as the number of
+ * days from the previous date in the payload, so the weekly dates of an episode list take a byte each.
+ *
+ * Ratings with a single decimal place, as used by TVRage, are written as tenths. Any other rating is written in full, so no
+ * value is lost.
+ *
+ * The decoded objects can be changed. The version is increased if the layout changes, and older versions can still be read.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public final class ModelCodec {
+
+    /**
+     * The current version of the format
+     */
+    public static final int VERSION = 1;
+    private static final byte[] MAGIC = {'T', 'V'};
+    private static final int TYPE_EPISODE = 1;
+    private static final int TYPE_EPISODE_LIST = 2;
+    private static final int TYPE_SHOW_INFO = 3;
+    private static final int TYPE_SHOW_LIST = 4;
+    private static final String UNABLE_TO_DECODE = "Unable to decode the data: ";
+
+    // Hide the constructor
+    private ModelCodec() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Encode an episode
+     *
+     * @param episode
+     * @return
+     */
+    public static byte[] encode(Episode episode) {
+        Writer writer = new Writer(TYPE_EPISODE);
+        writeEpisode(writer, episode);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Encode an episode list
+     *
+     * @param episodeList
+     * @return
+     */
+    public static byte[] encode(EpisodeList episodeList) {
+        Writer writer = new Writer(TYPE_EPISODE_LIST);
+        writer.writeString(episodeList.getShowName());
+        writer.writeSigned(episodeList.getTotalSeasons());
+
+        // The index keeps the episodes in order without changing the list
+        EpisodeIndex index = episodeList.getIndex();
+        writer.writeVarint(index.size());
+        for (int position = 0; position < index.size(); position++) {
+            writeEpisode(writer, index.getAt(position));
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Encode a show
+     *
+     * @param showInfo
+     * @return
+     */
+    public static byte[] encode(ShowInfo showInfo) {
+        Writer writer = new Writer(TYPE_SHOW_INFO);
+        writeShowInfo(writer, showInfo);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Encode a list of shows, such as the search results
+     *
+     * @param shows
+     * @return
+     */
+    public static byte[] encodeShowList(List<ShowInfo> shows) {
+        Writer writer = new Writer(TYPE_SHOW_LIST);
+        writer.writeVarint(shows.size());
+        for (ShowInfo showInfo : shows) {
+            writeShowInfo(writer, showInfo);
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decode an episode
+     *
+     * @param data
+     * @return
+     * @throws TVRageException if the data is not an encoded episode
+     */
+    public static Episode decodeEpisode(byte[] data) throws TVRageException {
+        try {
+            Reader reader = new Reader(data, TYPE_EPISODE);
+            Episode episode = readEpisode(reader);
+            reader.finish();
+            return episode;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw new TVRageException(ApiExceptionType.MAPPING_FAILED, UNABLE_TO_DECODE + ex.getMessage(), (String) null, ex);
+        }
+    }
+
+    /**
+     * Decode an episode list
+     *
+     * @param data
+     * @return
+     * @throws TVRageException if the data is not an encoded episode list
+     */
+    public static EpisodeList decodeEpisodeList(byte[] data) throws TVRageException {
+        try {
+            Reader reader = new Reader(data, TYPE_EPISODE_LIST);
+            EpisodeList episodeList = new EpisodeList();
+            episodeList.setShowName(reader.readString());
+            episodeList.setTotalSeasons(reader.readInt());
+
+            int count = reader.readCount();
+            Map<EpisodeNumber, Episode> episodes = new TreeMap<>();
+            for (int loop = 0; loop < count; loop++) {
+                Episode episode = readEpisode(reader);
+                episodes.put(episode.getEpisodeNumber(), episode);
+            }
+            episodeList.setEpisodeList(episodes);
+            reader.finish();
+            return episodeList;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw new TVRageException(ApiExceptionType.MAPPING_FAILED, UNABLE_TO_DECODE + ex.getMessage(), (String) null, ex);
+        }
+    }
+
+    /**
+     * Decode a show
+     *
+     * @param data
+     * @return
+     * @throws TVRageException if the data is not an encoded show
+     */
+    public static ShowInfo decodeShowInfo(byte[] data) throws TVRageException {
+        try {
+            Reader reader = new Reader(data, TYPE_SHOW_INFO);
+            ShowInfo showInfo = readShowInfo(reader);
+            reader.finish();
+            return showInfo;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw new TVRageException(ApiExceptionType.MAPPING_FAILED, UNABLE_TO_DECODE + ex.getMessage(), (String) null, ex);
+        }
+    }
+
+    /**
+     * Decode a list of shows
+     *
+     * @param data
+     * @return
+     * @throws TVRageException if the data is not an encoded list of shows
+     */
+    public static List<ShowInfo> decodeShowList(byte[] data) throws TVRageException {
+        try {
+            Reader reader = new Reader(data, TYPE_SHOW_LIST);
+            int count = reader.readCount();
+            List<ShowInfo> shows = new ArrayList<>(count);
+            for (int loop = 0; loop < count; loop++) {
+                shows.add(readShowInfo(reader));
+            }
+            reader.finish();
+            return shows;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw new TVRageException(ApiExceptionType.MAPPING_FAILED, UNABLE_TO_DECODE + ex.getMessage(), (String) null, ex);
+        }
+    }
+
+    private static void writeEpisode(Writer writer, Episode episode) {
+        EpisodeNumber episodeNumber = episode.getEpisodeNumber();
+        writer.writeSigned(episodeNumber.getSeason());
+        writer.writeSigned(episodeNumber.getEpisode());
+        writer.writeSigned(episodeNumber.getAbsolute());
+        writer.writeString(episode.getProductionId());
+        writer.writeDate(episode.getAirLocalDate());
+        writer.writeString(episode.getLink());
+        writer.writeString(episode.getTitle());
+        writer.writeString(episode.getSummary());
+        writer.writeRating(episode.getRating());
+        writer.writeString(episode.getScreenCap());
+    }
+
+    private static Episode readEpisode(Reader reader) {
+        Episode episode = new Episode();
+        int season = reader.readInt();
+        int number = reader.readInt();
+        episode.setEpisodeNumber(new EpisodeNumber(season, number, reader.readInt()));
+        episode.setProductionId(reader.readString());
+        episode.setAirDate(reader.readDate());
+        episode.setLink(reader.readString());
+        episode.setTitle(reader.readString());
+        episode.setSummary(reader.readString());
+        episode.setRating(reader.readRating());
+        episode.setScreenCap(reader.readString());
+        return episode;
+    }
+
+    private static void writeShowInfo(Writer writer, ShowInfo showInfo) {
+        writer.writeSigned(showInfo.getShowID());
+        writer.writeString(showInfo.getShowName());
+        writer.writeString(showInfo.getShowLink());
+        writer.writeString(showInfo.getCountry());
+        writer.writeString(showInfo.getOriginCountry());
+        writer.writeSigned(showInfo.getStarted());
+        writer.writeDate(showInfo.getStartLocalDate());
+        writer.writeString(showInfo.getEnded());
+        writer.writeSigned(showInfo.getTotalSeasons());
+        writer.writeString(showInfo.getStatus());
+        writer.writeString(showInfo.getClassification());
+        writer.writeString(showInfo.getSummary());
+        writer.writeSigned(showInfo.getRuntime());
+        writer.writeString(showInfo.getAirTime());
+        writer.writeString(showInfo.getAirDay());
+        writer.writeString(showInfo.getTimezone());
+        writeDetails(writer, showInfo.getNetwork());
+        writeDetails(writer, showInfo.getAkas());
+
+        List<String> genres = showInfo.getGenres() == null ? Collections.<String>emptyList() : showInfo.getGenres();
+        writer.writeVarint(genres.size());
+        for (String genre : genres) {
+            writer.writeString(genre);
+        }
+    }
+
+    private static ShowInfo readShowInfo(Reader reader) {
+        ShowInfo showInfo = new ShowInfo();
+        showInfo.setShowID(reader.readInt());
+        showInfo.setShowName(reader.readString());
+        showInfo.setShowLink(reader.readString());
+        showInfo.setCountry(reader.readString());
+        showInfo.setOriginCountry(reader.readString());
+        showInfo.setStarted(reader.readInt());
+        showInfo.setStartDate(reader.readDate());
+        showInfo.setEnded(reader.readString());
+        showInfo.setTotalSeasons(reader.readInt());
+        showInfo.setStatus(reader.readString());
+        showInfo.setClassification(reader.readString());
+        showInfo.setSummary(reader.readString());
+        showInfo.setRuntime(reader.readInt());
+        showInfo.setAirTime(reader.readString());
+        showInfo.setAirDay(reader.readString());
+        showInfo.setTimezone(reader.readString());
+        showInfo.setNetwork(readDetails(reader));
+        showInfo.setAkas(readDetails(reader));
+
+        int count = reader.readCount();
+        List<String> genres = new ArrayList<>(count);
+        for (int loop = 0; loop < count; loop++) {
+            genres.add(reader.readString());
+        }
+        showInfo.setGenres(genres);
+        return showInfo;
+    }
+
+    private static void writeDetails(Writer writer, List<CountryDetail> details) {
+        if (details == null) {
+            writer.writeVarint(0);
+            return;
+        }
+        writer.writeVarint(details.size());
+        for (CountryDetail detail : details) {
+            writer.writeString(detail.getCountry());
+            writer.writeString(detail.getDetail());
+        }
+    }
+
+    private static List<CountryDetail> readDetails(Reader reader) {
+        int count = reader.readCount();
+        List<CountryDetail> details = new ArrayList<>(count);
+        for (int loop = 0; loop < count; loop++) {
+            String country = reader.readString();
+            details.add(new CountryDetail(country, reader.readString()));
+        }
+        return details;
+    }
+
+    /**
+     * Check if a rating can be written as a whole number of tenths without losing anything
+     *
+     * @param rating
+     * @return
+     */
+    private static boolean isTenths(float rating) {
+        return Math.abs(rating) < 1.0e6f && Float.floatToIntBits(Math.round(rating * 10) / 10f) == Float.floatToIntBits(rating);
+    }
+
+    /**
+     * Writes the payload into a growing buffer
+     */
+    private static final class Writer {
+
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private byte[] buffer = new byte[512];
+        private int size = 0;
+        private long previousDay = 0;
+
+        Writer(int type) {
+            dictionary.put(TVRageApi.UNKNOWN, 0);
+            ensure(MAGIC.length + 2);
+            for (byte value : MAGIC) {
+                buffer[size++] = value;
+            }
+            buffer[size++] = (byte) VERSION;
+            buffer[size++] = (byte) type;
+        }
+
+        /**
+         * Write an unsigned value, seven bits at a time
+         *
+         * @param value
+         */
+        void writeVarint(long value) {
+            ensure(10);
+            long remaining = value;
+            while ((remaining & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((remaining & 0x7F) | 0x80);
+                remaining >>>= 7;
+            }
+            buffer[size++] = (byte) remaining;
+        }
+
+        /**
+         * Write a signed value, with the sign moved to the lowest bit so small negative values stay short
+         *
+         * @param value
+         */
+        void writeSigned(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        /**
+         * Write a string, or a reference to the same string written earlier.
+         *
+         * Null is 0, a reference is an even value and a new string is an odd value holding its length in bytes
+         *
+         * @param value
+         */
+        void writeString(String value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+
+            Integer id = dictionary.get(value);
+            if (id != null) {
+                writeVarint((id + 1L) << 1);
+                return;
+            }
+            dictionary.put(value, dictionary.size());
+
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(((long) bytes.length << 1) | 1);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        /**
+         * Write a date as the days from the previous date, with 0 for no date
+         *
+         * @param date
+         */
+        void writeDate(LocalDate date) {
+            if (date == null) {
+                writeVarint(0);
+                return;
+            }
+            long day = date.toEpochDay();
+            long delta = day - previousDay;
+            writeVarint(((delta << 1) ^ (delta >> 63)) + 1);
+            previousDay = day;
+        }
+
+        /**
+         * Write a rating as tenths, which are even, or as an odd marker followed by the full value
+         *
+         * @param rating
+         */
+        void writeRating(float rating) {
+            if (isTenths(rating)) {
+                int tenths = Math.round(rating * 10);
+                writeVarint(((long) ((tenths << 1) ^ (tenths >> 31)) & 0xFFFFFFFFL) << 1);
+            } else {
+                writeVarint(1);
+                int bits = Float.floatToIntBits(rating);
+                ensure(4);
+                for (int shift = 24; shift >= 0; shift -= 8) {
+                    buffer[size++] = (byte) (bits >>> shift);
+                }
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    /**
+     * Reads a payload, checking the header and the lengths as it goes
+     */
+    private static final class Reader {
+
+        private final List<String> dictionary = new ArrayList<>();
+        private final byte[] data;
+        private int position = 0;
+        private long previousDay = 0;
+
+        Reader(byte[] data, int type) {
+            this.data = data;
+            dictionary.add(TVRageApi.UNKNOWN);
+
+            if (data.length < MAGIC.length + 2 || data[0] != MAGIC[0] || data[1] != MAGIC[1]) {
+                throw new IllegalArgumentException("not an encoded model");
+            }
+            position = MAGIC.length;
+            int version = data[position++];
+            if (version < 1 || version > VERSION) {
+                throw new IllegalArgumentException("unsupported version " + version);
+            }
+            int found = data[position++];
+            if (found != type) {
+                throw new IllegalArgumentException("expected type " + type + " but found " + found);
+            }
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte current = data[position++];
+                value |= (long) (current & 0x7F) << shift;
+                if (current >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("malformed number at " + position);
+        }
+
+        long readSigned() {
+            long value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        int readInt() {
+            long value = readSigned();
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("number out of range at " + position);
+            }
+            return (int) value;
+        }
+
+        /**
+         * Read the number of items that follow, which cannot be more than the bytes left
+         *
+         * @return
+         */
+        int readCount() {
+            long count = readVarint();
+            if (count > data.length - position) {
+                throw new IllegalArgumentException("count " + count + " is larger than the data at " + position);
+            }
+            return (int) count;
+        }
+
+        String readString() {
+            long value = readVarint();
+            if (value == 0) {
+                return null;
+            }
+            if ((value & 1) == 0) {
+                long id = (value >>> 1) - 1;
+                if (id >= dictionary.size()) {
+                    throw new IllegalArgumentException("unknown string reference at " + position);
+                }
+                return dictionary.get((int) id);
+            }
+
+            long length = value >>> 1;
+            if (length > data.length - position) {
+                throw new IllegalArgumentException("string length " + length + " is larger than the data at " + position);
+            }
+            String text = new String(data, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            dictionary.add(text);
+            return text;
+        }
+
+        LocalDate readDate() {
+            long value = readVarint();
+            if (value == 0) {
+                return null;
+            }
+            long delta = ((value - 1) >>> 1) ^ -((value - 1) & 1);
+            previousDay += delta;
+            try {
+                return LocalDate.ofEpochDay(previousDay);
+            } catch (DateTimeException ex) {
+                throw new IllegalArgumentException("invalid date at " + position, ex);
+            }
+        }
+
+        float readRating() {
+            long value = readVarint();
+            if ((value & 1) == 0) {
+                long zigzag = value >>> 1;
+                int tenths = (int) ((zigzag >>> 1) ^ -(zigzag & 1));
+                return tenths / 10f;
+            }
+            if (data.length - position < 4) {
+                throw new IllegalArgumentException("rating is larger than the data at " + position);
+            }
+            int bits = 0;
+            for (int loop = 0; loop < 4; loop++) {
+                bits = (bits << 8) | (data[position++] & 0xFF);
+            }
+            return Float.intBitsToFloat(bits);
+        }
+
+        /**
+         * Check that the whole payload was read
+         */
+        void finish() {
+            if (position != data.length) {
+                throw new IllegalArgumentException((data.length - position) + " unexpected bytes at the end");
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.tools;
+
+import com.omertron.tvrageapi.TVRageException;
+import com.omertron.tvrageapi.model.Episode;
+import com.omertron.tvrageapi.model.EpisodeField;
+import com.omertron.tvrageapi.model.EpisodeList;
+import com.omertron.tvrageapi.model.ShowField;
+import com.omertron.tvrageapi.model.ShowInfo;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The available engines for parsing the responses into the model objects.
+ *
+ * Both engines produce the same results. Fields that are not wanted are skipped by both, but only the STAX engine avoids
+ * reading them into memory.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public enum ParserEngine {
+
+    /**
+     * Build a DOM of the whole response and then walk it
+     */
+    DOM {
+        @Override
+        public Episode parseEpisodeInfo(XmlParserFactory factory, InputStream in, String url, Set<EpisodeField> fields) throws TVRageException {
+            return TVRageParser.getEpisodeInfo(DOMHelper.getEventDoc(factory, in, url), fields);
+        }
+
+        @Override
+        public EpisodeList parseEpisodeList(XmlParserFactory factory, InputStream in, String url, Set<EpisodeField> fields,
+                Set<Integer> seasons) throws TVRageException {
+            return TVRageParser.getEpisodeList(DOMHelper.getEventDoc(factory, in, url), fields, seasons);
+        }
+
+        @Override
+        public List<ShowInfo> parseShowInfo(XmlParserFactory factory, InputStream in, String url, Set<ShowField> fields) throws TVRageException {
+            return TVRageParser.getShowInfo(DOMHelper.getEventDoc(factory, in, url), fields);
+        }
+
+        @Override
+        public List<ShowInfo> parseSearchShow(XmlParserFactory factory, InputStream in, String url, Set<ShowField> fields) throws TVRageException {
+            return TVRageParser.getSearchShow(DOMHelper.getEventDoc(factory, in, url), fields);
+        }
+    },
+    /**
+     * Read the response in a single pass with a StAX reader, without building a document
+     */
+    STAX {
+        @Override
+        public Episode parseEpisodeInfo(XmlParserFactory factory, InputStream in, String url, Set<EpisodeField> fields) throws TVRageException {
+            return StaxParser.getEpisodeInfo(factory, in, url, fields);
+        }
+
+        @Override
+        public EpisodeList parseEpisodeList(XmlParserFactory factory, InputStream in, String url, Set<EpisodeField> fields,
+                Set<Integer> seasons) throws TVRageException {
+            return StaxParser.getEpisodeList(factory, in, url, fields, seasons);
+        }
+
+        @Override
+        public List<ShowInfo> parseShowInfo(XmlParserFactory factory, InputStream in, String url, Set<ShowField> fields) throws TVRageException {
+            return StaxParser.getShowInfo(factory, in, url, fields);
+        }
+
+        @Override
+        public List<ShowInfo> parseSearchShow(XmlParserFactory factory, InputStream in, String url, Set<ShowField> fields) throws TVRageException {
+            return StaxParser.getSearchShow(factory, in, url, fields);
+        }
+    };
+
+    /**
+     * Parse an episodeinfo.php response using the default parser factory
+     *
+     * @param in
+     * @param url the source URL, used for error reporting
+     * @return
+     * @throws TVRageException
+     */
+    public Episode parseEpisodeInfo(InputStream in, String url) throws TVRageException {
+        return parseEpisodeInfo(XmlParserFactory.getDefault(), in, url);
+    }
+
+    /**
+     * Parse an episode_list.php response using the default parser factory
+     *
+     * @param in
+     * @param url the source URL, used for error reporting
+     * @return
+     * @throws TVRageException
+     */
+    public EpisodeList parseEpisodeList(InputStream in, String url) throws TVRageException {
+        return parseEpisodeList(XmlParserFactory.getDefault(), in, url);
+    }
+
+    /**
+     * Parse a showinfo.php response using the default parser factory
+     *
+     * @param in
+     * @param url the source URL, used for error reporting
+     * @return
+     * @throws TVRageException
+     */
+    public List<ShowInfo> parseShowInfo(InputStream in, String url) throws TVRageException {
+        return parseShowInfo(XmlParserFactory.getDefault(), in, url);
+    }
+
+    /**
+     * Parse a search.php response using the default parser factory
+     *
+     * @param in
+     * @param url the source URL, used for error reporting
+     * @return
+     * @throws TVRageException
+     */
+    public List<ShowInfo> parseSearchShow(InputStream in, String url) throws TVRageException {
+        return parseSearchShow(XmlParserFactory.getDefault(), in, url);
+    }
+
+    /**
+     * Parse an episodeinfo.php response
+     *
+     * @param factory
+     * @param in
+     * @param url the source URL, used for error reporting
+     * @return
+     * @throws TVRageException
+     */
+    public Episode parseEpisodeInfo(XmlParserFactory factory, InputStream in, String url) throws TVRageException {
+        return parseEpisodeInfo(factory, in, url, EpisodeField.ALL);
+    }
+
+    /**
+     * Parse an episode_list.php response
+     *
+     * @param factory
+     * @param in
+     * @param url the source URL, used for error reporting
+     * @return
+     * @throws TVRageException
+     */
+    public EpisodeList parseEpisodeList(XmlParserFactory factory, InputStream in, String url) throws TVRageException {
+        return parseEpisodeList(factory, in, url, EpisodeField.ALL);
+    }
+
+    /**
+     * Parse a showinfo.php response
+     *
+     * @param factory
+     * @param in
+     * @param url the source URL, used for error reporting
+     * @return
+     * @throws TVRageException
+     */
+    public List<ShowInfo> parseShowInfo(XmlParserFactory factory, InputStream in, String url) throws TVRageException {
+        return parseShowInfo(factory, in, url, ShowField.ALL);
+    }
+
+    /**
+     * Parse a search.php response
+     *
+     * @param factory
+     * @param in
+     * @param url the source URL, used for error reporting
+     * @return
+     * @throws TVRageException
+     */
+    public List<ShowInfo> parseSearchShow(XmlParserFactory factory, InputStream in, String url) throws TVRageException {
+        return parseSearchShow(factory, in, url, ShowField.ALL);
+    }
+
+    /**
+     * Parse an episodeinfo.php response, only reading the fields wanted
+     *
+     * @param factory
+     * @param in
+     * @param url the source URL, used for error reporting
+     * @param fields
+     * @return
+     * @throws TVRageException
+     */
+    public abstract Episode parseEpisodeInfo(XmlParserFactory factory, InputStream in, String url, Set<EpisodeField> fields) throws TVRageException;
+
+    /**
+     * Parse an episode_list.php response, only reading the fields wanted
+     *
+     * @param factory
+     * @param in
+     * @param url the source URL, used for error reporting
+     * @param fields
+     * @return
+     * @throws TVRageException
+     */
+    public EpisodeList parseEpisodeList(XmlParserFactory factory, InputStream in, String url, Set<EpisodeField> fields) throws TVRageException {
+        return parseEpisodeList(factory, in, url, fields, null);
+    }
+
+    /**
+     * Parse an episode_list.php response, only reading the seasons and fields wanted
+     *
+     * @param factory
+     * @param in
+     * @param url the source URL, used for error reporting
+     * @param fields
+     * @param seasons the season numbers to read, or null for all of them
+     * @return
+     * @throws TVRageException
+     */
+    public abstract EpisodeList parseEpisodeList(XmlParserFactory factory, InputStream in, String url, Set<EpisodeField> fields,
+            Set<Integer> seasons) throws TVRageException;
+
+    /**
+     * Parse a showinfo.php response, only reading the fields wanted
+     *
+     * @param factory
+     * @param in
+     * @param url the source URL, used for error reporting
+     * @param fields
+     * @return
+     * @throws TVRageException
+     */
+    public abstract List<ShowInfo> parseShowInfo(XmlParserFactory factory, InputStream in, String url, Set<ShowField> fields) throws TVRageException;
+
+    /**
+     * Parse a search.php response, only reading the fields wanted
+     *
+     * @param factory
+     * @param in
+     * @param url the source URL, used for error reporting
+     * @param fields
+     * @return
+     * @throws TVRageException
+     */
+    public abstract List<ShowInfo> parseSearchShow(XmlParserFactory factory, InputStream in, String url, Set<ShowField> fields) throws TVRageException;
+}
@@ -0,0 +1,42 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.tools;
+
+/**
+ * The pools of the show fields that only have a small number of distinct values, shared by the parsers.
+ *
+ * @author Stuart.Boston
+ *
+ */
+final class ShowValues {
+
+    static final StringPool COUNTRY = new StringPool(512);
+    static final StringPool STATUS = new StringPool(64);
+    static final StringPool CLASSIFICATION = new StringPool(64);
+    static final StringPool TIMEZONE = new StringPool(512);
+    static final StringPool AIR_DAY = new StringPool(64);
+    static final StringPool GENRE = new StringPool(512);
+    static final StringPool NETWORK = new StringPool(4096);
+
+    // Hide the constructor
+    private ShowValues() {
+        throw new UnsupportedOperationException();
+    }
+}
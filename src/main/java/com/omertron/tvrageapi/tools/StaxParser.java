@@ -0,0 +1,672 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.tools;
+
+import com.omertron.tvrageapi.EpisodeConsumer;
+import com.omertron.tvrageapi.TVRageApi;
+import com.omertron.tvrageapi.TVRageException;
+import com.omertron.tvrageapi.model.CountryDetail;
+import com.omertron.tvrageapi.model.Episode;
+import com.omertron.tvrageapi.model.EpisodeField;
+import com.omertron.tvrageapi.model.EpisodeList;
+import com.omertron.tvrageapi.model.EpisodeNumber;
+import com.omertron.tvrageapi.model.ShowField;
+import com.omertron.tvrageapi.model.ShowInfo;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Streaming (StAX) version of the TVRageParser.
+ *
+ * The response is read in a single forward pass and the model objects are populated as the elements are read, so no document
+ * tree is built.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class StaxParser {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StaxParser.class);
+    private static final String UNABLE_TO_PARSE = "Unable to parse response, please try again later.";
+    private static final Pattern EPISODE_NUMBER = Pattern.compile("(\\d*)[x](\\d*)");
+    // Literals
+    private static final String EPISODE = "episode";
+    private static final String SUMMARY = "summary";
+    private static final String TITLE = "title";
+    private static final String AIRDATE = "airdate";
+    private static final String COUNTRY = "country";
+    // Constants
+    private static final int MATCH_SEASON = 1;
+    private static final int MATCH_EPISODE = 2;
+
+    // Hide the constructor
+    protected StaxParser() {
+        // prevents calls from subclass
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Callback to process the document from a reader
+     *
+     * @param <T>
+     */
+    private interface ReaderHandler<T> {
+
+        T process(XMLStreamReader reader) throws XMLStreamException;
+    }
+
+    public static Episode getEpisodeInfo(XmlParserFactory factory, InputStream in, String url) throws TVRageException {
+        return getEpisodeInfo(factory, in, url, EpisodeField.ALL);
+    }
+
+    /**
+     * Parse an episodeinfo.php response, skipping the fields that are not wanted
+     *
+     * @param factory
+     * @param in
+     * @param url
+     * @param fields
+     * @return
+     * @throws TVRageException
+     */
+    public static Episode getEpisodeInfo(XmlParserFactory factory, InputStream in, String url, final Set<EpisodeField> fields) throws TVRageException {
+        return parse(factory, in, url, reader -> {
+            // The EpisodeInfo contains show information as well, but we will skip this
+            while (nextElement(reader)) {
+                if (EPISODE.equals(reader.getLocalName())) {
+                    // There's only one episode in the EpisodeInfo node
+                    return parseEpisodeInfo(reader, fields);
+                }
+            }
+            return new Episode();
+        });
+    }
+
+    public static EpisodeList getEpisodeList(XmlParserFactory factory, InputStream in, String url) throws TVRageException {
+        return getEpisodeList(factory, in, url, EpisodeField.ALL);
+    }
+
+    /**
+     * Parse an episode_list.php response, skipping the fields that are not wanted
+     *
+     * @param factory
+     * @param in
+     * @param url
+     * @param fields
+     * @return
+     * @throws TVRageException
+     */
+    public static EpisodeList getEpisodeList(XmlParserFactory factory, InputStream in, String url, Set<EpisodeField> fields) throws TVRageException {
+        return getEpisodeList(factory, in, url, fields, null);
+    }
+
+    /**
+     * Parse an episode_list.php response, only reading the seasons and fields that are wanted
+     *
+     * @param factory
+     * @param in
+     * @param url
+     * @param fields
+     * @param seasons the season numbers to read, or null for all of them
+     * @return
+     * @throws TVRageException
+     */
+    public static EpisodeList getEpisodeList(XmlParserFactory factory, InputStream in, String url, Set<EpisodeField> fields,
+            Set<Integer> seasons) throws TVRageException {
+        final EpisodeList epList = new EpisodeList();
+        streamEpisodeList(factory, in, url, fields, seasons, new EpisodeConsumer() {
+            @Override
+            public void onShow(String showName, int totalSeasons) {
+                epList.setShowName(showName);
+                epList.setTotalSeasons(totalSeasons);
+            }
+
+            @Override
+            public boolean accept(Episode episode) {
+                epList.addEpisode(episode);
+                return true;
+            }
+        });
+        return epList;
+    }
+
+    /**
+     * Pass each episode in the list to the consumer as soon as it has been read.
+     *
+     * Nothing is kept once an episode has been passed on, so the memory used does not depend on the length of the list.
+     *
+     * @param factory
+     * @param in
+     * @param url
+     * @param consumer
+     * @return the number of episodes passed to the consumer
+     * @throws TVRageException
+     */
+    public static int streamEpisodeList(XmlParserFactory factory, InputStream in, String url, EpisodeConsumer consumer) throws TVRageException {
+        return streamEpisodeList(factory, in, url, EpisodeField.ALL, consumer);
+    }
+
+    /**
+     * Pass each episode in the list to the consumer as soon as it has been read, skipping the fields that are not wanted
+     *
+     * @param factory
+     * @param in
+     * @param url
+     * @param fields
+     * @param consumer
+     * @return the number of episodes passed to the consumer
+     * @throws TVRageException
+     */
+    public static int streamEpisodeList(XmlParserFactory factory, InputStream in, String url, final Set<EpisodeField> fields,
+            final EpisodeConsumer consumer) throws TVRageException {
+        return streamEpisodeList(factory, in, url, fields, null, consumer);
+    }
+
+    /**
+     * Pass each episode in the wanted seasons to the consumer as soon as it has been read.
+     *
+     * Other seasons are skipped without creating their episodes, and the rest of the response is not read once all of the
+     * wanted seasons have been passed on.
+     *
+     * @param factory
+     * @param in
+     * @param url
+     * @param fields
+     * @param seasons the season numbers to read, or null for all of them
+     * @param consumer
+     * @return the number of episodes passed to the consumer
+     * @throws TVRageException
+     */
+    public static int streamEpisodeList(XmlParserFactory factory, InputStream in, String url, final Set<EpisodeField> fields,
+            final Set<Integer> seasons, final EpisodeConsumer consumer) throws TVRageException {
+        final Set<Integer> remaining = seasons == null ? null : new HashSet<>(seasons);
+        final int[] count = new int[1];
+        final EpisodeConsumer counter = episode -> {
+            count[0]++;
+            return consumer.accept(episode);
+        };
+
+        return parse(factory, in, url, reader -> {
+            boolean foundShow = false;
+            boolean notified = false;
+            String showName = null;
+            String totalSeasons = null;
+
+            while (nextElement(reader)) {
+                switch (reader.getLocalName()) {
+                    case "Show":
+                        foundShow = true;
+                        break;
+                    case "name":
+                        if (foundShow && showName == null) {
+                            showName = reader.getElementText();
+                        }
+                        break;
+                    case "totalseasons":
+                        if (foundShow && totalSeasons == null) {
+                            totalSeasons = reader.getElementText();
+                        }
+                        break;
+                    case "Season":
+                        if (foundShow) {
+                            if (!notified) {
+                                consumer.onShow(showName, NumberUtils.toInt(totalSeasons, 0));
+                                notified = true;
+                            }
+
+                            int season = NumberUtils.toInt(reader.getAttributeValue(null, "no"), -1);
+                            if (remaining != null && !remaining.contains(season)) {
+                                skipElement(reader);
+                                break;
+                            }
+                            if (!processSeasonEpisodes(reader, counter, fields)) {
+                                // The consumer has asked to stop
+                                return count[0];
+                            }
+                            if (remaining != null) {
+                                remaining.remove(season);
+                                if (remaining.isEmpty()) {
+                                    // All of the wanted seasons have been read
+                                    return count[0];
+                                }
+                            }
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+
+            if (foundShow && !notified) {
+                consumer.onShow(showName, NumberUtils.toInt(totalSeasons, 0));
+            }
+            return count[0];
+        });
+    }
+
+    public static List<ShowInfo> getSearchShow(XmlParserFactory factory, InputStream in, String url) throws TVRageException {
+        return getSearchShow(factory, in, url, ShowField.ALL);
+    }
+
+    public static List<ShowInfo> getSearchShow(XmlParserFactory factory, InputStream in, String url, Set<ShowField> fields) throws TVRageException {
+        return processShowInfo(factory, in, url, "show", fields);
+    }
+
+    public static List<ShowInfo> getShowInfo(XmlParserFactory factory, InputStream in, String url) throws TVRageException {
+        return getShowInfo(factory, in, url, ShowField.ALL);
+    }
+
+    public static List<ShowInfo> getShowInfo(XmlParserFactory factory, InputStream in, String url, Set<ShowField> fields) throws TVRageException {
+        return processShowInfo(factory, in, url, "Showinfo", fields);
+    }
+
+    /**
+     * Get a list of the ShowInfo from the specified tag
+     *
+     * @param factory
+     * @param in
+     * @param url
+     * @param tagName
+     * @param fields
+     * @return
+     * @throws TVRageException
+     */
+    private static List<ShowInfo> processShowInfo(XmlParserFactory factory, InputStream in, String url, final String tagName,
+            final Set<ShowField> fields) throws TVRageException {
+        return parse(factory, in, url, reader -> {
+            List<ShowInfo> showList = new ArrayList<>();
+            while (nextElement(reader)) {
+                if (tagName.equals(reader.getLocalName())) {
+                    showList.add(parseNextShowInfo(reader, fields));
+                }
+            }
+            return showList;
+        });
+    }
+
+    /**
+     * Create a reader for the stream and pass it to the handler, converting any errors.
+     *
+     * The stream is not closed by this method.
+     *
+     * @param <T>
+     * @param factory
+     * @param in
+     * @param url
+     * @param handler
+     * @return
+     * @throws TVRageException
+     */
+    private static <T> T parse(XmlParserFactory factory, InputStream in, String url, ReaderHandler<T> handler) throws TVRageException {
+        XMLStreamReader reader = null;
+        try {
+            reader = factory.createXMLStreamReader(in);
+            return handler.process(reader);
+        } catch (XMLStreamException ex) {
+            throw new TVRageException(ApiExceptionType.MAPPING_FAILED, UNABLE_TO_PARSE, url, ex);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ex) {
+                    LOG.trace("Failed to close reader", ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Pass the episodes in the season to the consumer
+     *
+     * @param reader positioned on the Season start element
+     * @param consumer
+     * @param fields
+     * @return false if the consumer asked to stop
+     * @throws XMLStreamException
+     */
+    private static boolean processSeasonEpisodes(XMLStreamReader reader, EpisodeConsumer consumer, Set<EpisodeField> fields) throws XMLStreamException {
+        // Get the season number
+        String season = reader.getAttributeValue(null, "no");
+
+        int depth = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (EPISODE.equals(reader.getLocalName())) {
+                    if (!consumer.accept(parseEpisode(reader, season, fields))) {
+                        return false;
+                    }
+                } else {
+                    depth++;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if (depth == 0) {
+                    return true;
+                }
+                depth--;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parse the episode element into an Episode object
+     *
+     * @param reader positioned on the episode start element
+     * @param season
+     * @param fields
+     * @return
+     * @throws XMLStreamException
+     */
+    private static Episode parseEpisode(XMLStreamReader reader, String season, Set<EpisodeField> fields) throws XMLStreamException {
+        Episode episode = new Episode();
+        EpisodeNumber en = new EpisodeNumber();
+        en.setSeason(season);
+
+        while (nextChild(reader)) {
+            if (FieldElements.skipEpisode(reader.getLocalName(), fields)) {
+                skipElement(reader);
+                continue;
+            }
+
+            switch (reader.getLocalName()) {
+                case "seasonnum":
+                    en.setEpisode(reader.getElementText());
+                    break;
+                case "epnum":
+                    en.setAbsolute(reader.getElementText());
+                    break;
+                case "prodnum":
+                    episode.setProductionId(reader.getElementText());
+                    break;
+                case AIRDATE:
+                    episode.setAirDate(reader.getElementText());
+                    break;
+                case "link":
+                    episode.setLink(reader.getElementText());
+                    break;
+                case TITLE:
+                    episode.setTitle(reader.getElementText());
+                    break;
+                case SUMMARY:
+                    episode.setSummary(reader.getElementText());
+                    break;
+                case "rating":
+                    episode.setRating(reader.getElementText());
+                    break;
+                case "screencap":
+                    episode.setScreenCap(reader.getElementText());
+                    break;
+                default:
+                    skipElement(reader);
+                    break;
+            }
+        }
+
+        episode.setEpisodeNumber(en);
+        return episode;
+    }
+
+    /**
+     * Parse the episode info element into an Episode object
+     *
+     * @param reader positioned on the episode start element
+     * @param fields
+     * @return
+     * @throws XMLStreamException
+     */
+    private static Episode parseEpisodeInfo(XMLStreamReader reader, Set<EpisodeField> fields) throws XMLStreamException {
+        Episode episode = new Episode();
+
+        while (nextChild(reader)) {
+            if (FieldElements.skipEpisode(reader.getLocalName(), fields)) {
+                skipElement(reader);
+                continue;
+            }
+
+            switch (reader.getLocalName()) {
+                case TITLE:
+                    episode.setTitle(reader.getElementText());
+                    break;
+                case AIRDATE:
+                    episode.setAirDate(reader.getElementText());
+                    break;
+                case "url":
+                    episode.setLink(reader.getElementText());
+                    break;
+                case SUMMARY:
+                    episode.setSummary(reader.getElementText());
+                    break;
+                case "number":
+                    // Process the season & episode field
+                    Matcher matcher = EPISODE_NUMBER.matcher(reader.getElementText());
+                    if (matcher.find()) {
+                        EpisodeNumber en = new EpisodeNumber();
+                        en.setSeason(matcher.group(MATCH_SEASON));
+                        en.setEpisode(matcher.group(MATCH_EPISODE));
+                        episode.setEpisodeNumber(en);
+                    }
+                    break;
+                default:
+                    skipElement(reader);
+                    break;
+            }
+        }
+
+        return episode;
+    }
+
+    /**
+     * Parse the show info element into a ShowInfo object.
+     *
+     * Containers such as "genres" and "akas" are descended into rather than skipped.
+     *
+     * @param reader positioned on the show start element
+     * @param fields
+     * @return
+     * @throws XMLStreamException
+     */
+    private static ShowInfo parseNextShowInfo(XMLStreamReader reader, Set<ShowField> fields) throws XMLStreamException {
+        ShowInfo showInfo = new ShowInfo();
+        String showName = null;
+        String altName = null;
+        String showLink = null;
+        String altLink = null;
+        String country = null;
+        String altCountry = null;
+
+        int depth = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                if (depth == 0) {
+                    break;
+                }
+                depth--;
+                continue;
+            } else if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+
+            if (FieldElements.skipShow(reader.getLocalName(), fields)) {
+                skipElement(reader);
+                continue;
+            }
+
+            switch (reader.getLocalName()) {
+                case "showid":
+                    showInfo.setShowID(reader.getElementText());
+                    break;
+                case "showname":
+                    showName = reader.getElementText();
+                    break;
+                case "name":
+                    altName = reader.getElementText();
+                    break;
+                case "showlink":
+                    showLink = reader.getElementText();
+                    break;
+                case "link":
+                    altLink = reader.getElementText();
+                    break;
+                case COUNTRY:
+                    country = reader.getElementText();
+                    break;
+                case "origin_country":
+                    altCountry = reader.getElementText();
+                    break;
+                case "started":
+                    showInfo.setStarted(reader.getElementText());
+                    break;
+                case "startdate":
+                    showInfo.setStartDate(reader.getElementText());
+                    break;
+                case "ended":
+                    showInfo.setEnded(reader.getElementText());
+                    break;
+                case "seasons":
+                    showInfo.setTotalSeasons(reader.getElementText());
+                    break;
+                case "status":
+                    showInfo.setStatus(ShowValues.STATUS.get(reader.getElementText()));
+                    break;
+                case "classification":
+                    showInfo.setClassification(ShowValues.CLASSIFICATION.get(reader.getElementText()));
+                    break;
+                case SUMMARY:
+                    showInfo.setSummary(reader.getElementText());
+                    break;
+                case "runtime":
+                    showInfo.setRuntime(reader.getElementText());
+                    break;
+                case "airtime":
+                    showInfo.setAirTime(reader.getElementText());
+                    break;
+                case "airday":
+                    showInfo.setAirDay(ShowValues.AIR_DAY.get(reader.getElementText()));
+                    break;
+                case "timezone":
+                    showInfo.setTimezone(ShowValues.TIMEZONE.get(reader.getElementText()));
+                    break;
+                case "network":
+                    showInfo.addNetwork(parseCountryDetail(reader, ShowValues.NETWORK));
+                    break;
+                case "aka":
+                    showInfo.addAka(parseCountryDetail(reader, null));
+                    break;
+                case "genre":
+                    showInfo.addGenre(ShowValues.GENRE.get(reader.getElementText()));
+                    break;
+                default:
+                    // Container or unused element, read into it
+                    depth++;
+                    break;
+            }
+        }
+
+        showInfo.setShowName(TVRageApi.isValidString(showName) ? showName : altName);
+        showInfo.setShowLink(TVRageApi.isValidString(showLink) ? showLink : altLink);
+        showInfo.setCountry(ShowValues.COUNTRY.get(TVRageApi.isValidString(country) ? country : altCountry));
+        return showInfo;
+    }
+
+    /**
+     * Read the country attribute and text of the current element
+     *
+     * @param reader
+     * @param pool the pool for the text, or null if it is not pooled
+     * @return
+     * @throws XMLStreamException
+     */
+    private static CountryDetail parseCountryDetail(XMLStreamReader reader, StringPool pool) throws XMLStreamException {
+        CountryDetail detail = new CountryDetail();
+        detail.setCountry(ShowValues.COUNTRY.get(reader.getAttributeValue(null, COUNTRY)));
+        String text = reader.getElementText();
+        detail.setDetail(pool == null ? text : pool.get(text));
+        return detail;
+    }
+
+    /**
+     * Move to the next start element in the document
+     *
+     * @param reader
+     * @return false if the end of the document was reached
+     * @throws XMLStreamException
+     */
+    private static boolean nextElement(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Move to the next child start element of the current element.
+     *
+     * Each child must be fully consumed before calling this again.
+     *
+     * @param reader
+     * @return false if the end of the parent element was reached
+     * @throws XMLStreamException
+     */
+    private static boolean nextChild(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Skip over the current element and all of its children
+     *
+     * @param reader
+     * @throws XMLStreamException
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+}
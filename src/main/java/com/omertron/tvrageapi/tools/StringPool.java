@@ -0,0 +1,89 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.tools;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A bounded pool of canonical strings, used so that the values repeated across many results share a single instance.
+ *
+ * The values are trimmed before they are pooled. Once the pool is full any new values are returned as they are, so a field
+ * with more distinct values than expected cannot use an unbounded amount of memory.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public final class StringPool {
+
+    private final ConcurrentHashMap<String, String> values;
+    private final int maxSize;
+
+    /**
+     * Create a pool
+     *
+     * @param maxSize the maximum number of values kept
+     */
+    public StringPool(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.values = new ConcurrentHashMap<>(Math.min(maxSize, 64));
+    }
+
+    /**
+     * Get the canonical instance of the trimmed value
+     *
+     * @param value
+     * @return the pooled value, or the trimmed value if the pool is full
+     */
+    public String get(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        String trimmed = value.trim();
+        String pooled = values.get(trimmed);
+        if (pooled != null) {
+            return pooled;
+        }
+
+        if (values.size() >= maxSize) {
+            return trimmed;
+        }
+        pooled = values.putIfAbsent(trimmed, trimmed);
+        return pooled == null ? trimmed : pooled;
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Remove all of the values from the pool
+     */
+    public void clear() {
+        values.clear();
+    }
+}
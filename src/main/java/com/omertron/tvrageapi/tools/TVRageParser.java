@@ -23,13 +23,17 @@ import com.omertron.tvrageapi.TVRageApi;
 import com.omertron.tvrageapi.TVRageException;
 import com.omertron.tvrageapi.model.CountryDetail;
 import com.omertron.tvrageapi.model.Episode;
+import com.omertron.tvrageapi.model.EpisodeField;
 import com.omertron.tvrageapi.model.EpisodeList;
 import com.omertron.tvrageapi.model.EpisodeNumber;
+import com.omertron.tvrageapi.model.ShowField;
 import com.omertron.tvrageapi.model.ShowInfo;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -43,9 +47,11 @@ public class TVRageParser {
     private static final String TITLE = "title";
     private static final String AIRDATE = "airdate";
     private static final String COUNTRY = "country";
+    private static final String NETWORK = "network";
     // Constants
     private static final int MATCH_SEASON = 1;
     private static final int MATCH_EPISODE = 2;
+    private static final Pattern EPISODE_NUMBER = Pattern.compile("(\\d*)[x](\\d*)");
 
     // Hide the constructor
     protected TVRageParser() {
@@ -53,13 +59,30 @@ public class TVRageParser {
         throw new UnsupportedOperationException();
     }
 
+    @SuppressWarnings("deprecation")
     private static Document getDocFromUrl(String searchUrl) throws TVRageException {
         return DOMHelper.getEventDocFromUrl(searchUrl);
     }
 
+    /**
+     * Request and parse the URL
+     *
+     * @param searchUrl
+     * @return
+     * @throws TVRageException
+     * @deprecated Each TVRageApi has its own transport, use the TVRageApi methods or parse a Document
+     */
+    @Deprecated
     public static Episode getEpisodeInfo(String searchUrl) throws TVRageException {
+        return getEpisodeInfo(getDocFromUrl(searchUrl));
+    }
+
+    public static Episode getEpisodeInfo(Document doc) {
+        return getEpisodeInfo(doc, EpisodeField.ALL);
+    }
+
+    public static Episode getEpisodeInfo(Document doc, Set<EpisodeField> fields) {
         Episode episode = new Episode();
-        Document doc = getDocFromUrl(searchUrl);
 
         // The EpisodeInfo contains show information as well, but we will skip this
         NodeList nlEpisode = doc.getElementsByTagName(EPISODE);
@@ -70,13 +93,41 @@ public class TVRageParser {
 
         // There's only one episode in the EpisodeInfo node
         Element eEpisode = (Element) nlEpisode.item(0);
-        episode = parseEpisodeInfo(eEpisode);
+        episode = parseEpisodeInfo(eEpisode, fields);
         return episode;
     }
 
+    /**
+     * Request and parse the URL
+     *
+     * @param searchUrl
+     * @return
+     * @throws TVRageException
+     * @deprecated Each TVRageApi has its own transport, use the TVRageApi methods or parse a Document
+     */
+    @Deprecated
     public static EpisodeList getEpisodeList(String searchUrl) throws TVRageException {
+        return getEpisodeList(getDocFromUrl(searchUrl));
+    }
+
+    public static EpisodeList getEpisodeList(Document doc) {
+        return getEpisodeList(doc, EpisodeField.ALL);
+    }
+
+    public static EpisodeList getEpisodeList(Document doc, Set<EpisodeField> fields) {
+        return getEpisodeList(doc, fields, null);
+    }
+
+    /**
+     * Get the episodes of the wanted seasons, the other seasons are skipped
+     *
+     * @param doc
+     * @param fields
+     * @param seasons the season numbers to read, or null for all of them
+     * @return
+     */
+    public static EpisodeList getEpisodeList(Document doc, Set<EpisodeField> fields, Set<Integer> seasons) {
         EpisodeList epList = new EpisodeList();
-        Document doc = getDocFromUrl(searchUrl);
 
         NodeList nlEpisodeList;
         Node nEpisodeList;
@@ -92,13 +143,18 @@ public class TVRageParser {
             nEpisodeList = nlEpisodeList.item(loop);
             if (nEpisodeList.getNodeType() == Node.ELEMENT_NODE) {
                 eEpisodeList = (Element) nEpisodeList;
-                epList.setShowName(DOMHelper.getValueFromElement(eEpisodeList, "name"));
-                epList.setTotalSeasons(DOMHelper.getValueFromElement(eEpisodeList, "totalseasons"));
+                for (Element eChild = firstChildElement(eEpisodeList); eChild != null; eChild = nextSiblingElement(eChild)) {
+                    if ("name".equals(eChild.getTagName())) {
+                        epList.setShowName(DOMHelper.getValue(eChild));
+                    } else if ("totalseasons".equals(eChild.getTagName())) {
+                        epList.setTotalSeasons(DOMHelper.getValue(eChild));
+                    }
+                }
             }
         }
 
         // Now process the individual seasons
-        processSeasons(epList, doc.getElementsByTagName("Season"));
+        processSeasons(epList, doc.getElementsByTagName("Season"), fields, seasons);
 
         return epList;
     }
@@ -108,8 +164,10 @@ public class TVRageParser {
      *
      * @param epList
      * @param nlSeasons
+     * @param fields
+     * @param seasons
      */
-    private static void processSeasons(EpisodeList epList, NodeList nlSeasons) {
+    private static void processSeasons(EpisodeList epList, NodeList nlSeasons, Set<EpisodeField> fields, Set<Integer> seasons) {
         if (nlSeasons == null || nlSeasons.getLength() == 0) {
             return;
         }
@@ -117,8 +175,9 @@ public class TVRageParser {
         Node nEpisodeList;
         for (int loop = 0; loop < nlSeasons.getLength(); loop++) {
             nEpisodeList = nlSeasons.item(loop);
-            if (nEpisodeList.getNodeType() == Node.ELEMENT_NODE) {
-                processSeasonEpisodes((Element) nEpisodeList, epList);
+            if (nEpisodeList.getNodeType() == Node.ELEMENT_NODE
+                    && (seasons == null || seasons.contains(NumberUtils.toInt(((Element) nEpisodeList).getAttribute("no"), -1)))) {
+                processSeasonEpisodes((Element) nEpisodeList, epList, fields);
             }
         }
     }
@@ -128,46 +187,74 @@ public class TVRageParser {
      *
      * @param eEpisodeList
      * @param epList
-     * @return
+     * @param fields
      */
-    private static void processSeasonEpisodes(Element eEpisodeList, EpisodeList epList) {
+    private static void processSeasonEpisodes(Element eEpisodeList, EpisodeList epList, Set<EpisodeField> fields) {
         // Get the season number
         String season = eEpisodeList.getAttribute("no");
 
-        NodeList nlEpisode = eEpisodeList.getElementsByTagName(EPISODE);
-        if (nlEpisode == null || nlEpisode.getLength() == 0) {
-            return;
-        }
-
-        for (int eLoop = 0; eLoop < nlEpisode.getLength(); eLoop++) {
-            Node nEpisode = nlEpisode.item(eLoop);
-            if (nEpisode.getNodeType() == Node.ELEMENT_NODE) {
-                epList.addEpisode(parseEpisode((Element) nEpisode, season));
+        for (Element eEpisode = firstChildElement(eEpisodeList); eEpisode != null; eEpisode = nextSiblingElement(eEpisode)) {
+            if (EPISODE.equals(eEpisode.getTagName())) {
+                epList.addEpisode(parseEpisode(eEpisode, season, fields));
             }
         }
 
     }
 
+    /**
+     * Request and parse the URL
+     *
+     * @param searchUrl
+     * @return
+     * @throws TVRageException
+     * @deprecated Each TVRageApi has its own transport, use the TVRageApi methods or parse a Document
+     */
+    @Deprecated
     public static List<ShowInfo> getSearchShow(String searchUrl) throws TVRageException {
-        return processShowInfo(searchUrl, "show");
+        return getSearchShow(getDocFromUrl(searchUrl));
+    }
+
+    public static List<ShowInfo> getSearchShow(Document doc) {
+        return getSearchShow(doc, ShowField.ALL);
     }
 
+    public static List<ShowInfo> getSearchShow(Document doc, Set<ShowField> fields) {
+        return processShowInfo(doc, "show", fields);
+    }
+
+    /**
+     * Request and parse the URL
+     *
+     * @param searchUrl
+     * @return
+     * @throws TVRageException
+     * @deprecated Each TVRageApi has its own transport, use the TVRageApi methods or parse a Document
+     */
+    @Deprecated
     public static List<ShowInfo> getShowInfo(String searchUrl) throws TVRageException {
-        return processShowInfo(searchUrl, "Showinfo");
+        return getShowInfo(getDocFromUrl(searchUrl));
+    }
+
+    public static List<ShowInfo> getShowInfo(Document doc) {
+        return getShowInfo(doc, ShowField.ALL);
+    }
+
+    public static List<ShowInfo> getShowInfo(Document doc, Set<ShowField> fields) {
+        return processShowInfo(doc, "Showinfo", fields);
     }
 
     /**
      * Get a list of the ShowInfo from the specified tag
      *
-     * @param searchUrl
+     * @param doc
      * @param tagName
+     * @param fields
      * @return
      */
-    private static List<ShowInfo> processShowInfo(String searchUrl, String tagName) throws TVRageException {
+    private static List<ShowInfo> processShowInfo(Document doc, String tagName, Set<ShowField> fields) {
         List<ShowInfo> showList = new ArrayList<>();
         ShowInfo showInfo;
 
-        Document doc = getDocFromUrl(searchUrl);
         NodeList nlShowInfo = doc.getElementsByTagName(tagName);
 
         if (nlShowInfo == null || nlShowInfo.getLength() == 0) {
@@ -178,7 +265,7 @@ public class TVRageParser {
             Node nShowInfo = nlShowInfo.item(loop);
             if (nShowInfo.getNodeType() == Node.ELEMENT_NODE) {
                 Element eShowInfo = (Element) nShowInfo;
-                showInfo = parseNextShowInfo(eShowInfo);
+                showInfo = parseNextShowInfo(eShowInfo, fields);
                 showList.add(showInfo);
             }
         }
@@ -191,25 +278,53 @@ public class TVRageParser {
      *
      * @param eEpisode
      * @param season
+     * @param fields
      * @return
      */
-    private static Episode parseEpisode(Element eEpisode, String season) {
+    private static Episode parseEpisode(Element eEpisode, String season, Set<EpisodeField> fields) {
         Episode episode = new Episode();
         EpisodeNumber en = new EpisodeNumber();
-
         en.setSeason(season);
-        en.setEpisode(DOMHelper.getValueFromElement(eEpisode, "seasonnum"));
-        en.setAbsolute(DOMHelper.getValueFromElement(eEpisode, "epnum"));
-        episode.setEpisodeNumber(en);
 
-        episode.setProductionId(DOMHelper.getValueFromElement(eEpisode, "prodnum"));
-        episode.setAirDate(DOMHelper.getValueFromElement(eEpisode, AIRDATE));
-        episode.setLink(DOMHelper.getValueFromElement(eEpisode, "link"));
-        episode.setTitle(DOMHelper.getValueFromElement(eEpisode, TITLE));
-        episode.setSummary(DOMHelper.getValueFromElement(eEpisode, SUMMARY));
-        episode.setRating(DOMHelper.getValueFromElement(eEpisode, "rating"));
-        episode.setScreenCap(DOMHelper.getValueFromElement(eEpisode, "screencap"));
+        for (Element eChild = firstChildElement(eEpisode); eChild != null; eChild = nextSiblingElement(eChild)) {
+            if (FieldElements.skipEpisode(eChild.getTagName(), fields)) {
+                continue;
+            }
 
+            switch (eChild.getTagName()) {
+                case "seasonnum":
+                    en.setEpisode(DOMHelper.getValue(eChild));
+                    break;
+                case "epnum":
+                    en.setAbsolute(DOMHelper.getValue(eChild));
+                    break;
+                case "prodnum":
+                    episode.setProductionId(DOMHelper.getValue(eChild));
+                    break;
+                case AIRDATE:
+                    episode.setAirDate(DOMHelper.getValue(eChild));
+                    break;
+                case "link":
+                    episode.setLink(DOMHelper.getValue(eChild));
+                    break;
+                case TITLE:
+                    episode.setTitle(DOMHelper.getValue(eChild));
+                    break;
+                case SUMMARY:
+                    episode.setSummary(DOMHelper.getValue(eChild));
+                    break;
+                case "rating":
+                    episode.setRating(DOMHelper.getValue(eChild));
+                    break;
+                case "screencap":
+                    episode.setScreenCap(DOMHelper.getValue(eChild));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        episode.setEpisodeNumber(en);
         return episode;
     }
 
@@ -217,24 +332,43 @@ public class TVRageParser {
      * Parse the episode info node into an Episode object
      *
      * @param eEpisodeInfo
+     * @param fields
      * @return
      */
-    private static Episode parseEpisodeInfo(Element eEpisodeInfo) {
+    private static Episode parseEpisodeInfo(Element eEpisodeInfo, Set<EpisodeField> fields) {
         Episode episode = new Episode();
 
-        episode.setTitle(DOMHelper.getValueFromElement(eEpisodeInfo, TITLE));
-        episode.setAirDate(DOMHelper.getValueFromElement(eEpisodeInfo, AIRDATE));
-        episode.setLink(DOMHelper.getValueFromElement(eEpisodeInfo, "url"));
-        episode.setSummary(DOMHelper.getValueFromElement(eEpisodeInfo, SUMMARY));
-
-        // Process the season & episode field
-        Pattern pattern = Pattern.compile("(\\d*)[x](\\d*)");
-        Matcher matcher = pattern.matcher(DOMHelper.getValueFromElement(eEpisodeInfo, "number"));
-        if (matcher.find()) {
-            EpisodeNumber en = new EpisodeNumber();
-            en.setSeason(matcher.group(MATCH_SEASON));
-            en.setEpisode(matcher.group(MATCH_EPISODE));
-            episode.setEpisodeNumber(en);
+        for (Element eChild = firstChildElement(eEpisodeInfo); eChild != null; eChild = nextSiblingElement(eChild)) {
+            if (FieldElements.skipEpisode(eChild.getTagName(), fields)) {
+                continue;
+            }
+
+            switch (eChild.getTagName()) {
+                case TITLE:
+                    episode.setTitle(DOMHelper.getValue(eChild));
+                    break;
+                case AIRDATE:
+                    episode.setAirDate(DOMHelper.getValue(eChild));
+                    break;
+                case "url":
+                    episode.setLink(DOMHelper.getValue(eChild));
+                    break;
+                case SUMMARY:
+                    episode.setSummary(DOMHelper.getValue(eChild));
+                    break;
+                case "number":
+                    // Process the season & episode field
+                    Matcher matcher = EPISODE_NUMBER.matcher(DOMHelper.getValue(eChild));
+                    if (matcher.find()) {
+                        EpisodeNumber en = new EpisodeNumber();
+                        en.setSeason(matcher.group(MATCH_SEASON));
+                        en.setEpisode(matcher.group(MATCH_EPISODE));
+                        episode.setEpisodeNumber(en);
+                    }
+                    break;
+                default:
+                    break;
+            }
         }
 
         return episode;
@@ -244,77 +378,96 @@ public class TVRageParser {
      * Parse the show info element into a ShowInfo object
      *
      * @param eShowInfo
+     * @param fields
      * @return
      */
-    private static ShowInfo parseNextShowInfo(Element eShowInfo) {
+    private static ShowInfo parseNextShowInfo(Element eShowInfo, Set<ShowField> fields) {
         ShowInfo showInfo = new ShowInfo();
-        String text;
-
-        // ShowID
-        showInfo.setShowID(DOMHelper.getValueFromElement(eShowInfo, "showid"));
-
-        // ShowName
-        text = DOMHelper.getValueFromElement(eShowInfo, "showname");
-        if (!TVRageApi.isValidString(text)) {
-            text = DOMHelper.getValueFromElement(eShowInfo, "name");
-        }
-        showInfo.setShowName(text);
-
-        // ShowLink
-        text = DOMHelper.getValueFromElement(eShowInfo, "showlink");
-        if (!TVRageApi.isValidString(text)) {
-            text = DOMHelper.getValueFromElement(eShowInfo, "link");
-        }
-        showInfo.setShowLink(text);
+        // Fields which have an alternative name, the first is preferred
+        String showName = null;
+        String altName = null;
+        String showLink = null;
+        String altLink = null;
+        String country = null;
+        String altCountry = null;
+
+        for (Element eChild = firstChildElement(eShowInfo); eChild != null; eChild = nextSiblingElement(eChild)) {
+            if (FieldElements.skipShow(eChild.getTagName(), fields)) {
+                continue;
+            }
 
-        // Country
-        text = DOMHelper.getValueFromElement(eShowInfo, COUNTRY);
-        if (!TVRageApi.isValidString(text)) {
-            text = DOMHelper.getValueFromElement(eShowInfo, "origin_country");
+            switch (eChild.getTagName()) {
+                case "showid":
+                    showInfo.setShowID(DOMHelper.getValue(eChild));
+                    break;
+                case "showname":
+                    showName = DOMHelper.getValue(eChild);
+                    break;
+                case "name":
+                    altName = DOMHelper.getValue(eChild);
+                    break;
+                case "showlink":
+                    showLink = DOMHelper.getValue(eChild);
+                    break;
+                case "link":
+                    altLink = DOMHelper.getValue(eChild);
+                    break;
+                case COUNTRY:
+                    country = DOMHelper.getValue(eChild);
+                    break;
+                case "origin_country":
+                    altCountry = DOMHelper.getValue(eChild);
+                    break;
+                case "started":
+                    showInfo.setStarted(DOMHelper.getValue(eChild));
+                    break;
+                case "startdate":
+                    showInfo.setStartDate(DOMHelper.getValue(eChild));
+                    break;
+                case "ended":
+                    showInfo.setEnded(DOMHelper.getValue(eChild));
+                    break;
+                case "seasons":
+                    showInfo.setTotalSeasons(DOMHelper.getValue(eChild));
+                    break;
+                case "status":
+                    showInfo.setStatus(ShowValues.STATUS.get(DOMHelper.getValue(eChild)));
+                    break;
+                case "classification":
+                    showInfo.setClassification(ShowValues.CLASSIFICATION.get(DOMHelper.getValue(eChild)));
+                    break;
+                case SUMMARY:
+                    showInfo.setSummary(DOMHelper.getValue(eChild));
+                    break;
+                case "runtime":
+                    showInfo.setRuntime(DOMHelper.getValue(eChild));
+                    break;
+                case "airtime":
+                    showInfo.setAirTime(DOMHelper.getValue(eChild));
+                    break;
+                case "airday":
+                    showInfo.setAirDay(ShowValues.AIR_DAY.get(DOMHelper.getValue(eChild)));
+                    break;
+                case "timezone":
+                    showInfo.setTimezone(ShowValues.TIMEZONE.get(DOMHelper.getValue(eChild)));
+                    break;
+                case NETWORK:
+                    processNetwork(showInfo, eChild);
+                    break;
+                case "akas":
+                    processAka(showInfo, eChild);
+                    break;
+                case "genres":
+                    processGenre(showInfo, eChild);
+                    break;
+                default:
+                    break;
+            }
         }
-        showInfo.setCountry(text);
-
-        // Started
-        showInfo.setStarted(DOMHelper.getValueFromElement(eShowInfo, "started"));
-
-        // StartDate
-        showInfo.setStartDate(DOMHelper.getValueFromElement(eShowInfo, "startdate"));
-
-        // Ended
-        showInfo.setEnded(DOMHelper.getValueFromElement(eShowInfo, "ended"));
-
-        // Seasons
-        showInfo.setTotalSeasons(DOMHelper.getValueFromElement(eShowInfo, "seasons"));
-
-        // Status
-        showInfo.setStatus(DOMHelper.getValueFromElement(eShowInfo, "status"));
-
-        // Classification
-        showInfo.setClassification(DOMHelper.getValueFromElement(eShowInfo, "classification"));
-
-        // Summary
-        showInfo.setSummary(DOMHelper.getValueFromElement(eShowInfo, SUMMARY));
-
-        // Runtime
-        showInfo.setRuntime(DOMHelper.getValueFromElement(eShowInfo, "runtime"));
 
-        // Air Time
-        showInfo.setAirTime(DOMHelper.getValueFromElement(eShowInfo, "airtime"));
-
-        // Air Day
-        showInfo.setAirDay(DOMHelper.getValueFromElement(eShowInfo, "airday"));
-
-        // Time Zone
-        showInfo.setTimezone(DOMHelper.getValueFromElement(eShowInfo, "timezone"));
-
-        // Network
-        processNetwork(showInfo, eShowInfo);
-
-        // AKAs
-        processAka(showInfo, eShowInfo);
-
-        // Genres
-        processGenre(showInfo, eShowInfo);
+        showInfo.setShowName(TVRageApi.isValidString(showName) ? showName : altName);
+        showInfo.setShowLink(TVRageApi.isValidString(showLink) ? showLink : altLink);
+        showInfo.setCountry(ShowValues.COUNTRY.get(TVRageApi.isValidString(country) ? country : altCountry));
 
         return showInfo;
     }
@@ -323,36 +476,26 @@ public class TVRageParser {
      * Process network information
      *
      * @param showInfo
-     * @param eShowInfo
+     * @param eNetwork
      */
-    private static void processNetwork(ShowInfo showInfo, Element eShowInfo) {
-        NodeList nlNetwork = eShowInfo.getElementsByTagName("network");
-        for (int nodeLoop = 0; nodeLoop < nlNetwork.getLength(); nodeLoop++) {
-            Node nShowInfo = nlNetwork.item(nodeLoop);
-            if (nShowInfo.getNodeType() == Node.ELEMENT_NODE) {
-                Element eNetwork = (Element) nShowInfo;
-                CountryDetail newNetwork = new CountryDetail();
-                newNetwork.setCountry(eNetwork.getAttribute(COUNTRY));
-                newNetwork.setDetail(eNetwork.getTextContent());
-                showInfo.addNetwork(newNetwork);
-            }
-        }
+    private static void processNetwork(ShowInfo showInfo, Element eNetwork) {
+        CountryDetail newNetwork = new CountryDetail();
+        newNetwork.setCountry(ShowValues.COUNTRY.get(eNetwork.getAttribute(COUNTRY)));
+        newNetwork.setDetail(ShowValues.NETWORK.get(eNetwork.getTextContent()));
+        showInfo.addNetwork(newNetwork);
     }
 
     /**
      * Process AKA information
      *
      * @param showInfo
-     * @param eShowInfo
+     * @param eAkas
      */
-    private static void processAka(ShowInfo showInfo, Element eShowInfo) {
-        NodeList nlAkas = eShowInfo.getElementsByTagName("aka");
-        for (int loop = 0; loop < nlAkas.getLength(); loop++) {
-            Node nShowInfo = nlAkas.item(loop);
-            if (nShowInfo.getNodeType() == Node.ELEMENT_NODE) {
-                Element eAka = (Element) nShowInfo;
+    private static void processAka(ShowInfo showInfo, Element eAkas) {
+        for (Element eAka = firstChildElement(eAkas); eAka != null; eAka = nextSiblingElement(eAka)) {
+            if ("aka".equals(eAka.getTagName())) {
                 CountryDetail newAka = new CountryDetail();
-                newAka.setCountry(eAka.getAttribute(COUNTRY));
+                newAka.setCountry(ShowValues.COUNTRY.get(eAka.getAttribute(COUNTRY)));
                 newAka.setDetail(eAka.getTextContent());
                 showInfo.addAka(newAka);
             }
@@ -363,18 +506,41 @@ public class TVRageParser {
      * Process Genres
      *
      * @param showInfo
-     * @param eShowInfo
+     * @param eGenres
      */
-    private static void processGenre(ShowInfo showInfo, Element eShowInfo) {
-        NodeList nlGenres = eShowInfo.getElementsByTagName("genre");
-        for (int loop = 0; loop < nlGenres.getLength(); loop++) {
-            Node nGenre = nlGenres.item(loop);
-            if (nGenre.getNodeType() == Node.ELEMENT_NODE) {
-                Element eGenre = (Element) nGenre;
-                if (eGenre.getFirstChild() != null) {
-                    showInfo.addGenre(eGenre.getFirstChild().getNodeValue());
-                }
+    private static void processGenre(ShowInfo showInfo, Element eGenres) {
+        for (Element eGenre = firstChildElement(eGenres); eGenre != null; eGenre = nextSiblingElement(eGenre)) {
+            if ("genre".equals(eGenre.getTagName()) && eGenre.getFirstChild() != null) {
+                showInfo.addGenre(ShowValues.GENRE.get(eGenre.getFirstChild().getNodeValue()));
             }
         }
     }
+
+    /**
+     * Get the first child of the node that is an element
+     *
+     * @param node
+     * @return the element or null if there are none
+     */
+    private static Element firstChildElement(Node node) {
+        Node child = node.getFirstChild();
+        while (child != null && child.getNodeType() != Node.ELEMENT_NODE) {
+            child = child.getNextSibling();
+        }
+        return (Element) child;
+    }
+
+    /**
+     * Get the next sibling of the node that is an element
+     *
+     * @param node
+     * @return the element or null if there are none
+     */
+    private static Element nextSiblingElement(Node node) {
+        Node sibling = node.getNextSibling();
+        while (sibling != null && sibling.getNodeType() != Node.ELEMENT_NODE) {
+            sibling = sibling.getNextSibling();
+        }
+        return (Element) sibling;
+    }
 }
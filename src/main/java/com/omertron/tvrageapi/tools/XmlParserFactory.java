@@ -0,0 +1,162 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.tools;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.Map;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+
+/**
+ * Holds the configured XML parser factories so they are only looked up and created once.
+ *
+ * The factories are configured when this object is created and not changed afterwards. Document builders are not thread safe,
+ * so one is kept for each thread and reset before it is re-used.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class XmlParserFactory {
+
+    private static final Logger LOG = LoggerFactory.getLogger(XmlParserFactory.class);
+    private static final XmlParserFactory DEFAULT = new XmlParserFactoryBuilder().build();
+    private static final String FEATURE_LOAD_EXTERNAL_DTD = "http://apache.org/xml/features/nonvalidating/load-external-dtd";
+    private static final String FEATURE_EXTERNAL_GENERAL = "http://xml.org/sax/features/external-general-entities";
+    private static final String FEATURE_EXTERNAL_PARAMETER = "http://xml.org/sax/features/external-parameter-entities";
+    // Used in place of any external resource that would otherwise be loaded
+    private static final EntityResolver EMPTY_RESOLVER = (publicId, systemId) -> new InputSource(new StringReader(""));
+
+    private final DocumentBuilderFactory documentBuilderFactory;
+    private final XMLInputFactory xmlInputFactory;
+    private final boolean resolveExternal;
+    private final ThreadLocal<DocumentBuilder> documentBuilders = new ThreadLocal<>();
+
+    XmlParserFactory(XmlParserFactoryBuilder config) {
+        this.resolveExternal = config.isLoadExternalDtd() || config.isExternalEntities();
+        this.documentBuilderFactory = createDocumentBuilderFactory(config);
+        this.xmlInputFactory = createXmlInputFactory(config);
+    }
+
+    /**
+     * Get the shared factory with the default configuration
+     *
+     * @return
+     */
+    public static XmlParserFactory getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Get a document builder for use by the current thread.
+     *
+     * The builder must not be passed to other threads
+     *
+     * @return
+     * @throws ParserConfigurationException
+     */
+    public DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
+        DocumentBuilder builder = documentBuilders.get();
+        if (builder == null) {
+            synchronized (documentBuilderFactory) {
+                // The factory is not guaranteed to be thread safe
+                builder = documentBuilderFactory.newDocumentBuilder();
+            }
+            documentBuilders.set(builder);
+        } else {
+            builder.reset();
+        }
+
+        if (!resolveExternal) {
+            builder.setEntityResolver(EMPTY_RESOLVER);
+        }
+        return builder;
+    }
+
+    /**
+     * Create a stream reader for the content
+     *
+     * @param in
+     * @return
+     * @throws XMLStreamException
+     */
+    public XMLStreamReader createXMLStreamReader(InputStream in) throws XMLStreamException {
+        return xmlInputFactory.createXMLStreamReader(in);
+    }
+
+    private static DocumentBuilderFactory createDocumentBuilderFactory(XmlParserFactoryBuilder config) {
+        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        dbf.setNamespaceAware(config.isNamespaceAware());
+        dbf.setCoalescing(config.isCoalescing());
+        dbf.setValidating(false);
+        dbf.setXIncludeAware(false);
+
+        setFeature(dbf, XMLConstants.FEATURE_SECURE_PROCESSING, config.isSecureProcessing());
+        setFeature(dbf, FEATURE_LOAD_EXTERNAL_DTD, config.isLoadExternalDtd());
+        setFeature(dbf, FEATURE_EXTERNAL_GENERAL, config.isExternalEntities());
+        setFeature(dbf, FEATURE_EXTERNAL_PARAMETER, config.isExternalEntities());
+        for (Map.Entry<String, Boolean> feature : config.getDomFeatures().entrySet()) {
+            setFeature(dbf, feature.getKey(), feature.getValue());
+        }
+        return dbf;
+    }
+
+    private static XMLInputFactory createXmlInputFactory(XmlParserFactoryBuilder config) {
+        XMLInputFactory xif = XMLInputFactory.newInstance();
+        setProperty(xif, XMLInputFactory.IS_COALESCING, config.isCoalescing());
+        setProperty(xif, XMLInputFactory.IS_NAMESPACE_AWARE, config.isNamespaceAware());
+        // The internal subset is still processed, anything external is replaced by the resolver
+        setProperty(xif, XMLInputFactory.SUPPORT_DTD, Boolean.TRUE);
+        setProperty(xif, XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, config.isExternalEntities());
+        if (!config.isLoadExternalDtd() && !config.isExternalEntities()) {
+            xif.setXMLResolver((publicId, systemId, baseUri, namespace) -> new ByteArrayInputStream(new byte[0]));
+        }
+        for (Map.Entry<String, Object> property : config.getStaxProperties().entrySet()) {
+            setProperty(xif, property.getKey(), property.getValue());
+        }
+        return xif;
+    }
+
+    private static void setFeature(DocumentBuilderFactory dbf, String name, boolean value) {
+        try {
+            dbf.setFeature(name, value);
+        } catch (ParserConfigurationException ex) {
+            LOG.warn("DOM parser does not support feature '{}': {}", name, ex.getMessage());
+        }
+    }
+
+    private static void setProperty(XMLInputFactory xif, String name, Object value) {
+        try {
+            xif.setProperty(name, value);
+        } catch (IllegalArgumentException ex) {
+            LOG.warn("StAX parser does not support property '{}': {}", name, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.tools;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builder for the configuration of a XmlParserFactory.
+ *
+ * By default DTDs and external entities are not loaded, so parsing a response never causes any further I/O.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class XmlParserFactoryBuilder {
+
+    private boolean secureProcessing = true;
+    private boolean loadExternalDtd = false;
+    private boolean externalEntities = false;
+    private boolean coalescing = true;
+    private boolean namespaceAware = false;
+    private final Map<String, Boolean> domFeatures = new LinkedHashMap<>();
+    private final Map<String, Object> staxProperties = new LinkedHashMap<>();
+
+    /**
+     * Apply the processing limits of the JAXP secure processing feature
+     *
+     * @param secureProcessing
+     * @return
+     */
+    public XmlParserFactoryBuilder setSecureProcessing(boolean secureProcessing) {
+        this.secureProcessing = secureProcessing;
+        return this;
+    }
+
+    /**
+     * Load any external DTD referenced by the document
+     *
+     * @param loadExternalDtd
+     * @return
+     */
+    public XmlParserFactoryBuilder setLoadExternalDtd(boolean loadExternalDtd) {
+        this.loadExternalDtd = loadExternalDtd;
+        return this;
+    }
+
+    /**
+     * Resolve any external entities referenced by the document
+     *
+     * @param externalEntities
+     * @return
+     */
+    public XmlParserFactoryBuilder setExternalEntities(boolean externalEntities) {
+        this.externalEntities = externalEntities;
+        return this;
+    }
+
+    /**
+     * Join adjacent text and CDATA sections into a single value
+     *
+     * @param coalescing
+     * @return
+     */
+    public XmlParserFactoryBuilder setCoalescing(boolean coalescing) {
+        this.coalescing = coalescing;
+        return this;
+    }
+
+    public XmlParserFactoryBuilder setNamespaceAware(boolean namespaceAware) {
+        this.namespaceAware = namespaceAware;
+        return this;
+    }
+
+    /**
+     * Set an implementation specific feature on the DocumentBuilderFactory
+     *
+     * @param name
+     * @param value
+     * @return
+     */
+    public XmlParserFactoryBuilder setDomFeature(String name, boolean value) {
+        domFeatures.put(name, value);
+        return this;
+    }
+
+    /**
+     * Set an implementation specific property on the XMLInputFactory
+     *
+     * @param name
+     * @param value
+     * @return
+     */
+    public XmlParserFactoryBuilder setStaxProperty(String name, Object value) {
+        staxProperties.put(name, value);
+        return this;
+    }
+
+    public boolean isSecureProcessing() {
+        return secureProcessing;
+    }
+
+    public boolean isLoadExternalDtd() {
+        return loadExternalDtd;
+    }
+
+    public boolean isExternalEntities() {
+        return externalEntities;
+    }
+
+    public boolean isCoalescing() {
+        return coalescing;
+    }
+
+    public boolean isNamespaceAware() {
+        return namespaceAware;
+    }
+
+    Map<String, Boolean> getDomFeatures() {
+        return domFeatures;
+    }
+
+    Map<String, Object> getStaxProperties() {
+        return staxProperties;
+    }
+
+    /**
+     * Create the factory with the current configuration
+     *
+     * @return
+     */
+    public XmlParserFactory build() {
+        return new XmlParserFactory(this);
+    }
+}
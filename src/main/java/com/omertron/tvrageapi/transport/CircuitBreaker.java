@@ -0,0 +1,233 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import com.omertron.tvrageapi.TVRageException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Stops requests being sent to an endpoint that is failing, so callers fail fast rather than waiting on a server that is not
+ * responding.
+ *
+ * After a number of consecutive connection errors or server errors the circuit for the endpoint opens and requests are
+ * rejected. Once the open duration has passed a single trial request is allowed through, the circuit closes again if it
+ * succeeds or re-opens if it fails. Requests rejected with 429 (too many requests) are not counted as failures.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class CircuitBreaker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CircuitBreaker.class);
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+    // Results of Circuit.tryAcquire when the request is allowed
+    private static final long ALLOWED = -1;
+    private static final long TRIAL = -2;
+
+    /**
+     * The state of the circuit for an endpoint
+     */
+    public enum State {
+        /**
+         * Requests are allowed
+         */
+        CLOSED,
+        /**
+         * Requests are rejected
+         */
+        OPEN,
+        /**
+         * A trial request is allowed to test the endpoint
+         */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDuration;
+    private final LongSupplier ticker;
+    private final ConcurrentMap<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    CircuitBreaker(CircuitBreakerBuilder config) {
+        this.failureThreshold = config.getFailureThreshold();
+        this.openDuration = config.getOpenDuration(TimeUnit.NANOSECONDS);
+        this.ticker = config.getTicker();
+    }
+
+    /**
+     * Check that a request can be sent to the endpoint.
+     *
+     * Every successful call must be followed by a call to {@link #onSuccess(String)},
+     * {@link #onFailure(String, TVRageException, boolean)} or {@link #release(String, boolean)}, passing on whether the request
+     * is the trial.
+     *
+     * @param endpoint
+     * @param url the URL about to be requested, used for error reporting
+     * @return true if the request is the trial request of a half open circuit
+     * @throws TVRageException if the circuit is open, with the time until it may close as the retry delay
+     */
+    public boolean acquire(String endpoint, String url) throws TVRageException {
+        long remaining = circuit(endpoint).tryAcquire(ticker.getAsLong());
+        if (remaining >= 0) {
+            throw new TVRageException(ApiExceptionType.HTTP_503_ERROR, "Circuit breaker is open for " + endpoint, 0, url,
+                    Math.max(1L, TimeUnit.NANOSECONDS.toMillis(remaining)));
+        }
+        return remaining == TRIAL;
+    }
+
+    /**
+     * Record a response from the endpoint
+     *
+     * @param endpoint
+     */
+    public void onSuccess(String endpoint) {
+        circuit(endpoint).onSuccess();
+    }
+
+    /**
+     * Record a failed request to the endpoint that was not the trial request
+     *
+     * @param endpoint
+     * @param ex
+     */
+    public void onFailure(String endpoint, TVRageException ex) {
+        onFailure(endpoint, ex, false);
+    }
+
+    /**
+     * Record a failed request to the endpoint.
+     *
+     * Only connection errors and server errors count as failures, any other error shows that the server is responding.
+     *
+     * @param endpoint
+     * @param ex
+     * @param trial the value returned by {@link #acquire(String, String)} for the request
+     */
+    public void onFailure(String endpoint, TVRageException ex, boolean trial) {
+        if (ex.getResponseCode() == SC_TOO_MANY_REQUESTS) {
+            // The server is working, this client is just sending too much
+            release(endpoint, trial);
+        } else if (ex.getExceptionType() == ApiExceptionType.CONNECTION_ERROR || ex.getExceptionType() == ApiExceptionType.HTTP_503_ERROR) {
+            circuit(endpoint).onFailure(ticker.getAsLong(), endpoint, trial);
+        } else {
+            onSuccess(endpoint);
+        }
+    }
+
+    /**
+     * Release a request that was not sent, without recording a result.
+     *
+     * Only the holder of the trial request frees the trial, so another request can not let a second trial through
+     *
+     * @param endpoint
+     * @param trial the value returned by {@link #acquire(String, String)} for the request
+     */
+    public void release(String endpoint, boolean trial) {
+        if (trial) {
+            circuit(endpoint).release();
+        }
+    }
+
+    /**
+     * Get the current state of the circuit for the endpoint
+     *
+     * @param endpoint
+     * @return
+     */
+    public State getState(String endpoint) {
+        Circuit circuit = circuits.get(endpoint);
+        return circuit == null ? State.CLOSED : circuit.getState(ticker.getAsLong());
+    }
+
+    private Circuit circuit(String endpoint) {
+        Circuit circuit = circuits.get(endpoint);
+        if (circuit == null) {
+            circuit = circuits.computeIfAbsent(endpoint, k -> new Circuit());
+        }
+        return circuit;
+    }
+
+    private final class Circuit {
+
+        private int failures = 0;
+        private boolean open = false;
+        private long openUntil = 0;
+        private boolean trialInProgress = false;
+
+        /**
+         * @return ALLOWED or TRIAL if the request is allowed, otherwise the time until the circuit may close
+         */
+        synchronized long tryAcquire(long now) {
+            if (!open) {
+                return ALLOWED;
+            }
+
+            long remaining = openUntil - now;
+            if (remaining > 0) {
+                return remaining;
+            } else if (trialInProgress) {
+                // Wait for the trial to finish
+                return 0;
+            }
+
+            trialInProgress = true;
+            return TRIAL;
+        }
+
+        synchronized void onSuccess() {
+            if (open) {
+                LOG.info("Circuit closed after successful trial request");
+            }
+            failures = 0;
+            open = false;
+            trialInProgress = false;
+        }
+
+        synchronized void onFailure(long now, String endpoint, boolean trial) {
+            failures++;
+            if (trial || failures >= failureThreshold) {
+                if (!open) {
+                    LOG.warn("Circuit opened for {} after {} consecutive failures", endpoint, failures);
+                }
+                open = true;
+                openUntil = now + openDuration;
+                if (trial) {
+                    trialInProgress = false;
+                }
+            }
+        }
+
+        synchronized void release() {
+            trialInProgress = false;
+        }
+
+        synchronized State getState(long now) {
+            if (!open) {
+                return State.CLOSED;
+            }
+            return openUntil - now > 0 ? State.OPEN : State.HALF_OPEN;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Builder for a CircuitBreaker
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class CircuitBreakerBuilder {
+
+    private int failureThreshold = 5;
+    private long openDuration = TimeUnit.SECONDS.toNanos(30);
+    private LongSupplier ticker = System::nanoTime;
+
+    /**
+     * The number of consecutive failures that opens the circuit
+     *
+     * @param failureThreshold
+     * @return
+     */
+    public CircuitBreakerBuilder setFailureThreshold(int failureThreshold) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("Failure threshold must be positive");
+        }
+        this.failureThreshold = failureThreshold;
+        return this;
+    }
+
+    /**
+     * How long the circuit stays open before a trial request is allowed
+     *
+     * @param duration
+     * @param unit
+     * @return
+     */
+    public CircuitBreakerBuilder setOpenDuration(long duration, TimeUnit unit) {
+        this.openDuration = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * Source of the current time in nanoseconds, for testing
+     *
+     * @param ticker
+     * @return
+     */
+    CircuitBreakerBuilder setTicker(LongSupplier ticker) {
+        this.ticker = ticker;
+        return this;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public long getOpenDuration(TimeUnit unit) {
+        return unit.convert(openDuration, TimeUnit.NANOSECONDS);
+    }
+
+    LongSupplier getTicker() {
+        return ticker;
+    }
+
+    /**
+     * Create the circuit breaker with the current configuration
+     *
+     * @return
+     */
+    public CircuitBreaker build() {
+        return new CircuitBreaker(this);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import com.omertron.tvrageapi.TVRageException;
+import java.io.InputStream;
+
+/**
+ * Consumes the body of a successful response.
+ *
+ * The stream is only valid for the duration of the call and will be closed by the transport afterwards.
+ *
+ * @author Stuart.Boston
+ *
+ * @param <T> The type produced from the content
+ */
+@FunctionalInterface
+public interface ContentHandler<T> {
+
+    /**
+     * Process the response content
+     *
+     * @param content
+     * @return
+     * @throws TVRageException
+     */
+    T handle(InputStream content) throws TVRageException;
+}
@@ -0,0 +1,278 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends a second copy of a slow request, using whichever response arrives first.
+ *
+ * The response times of each endpoint are kept in a sliding window. If a request has not completed by the configured
+ * percentile of the recent times, an identical request is sent. Every request earns a fraction of a hedge, so no more than
+ * the maximum rate of requests are ever sent twice. Failures are not hedged, that is left to the retry policy.
+ *
+ * Once a copy succeeds, or the result is cancelled, the other copy is cancelled. So the transport can abort it and its
+ * response is not parsed a second time.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class HedgingPolicy {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HedgingPolicy.class);
+    // The hedge budget is held in thousandths of a request
+    private static final long HEDGE_COST = 1000;
+    private static final long MAX_BUDGET = 10 * HEDGE_COST;
+
+    private final double percentile;
+    private final long minDelay;
+    private final long credit;
+    private final int windowSize;
+    private final int minSamples;
+    private final ConcurrentMap<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+    private final AtomicLong budget = new AtomicLong();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    HedgingPolicy(HedgingPolicyBuilder config) {
+        this.percentile = config.getPercentile();
+        this.minDelay = config.getMinDelay(TimeUnit.NANOSECONDS);
+        this.credit = Math.round(config.getMaxHedgeRate() * HEDGE_COST);
+        this.windowSize = config.getWindowSize();
+        this.minSamples = config.getMinSamples();
+    }
+
+    /**
+     * Start the request, sending a second copy if it is slow
+     *
+     * @param <T>
+     * @param endpoint the endpoint being requested, response times are tracked separately for each
+     * @param request starts a copy of the request
+     * @return the first successful response, or the first failure if every copy fails
+     */
+    public <T> CompletableFuture<T> execute(String endpoint, Supplier<CompletableFuture<T>> request) {
+        return execute(endpoint, request, () -> true);
+    }
+
+    /**
+     * Start the request, sending a second copy if it is slow and the permit allows it.
+     *
+     * The permit is checked just before the copy is sent, so a rate limiter can count the copy as a request of its own. The
+     * copy is not sent, and its share of the budget is kept, if the permit is refused
+     *
+     * @param <T>
+     * @param endpoint the endpoint being requested, response times are tracked separately for each
+     * @param request starts a copy of the request
+     * @param permit whether the second copy may be sent now
+     * @return the first successful response, or the first failure if every copy fails
+     */
+    public <T> CompletableFuture<T> execute(String endpoint, Supplier<CompletableFuture<T>> request, BooleanSupplier permit) {
+        final LatencyWindow window = window(endpoint);
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final AtomicInteger pending = new AtomicInteger(1);
+        final AtomicReference<Throwable> firstError = new AtomicReference<>();
+        final AtomicBoolean answered = new AtomicBoolean();
+        final Queue<CompletableFuture<T>> attempts = new ConcurrentLinkedQueue<>();
+        addCredit();
+        result.whenComplete((value, error) -> cancelAll(attempts));
+
+        send(request, window, result, pending, firstError, answered, attempts, false);
+
+        long delay = window.getThreshold();
+        if (delay >= 0 && !result.isDone()) {
+            Scheduler.delay(delay, TimeUnit.NANOSECONDS).thenRun(() -> {
+                if (!result.isDone() && takeHedge()) {
+                    if (!permit.getAsBoolean()) {
+                        LOG.trace("No permit to hedge the request for {}", endpoint);
+                        budget.addAndGet(HEDGE_COST);
+                        return;
+                    }
+                    LOG.trace("No response for {} after {}ms, sending hedged request", endpoint, TimeUnit.NANOSECONDS.toMillis(delay));
+                    hedges.increment();
+                    pending.incrementAndGet();
+                    send(request, window, result, pending, firstError, answered, attempts, true);
+                }
+            });
+        }
+        return result;
+    }
+
+    private <T> void send(Supplier<CompletableFuture<T>> request, LatencyWindow window, CompletableFuture<T> result,
+            AtomicInteger pending, AtomicReference<Throwable> firstError, AtomicBoolean answered, Queue<CompletableFuture<T>> attempts,
+            boolean hedge) {
+        final long start = System.nanoTime();
+        CompletableFuture<T> attempt;
+        try {
+            attempt = request.get();
+        } catch (RuntimeException ex) {
+            attempt = new CompletableFuture<>();
+            attempt.completeExceptionally(ex);
+        }
+        attempts.add(attempt);
+        if (result.isDone()) {
+            // The other copy finished while this one was being sent
+            cancelAll(attempts);
+        }
+
+        attempt.whenComplete((value, error) -> {
+            if (error == null) {
+                window.record(System.nanoTime() - start);
+                // Count the winner before completing, so the count is current when the caller sees the result
+                if (answered.compareAndSet(false, true)) {
+                    if (hedge) {
+                        hedgeWins.increment();
+                    }
+                    result.complete(value);
+                }
+            } else {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                firstError.compareAndSet(null, cause);
+                if (pending.decrementAndGet() == 0) {
+                    result.completeExceptionally(firstError.get());
+                }
+            }
+        });
+    }
+
+    /**
+     * Cancel the copies that are still running, once the result is known
+     *
+     * @param <T>
+     * @param attempts
+     */
+    private static <T> void cancelAll(Queue<CompletableFuture<T>> attempts) {
+        for (CompletableFuture<T> attempt : attempts) {
+            if (!attempt.isDone()) {
+                attempt.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * The delay before a request to the endpoint is hedged
+     *
+     * @param endpoint
+     * @param unit
+     * @return the delay, or -1 if there are not yet enough response times
+     */
+    public long getDelay(String endpoint, TimeUnit unit) {
+        LatencyWindow window = windows.get(endpoint);
+        long delay = window == null ? -1 : window.getThreshold();
+        return delay < 0 ? -1 : unit.convert(delay, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The number of hedged requests sent
+     *
+     * @return
+     */
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    /**
+     * The number of hedged requests that responded before the original
+     *
+     * @return
+     */
+    public long getHedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    private void addCredit() {
+        long current = budget.get();
+        while (current < MAX_BUDGET && !budget.compareAndSet(current, Math.min(MAX_BUDGET, current + credit))) {
+            current = budget.get();
+        }
+    }
+
+    private boolean takeHedge() {
+        long current = budget.get();
+        while (current >= HEDGE_COST) {
+            if (budget.compareAndSet(current, current - HEDGE_COST)) {
+                return true;
+            }
+            current = budget.get();
+        }
+        return false;
+    }
+
+    private LatencyWindow window(String endpoint) {
+        LatencyWindow window = windows.get(endpoint);
+        if (window == null) {
+            window = windows.computeIfAbsent(endpoint, k -> new LatencyWindow());
+        }
+        return window;
+    }
+
+    /**
+     * Ring buffer of the recent response times.
+     *
+     * The percentile is recalculated after every tenth of the held times has been replaced, rather than for every request
+     */
+    private final class LatencyWindow {
+
+        private final AtomicLongArray samples = new AtomicLongArray(windowSize);
+        private final AtomicLong count = new AtomicLong();
+        private volatile long threshold = -1;
+
+        void record(long latency) {
+            long index = count.getAndIncrement();
+            samples.set((int) (index % windowSize), latency);
+
+            long recorded = index + 1;
+            int size = (int) Math.min(recorded, windowSize);
+            if (recorded >= minSamples && (recorded == minSamples || recorded % Math.max(1, size / 10) == 0)) {
+                update(size);
+            }
+        }
+
+        private void update(int size) {
+            long[] sorted = new long[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = samples.get(i);
+            }
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile * size) - 1;
+            threshold = Math.max(minDelay, sorted[Math.max(0, Math.min(size - 1, rank))]);
+        }
+
+        long getThreshold() {
+            return threshold;
+        }
+    }
+}
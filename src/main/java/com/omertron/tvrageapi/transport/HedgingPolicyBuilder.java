@@ -0,0 +1,134 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builder for a HedgingPolicy
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class HedgingPolicyBuilder {
+
+    private double percentile = 0.95;
+    private long minDelay = TimeUnit.MILLISECONDS.toNanos(50);
+    private double maxHedgeRate = 0.05;
+    private int windowSize = 1000;
+    private int minSamples = 20;
+
+    /**
+     * The percentile of the recent response times after which a second request is sent
+     *
+     * @param percentile between 0 and 1, for example 0.95
+     * @return
+     */
+    public HedgingPolicyBuilder setPercentile(double percentile) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 1");
+        }
+        this.percentile = percentile;
+        return this;
+    }
+
+    /**
+     * The shortest time to wait before sending a second request
+     *
+     * @param duration
+     * @param unit
+     * @return
+     */
+    public HedgingPolicyBuilder setMinDelay(long duration, TimeUnit unit) {
+        this.minDelay = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * The largest fraction of requests that may be sent twice
+     *
+     * @param maxHedgeRate between 0 and 1, for example 0.05 for 5%
+     * @return
+     */
+    public HedgingPolicyBuilder setMaxHedgeRate(double maxHedgeRate) {
+        if (maxHedgeRate < 0 || maxHedgeRate > 1) {
+            throw new IllegalArgumentException("Hedge rate must be between 0 and 1");
+        }
+        this.maxHedgeRate = maxHedgeRate;
+        return this;
+    }
+
+    /**
+     * The number of recent response times kept for each endpoint
+     *
+     * @param windowSize
+     * @return
+     */
+    public HedgingPolicyBuilder setWindowSize(int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive");
+        }
+        this.windowSize = windowSize;
+        return this;
+    }
+
+    /**
+     * The number of response times needed for an endpoint before any requests are hedged
+     *
+     * @param minSamples
+     * @return
+     */
+    public HedgingPolicyBuilder setMinSamples(int minSamples) {
+        if (minSamples <= 0) {
+            throw new IllegalArgumentException("Minimum samples must be positive");
+        }
+        this.minSamples = minSamples;
+        return this;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public long getMinDelay(TimeUnit unit) {
+        return unit.convert(minDelay, TimeUnit.NANOSECONDS);
+    }
+
+    public double getMaxHedgeRate() {
+        return maxHedgeRate;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    /**
+     * Create the policy with the current configuration
+     *
+     * @return
+     */
+    public HedgingPolicy build() {
+        return new HedgingPolicy(this);
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import com.omertron.tvrageapi.TVRageException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Transport using the java.net.http client, with HTTP/2 where the server supports it.
+ *
+ * With HTTP/2 concurrent requests are multiplexed over a single connection to each host, rather than needing a connection
+ * each. The asynchronous requests complete as soon as the headers arrive, the parser then reads the body on the executor as
+ * it is received, rather than after it has all been buffered.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class Http2Transport implements Transport {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Http2Transport.class);
+    private static final String RETRY_AFTER = "Retry-After";
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+
+    /**
+     * Create a transport using an existing client
+     *
+     * @param httpClient
+     */
+    public Http2Transport(HttpClient httpClient) {
+        this(httpClient, null);
+    }
+
+    Http2Transport(HttpClient httpClient, Duration requestTimeout) {
+        this.httpClient = httpClient;
+        this.requestTimeout = requestTimeout;
+    }
+
+    @Override
+    public <T> T requestContent(String url, ContentHandler<T> handler) throws TVRageException {
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(createRequest(url), Http2Transport::subscriber);
+        } catch (IOException ex) {
+            throw new TVRageException(ApiExceptionType.CONNECTION_ERROR, ex.getMessage(), url, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new TVRageException(ApiExceptionType.CONNECTION_ERROR, "Interrupted waiting for response", url, ex);
+        }
+        return handleResponse(response, handler, url);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> requestContentAsync(final String url, final ContentHandler<T> handler, Executor executor) {
+        final HttpRequest request;
+        try {
+            request = createRequest(url);
+        } catch (TVRageException ex) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(ex);
+            return failed;
+        }
+
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final CompletableFuture<HttpResponse<InputStream>> sent = httpClient.sendAsync(request, Http2Transport::subscriber);
+        // Cancelling the result abandons the exchange
+        future.whenComplete((value, error) -> {
+            if (future.isCancelled()) {
+                sent.cancel(true);
+            }
+        });
+
+        sent.whenCompleteAsync((response, error) -> {
+            if (future.isDone()) {
+                // Cancelled, so the response is not read
+                closeQuietly(response);
+            } else if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                future.completeExceptionally(new TVRageException(ApiExceptionType.CONNECTION_ERROR, cause.getMessage(), url, cause));
+            } else {
+                try {
+                    future.complete(handleResponse(response, handler, url));
+                } catch (TVRageException | RuntimeException ex) {
+                    future.completeExceptionally(ex);
+                }
+            }
+        }, executor).exceptionally(ex -> {
+            // Most likely the executor rejecting the task
+            future.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+            return null;
+        });
+        return future;
+    }
+
+    private static void closeQuietly(HttpResponse<InputStream> response) {
+        if (response == null || response.body() == null) {
+            return;
+        }
+        try {
+            response.body().close();
+        } catch (IOException ex) {
+            LOG.trace("Failed to close the response: {}", ex.getMessage());
+        }
+    }
+
+    private HttpRequest createRequest(String url) throws TVRageException {
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                    .header("accept", "application/xml")
+                    .GET();
+            if (requestTimeout != null) {
+                builder.timeout(requestTimeout);
+            }
+            return builder.build();
+        } catch (IllegalArgumentException ex) {
+            throw new TVRageException(ApiExceptionType.INVALID_URL, ex.getMessage(), url, ex);
+        }
+    }
+
+    /**
+     * Stream the body of successful responses, the body of any others is discarded
+     *
+     * @param info
+     * @return
+     */
+    private static HttpResponse.BodySubscriber<InputStream> subscriber(HttpResponse.ResponseInfo info) {
+        if (info.statusCode() < 300) {
+            return HttpResponse.BodySubscribers.ofInputStream();
+        }
+        return HttpResponse.BodySubscribers.replacing(null);
+    }
+
+    /**
+     * Check the status of the response and pass the content to the handler
+     *
+     * @param <T>
+     * @param response
+     * @param handler
+     * @param url
+     * @return
+     * @throws TVRageException
+     */
+    private static <T> T handleResponse(HttpResponse<InputStream> response, ContentHandler<T> handler, String url) throws TVRageException {
+        HttpHeaders headers = response.headers();
+        TVRageException error = HttpTransport.getStatusError(response.statusCode(), "HTTP " + response.statusCode(),
+                headers.firstValue(RETRY_AFTER).orElse(null), url);
+        if (error != null) {
+            throw error;
+        }
+
+        LOG.trace("Received {} response from {}", response.version(), url);
+        try (InputStream content = response.body()) {
+            if (content == null) {
+                throw new TVRageException(ApiExceptionType.MAPPING_FAILED, "No content returned", url);
+            }
+            return handler.handle(content);
+        } catch (IOException ex) {
+            throw new TVRageException(ApiExceptionType.CONNECTION_ERROR, ex.getMessage(), url, ex);
+        }
+    }
+
+    /**
+     * The client does not hold any resources that need to be released
+     */
+    @Override
+    public void close() {
+        // Connections are closed by the client once they are idle
+    }
+}
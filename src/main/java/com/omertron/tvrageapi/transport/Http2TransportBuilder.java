@@ -0,0 +1,122 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Builder for a Http2Transport.
+ *
+ * HTTP/2 is used where the server supports it, otherwise the client falls back to HTTP/1.1.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class Http2TransportBuilder {
+
+    private HttpClient.Version version = HttpClient.Version.HTTP_2;
+    private long connectTimeout = 25000;
+    private long requestTimeout = 90000;
+    private String proxyHost = null;
+    private int proxyPort = 0;
+    private Executor executor = null;
+
+    /**
+     * The preferred HTTP version
+     *
+     * @param version
+     * @return
+     */
+    public Http2TransportBuilder setVersion(HttpClient.Version version) {
+        this.version = version;
+        return this;
+    }
+
+    /**
+     * How long (in milliseconds) to wait for a connection to be established
+     *
+     * @param connectTimeout
+     * @return
+     */
+    public Http2TransportBuilder setConnectTimeout(long connectTimeout) {
+        this.connectTimeout = connectTimeout;
+        return this;
+    }
+
+    /**
+     * How long (in milliseconds) to wait for the response headers
+     *
+     * @param requestTimeout
+     * @return
+     */
+    public Http2TransportBuilder setRequestTimeout(long requestTimeout) {
+        this.requestTimeout = requestTimeout;
+        return this;
+    }
+
+    public Http2TransportBuilder setProxyHost(String proxyHost) {
+        this.proxyHost = proxyHost;
+        return this;
+    }
+
+    public Http2TransportBuilder setProxyPort(int proxyPort) {
+        this.proxyPort = proxyPort;
+        return this;
+    }
+
+    /**
+     * The executor used by the client for its own tasks.
+     *
+     * Defaults to the client's own pool. The executor is not shut down by the transport
+     *
+     * @param executor
+     * @return
+     */
+    public Http2TransportBuilder setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Create the transport
+     *
+     * @return
+     */
+    public Http2Transport build() {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(version)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(connectTimeout));
+
+        if (StringUtils.isNotBlank(proxyHost) && proxyPort > 0) {
+            builder.proxy(ProxySelector.of(new InetSocketAddress(proxyHost, proxyPort)));
+        }
+        if (executor != null) {
+            builder.executor(executor);
+        }
+
+        return new Http2Transport(builder.build(), Duration.ofMillis(requestTimeout));
+    }
+}
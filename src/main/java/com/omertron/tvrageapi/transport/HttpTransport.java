@@ -0,0 +1,343 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import com.omertron.tvrageapi.TVRageException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.StatusLine;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * HTTP transport used by a TVRageApi instance to retrieve content from the site.
+ *
+ * Each instance has its own clients, so separate instances do not share (or replace) each other's connections. The transport
+ * is thread safe and may be shared between several TVRageApi instances.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class HttpTransport implements Transport {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HttpTransport.class);
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+    // The size of the pool of a client passed in is not known, so assume the HttpClients default of two per route
+    private static final int DEFAULT_CLIENT_CONCURRENCY = 2;
+
+    private final HttpClient httpClient;
+    private CloseableHttpAsyncClient asyncClient;
+    private final boolean ownsHttpClient;
+    private boolean ownsAsyncClient;
+    private final int maxConcurrency;
+
+    /**
+     * Create a transport using an existing client.
+     *
+     * The client will not be closed by the transport. A default non-blocking client will be created if the asynchronous
+     * methods are used. The pool size of the client is not known, so the transport reports two concurrent requests.
+     *
+     * @param httpClient
+     */
+    public HttpTransport(HttpClient httpClient) {
+        this(httpClient, null, false, DEFAULT_CLIENT_CONCURRENCY);
+    }
+
+    /**
+     * Create a transport using existing clients.
+     *
+     * The clients will not be closed by the transport, but the asynchronous client will be started if it is not running. The
+     * pool size of the clients is not known, so the transport reports two concurrent requests.
+     *
+     * @param httpClient
+     * @param asyncClient
+     */
+    public HttpTransport(HttpClient httpClient, CloseableHttpAsyncClient asyncClient) {
+        this(httpClient, asyncClient, false, DEFAULT_CLIENT_CONCURRENCY);
+    }
+
+    HttpTransport(HttpClient httpClient, CloseableHttpAsyncClient asyncClient, boolean ownsClients, int maxConcurrency) {
+        this.httpClient = httpClient;
+        this.asyncClient = asyncClient;
+        this.ownsHttpClient = ownsClients;
+        this.ownsAsyncClient = ownsClients;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * The connections per route of the pool if it was created by the builder, otherwise two
+     *
+     * @return
+     */
+    @Override
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Request the URL and pass the response content stream directly to the handler.
+     *
+     * The status code is checked before any content is read, so the handler is only called for successful responses.
+     *
+     * @param <T>
+     * @param url
+     * @param handler
+     * @return the value produced by the handler
+     * @throws TVRageException
+     */
+    @Override
+    public <T> T requestContent(String url, ContentHandler<T> handler) throws TVRageException {
+        HttpResponse response;
+        try {
+            response = httpClient.execute(createRequest(url));
+        } catch (IOException ex) {
+            throw new TVRageException(ApiExceptionType.CONNECTION_ERROR, ex.getMessage(), url, ex);
+        }
+
+        try {
+            return handleResponse(response, handler, url);
+        } finally {
+            // Release the connection back to the pool
+            EntityUtils.consumeQuietly(response.getEntity());
+            if (response instanceof Closeable) {
+                closeQuietly((Closeable) response);
+            }
+        }
+    }
+
+    /**
+     * Request the URL without blocking the calling thread and pass the response content to the handler.
+     *
+     * The response is read into a single buffer by the client's I/O threads, the handler is then called on the executor so
+     * that the I/O threads are not used for parsing. Failures complete the future exceptionally with a TVRageException.
+     *
+     * @param <T>
+     * @param url
+     * @param handler
+     * @param executor
+     * @return
+     */
+    @Override
+    public <T> CompletableFuture<T> requestContentAsync(final String url, final ContentHandler<T> handler, final Executor executor) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        final Future<HttpResponse> request = getAsyncClient().execute(createRequest(url), new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(final HttpResponse response) {
+                if (future.isDone()) {
+                    // Cancelled, so the response is not read
+                    EntityUtils.consumeQuietly(response.getEntity());
+                    return;
+                }
+                try {
+                    checkStatus(response, url);
+                    executor.execute(() -> {
+                        if (future.isDone()) {
+                            EntityUtils.consumeQuietly(response.getEntity());
+                            return;
+                        }
+                        try {
+                            future.complete(handleResponse(response, handler, url));
+                        } catch (TVRageException | RuntimeException ex) {
+                            future.completeExceptionally(ex);
+                        }
+                    });
+                } catch (TVRageException | RuntimeException ex) {
+                    // A runtime exception is most likely the executor rejecting the task
+                    future.completeExceptionally(ex);
+                }
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                future.completeExceptionally(new TVRageException(ApiExceptionType.CONNECTION_ERROR, ex.getMessage(), url, ex));
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel(false);
+            }
+        });
+
+        // Cancelling the result aborts the request
+        future.whenComplete((value, error) -> {
+            if (future.isCancelled()) {
+                request.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    private static HttpGet createRequest(String url) {
+        HttpGet httpGet = new HttpGet(url);
+        httpGet.addHeader("accept", "application/xml");
+        return httpGet;
+    }
+
+    /**
+     * Check the status of the response and pass the content to the handler
+     *
+     * @param <T>
+     * @param response
+     * @param handler
+     * @param url
+     * @return
+     * @throws TVRageException
+     */
+    private static <T> T handleResponse(HttpResponse response, ContentHandler<T> handler, String url) throws TVRageException {
+        checkStatus(response, url);
+
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            throw new TVRageException(ApiExceptionType.MAPPING_FAILED, "No content returned", url);
+        }
+
+        InputStream content = null;
+        try {
+            content = entity.getContent();
+            return handler.handle(content);
+        } catch (IOException ex) {
+            throw new TVRageException(ApiExceptionType.CONNECTION_ERROR, ex.getMessage(), url, ex);
+        } finally {
+            if (content != null) {
+                closeQuietly(content);
+            }
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ex) {
+            LOG.trace("Failed to close response", ex);
+        }
+    }
+
+    /**
+     * Get the non-blocking client, creating a default one if none was provided
+     *
+     * @return
+     */
+    private synchronized CloseableHttpAsyncClient getAsyncClient() {
+        if (asyncClient == null) {
+            asyncClient = HttpAsyncClients.createDefault();
+            ownsAsyncClient = true;
+        }
+
+        if (!asyncClient.isRunning()) {
+            asyncClient.start();
+        }
+        return asyncClient;
+    }
+
+    /**
+     * Convert any unsuccessful HTTP status code into the appropriate exception
+     *
+     * @param response
+     * @param url
+     * @throws TVRageException
+     */
+    private static void checkStatus(HttpResponse response, String url) throws TVRageException {
+        StatusLine status = response.getStatusLine();
+        Header retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+        TVRageException error = getStatusError(status.getStatusCode(), status.getReasonPhrase(),
+                retryAfter == null ? null : retryAfter.getValue(), url);
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Get the exception for an unsuccessful HTTP status code.
+     *
+     * Server errors and requests that have been throttled are reported as HTTP_503_ERROR, with any delay requested by the
+     * server in the Retry-After header.
+     *
+     * @param statusCode
+     * @param reason
+     * @param retryAfter the value of the Retry-After header, may be null
+     * @param url
+     * @return the exception, or null if the status is successful
+     */
+    static TVRageException getStatusError(int statusCode, String reason, String retryAfter, String url) {
+        if (statusCode >= 500 || statusCode == SC_TOO_MANY_REQUESTS) {
+            return new TVRageException(ApiExceptionType.HTTP_503_ERROR, reason, statusCode, url, getRetryAfter(retryAfter));
+        } else if (statusCode >= 300) {
+            return new TVRageException(ApiExceptionType.HTTP_404_ERROR, reason, statusCode, url);
+        }
+        return null;
+    }
+
+    /**
+     * Get the delay from the Retry-After header, which is either a number of seconds or a date
+     *
+     * @param value
+     * @return the delay in milliseconds, or 0 if there is no valid header
+     */
+    private static long getRetryAfter(String value) {
+        if (value == null) {
+            return 0;
+        }
+
+        long seconds = NumberUtils.toLong(value.trim(), -1);
+        if (seconds >= 0) {
+            return TimeUnit.SECONDS.toMillis(seconds);
+        }
+
+        Date date = DateUtils.parseDate(value.trim());
+        return date == null ? 0 : Math.max(0, date.getTime() - System.currentTimeMillis());
+    }
+
+    /**
+     * Release any clients created by this transport
+     *
+     * @throws IOException
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (ownsHttpClient && httpClient instanceof Closeable) {
+            ((Closeable) httpClient).close();
+        }
+
+        if (ownsAsyncClient && asyncClient != null) {
+            asyncClient.close();
+            asyncClient = null;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+
+/**
+ * Builder for a HttpTransport with its own pool of connections.
+ *
+ * Each transport built has a separate connection pool, so different workloads can be sized independently.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class HttpTransportBuilder {
+
+    private int maxConnTotal = 20;
+    private int maxConnPerRoute = 1;
+    private long keepAlive = 30000;
+    private int connectionRequestTimeout = 15000;
+    private int connectTimeout = 25000;
+    private int socketTimeout = 90000;
+    private String proxyHost = null;
+    private int proxyPort = 0;
+
+    /**
+     * The maximum number of connections in the pool
+     *
+     * @param maxConnTotal
+     * @return
+     */
+    public HttpTransportBuilder setMaxConnTotal(int maxConnTotal) {
+        this.maxConnTotal = maxConnTotal;
+        return this;
+    }
+
+    /**
+     * The maximum number of connections to a single host
+     *
+     * @param maxConnPerRoute
+     * @return
+     */
+    public HttpTransportBuilder setMaxConnPerRoute(int maxConnPerRoute) {
+        this.maxConnPerRoute = maxConnPerRoute;
+        return this;
+    }
+
+    /**
+     * How long (in milliseconds) an idle connection is kept open for re-use.
+     *
+     * A shorter keep alive sent by the server will take precedence
+     *
+     * @param keepAlive
+     * @return
+     */
+    public HttpTransportBuilder setKeepAlive(long keepAlive) {
+        this.keepAlive = keepAlive;
+        return this;
+    }
+
+    /**
+     * How long (in milliseconds) to wait for a connection from the pool
+     *
+     * @param connectionRequestTimeout
+     * @return
+     */
+    public HttpTransportBuilder setConnectionRequestTimeout(int connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+        return this;
+    }
+
+    /**
+     * How long (in milliseconds) to wait for a connection to be established
+     *
+     * @param connectTimeout
+     * @return
+     */
+    public HttpTransportBuilder setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+        return this;
+    }
+
+    /**
+     * How long (in milliseconds) to wait for data on an open connection
+     *
+     * @param socketTimeout
+     * @return
+     */
+    public HttpTransportBuilder setSocketTimeout(int socketTimeout) {
+        this.socketTimeout = socketTimeout;
+        return this;
+    }
+
+    public HttpTransportBuilder setProxyHost(String proxyHost) {
+        this.proxyHost = proxyHost;
+        return this;
+    }
+
+    public HttpTransportBuilder setProxyPort(int proxyPort) {
+        this.proxyPort = proxyPort;
+        return this;
+    }
+
+    /**
+     * Create the transport.
+     *
+     * The transport owns the clients created and will release them when it is closed.
+     *
+     * @return
+     */
+    public HttpTransport build() {
+        HttpHost proxy = null;
+        if (StringUtils.isNotBlank(proxyHost) && proxyPort > 0) {
+            proxy = new HttpHost(proxyHost, proxyPort);
+        }
+
+        RequestConfig config = RequestConfig.custom()
+                .setConnectionRequestTimeout(connectionRequestTimeout)
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(socketTimeout)
+                .setProxy(proxy)
+                .build();
+
+        PoolingHttpClientConnectionManager connManager = new PoolingHttpClientConnectionManager();
+        connManager.setMaxTotal(maxConnTotal);
+        connManager.setDefaultMaxPerRoute(maxConnPerRoute);
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connManager)
+                .setKeepAliveStrategy(getKeepAliveStrategy())
+                .setDefaultRequestConfig(config)
+                .evictExpiredConnections()
+                .build();
+
+        CloseableHttpAsyncClient asyncClient = HttpAsyncClients.custom()
+                .setMaxConnTotal(maxConnTotal)
+                .setMaxConnPerRoute(maxConnPerRoute)
+                .setKeepAliveStrategy(getKeepAliveStrategy())
+                .setDefaultRequestConfig(config)
+                .build();
+
+        return new HttpTransport(httpClient, asyncClient, true, maxConnPerRoute);
+    }
+
+    /**
+     * Use the server's keep alive if it sends one that is shorter than the configured value
+     *
+     * @return
+     */
+    private ConnectionKeepAliveStrategy getKeepAliveStrategy() {
+        final long maxKeepAlive = keepAlive;
+        return (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            if (serverKeepAlive > 0 && serverKeepAlive < maxKeepAlive) {
+                return serverKeepAlive;
+            }
+            return maxKeepAlive;
+        };
+    }
+}
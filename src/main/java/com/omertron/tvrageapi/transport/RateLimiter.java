@@ -0,0 +1,302 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import com.omertron.tvrageapi.TVRageException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Paces the requests sent for each API key with a token bucket.
+ *
+ * Requests are allowed at a steady rate, with a burst allowance after a quiet period. Requests over the rate are queued until
+ * their turn rather than rejected, unless the wait would be longer than the maximum. When the server throttles a request the
+ * key is paused for the time given in its Retry-After header, including any requests already waiting.
+ *
+ * The limiter may be shared between several TVRageApi instances, the keys are paced separately.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class RateLimiter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RateLimiter.class);
+
+    private final long interval;
+    private final long tolerance;
+    private final long maxWait;
+    private final long defaultBackOff;
+    private final LongSupplier ticker;
+    private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder delayedRequests = new LongAdder();
+    private final LongAdder totalDelay = new LongAdder();
+    private final LongAdder throttledResponses = new LongAdder();
+
+    RateLimiter(RateLimiterBuilder config) {
+        this.interval = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / config.getPermitsPerSecond()));
+        this.tolerance = interval * (config.getBurst() - 1);
+        this.maxWait = config.getMaxWait(TimeUnit.NANOSECONDS);
+        this.defaultBackOff = config.getDefaultBackOff(TimeUnit.NANOSECONDS);
+        this.ticker = config.getTicker();
+    }
+
+    /**
+     * Wait until a request can be sent for the key
+     *
+     * @param key the API key
+     * @param url the URL about to be requested, used for error reporting
+     * @return the time spent waiting in nanoseconds
+     * @throws TVRageException if the wait would be too long or the thread was interrupted
+     */
+    public long acquire(String key, String url) throws TVRageException {
+        Bucket bucket = bucket(key);
+        long waited = 0;
+        while (true) {
+            long wait = bucket.reserve(url);
+            if (wait > 0) {
+                queued.incrementAndGet();
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new TVRageException(ApiExceptionType.CONNECTION_ERROR, "Interrupted waiting to send request", url, ex);
+                } finally {
+                    queued.decrementAndGet();
+                }
+                waited += wait;
+            }
+
+            // Go back in the queue if the key was paused while waiting
+            if (!bucket.isPaused()) {
+                recordDelay(waited);
+                return waited;
+            }
+        }
+    }
+
+    /**
+     * Get a future that completes when a request can be sent for the key
+     *
+     * @param key the API key
+     * @param url the URL about to be requested, used for error reporting
+     * @return
+     */
+    public CompletableFuture<Void> acquireAsync(String key, String url) {
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        acquireAsync(bucket(key), url, 0, ready);
+        return ready;
+    }
+
+    private void acquireAsync(final Bucket bucket, final String url, final long waited, final CompletableFuture<Void> ready) {
+        final long wait;
+        try {
+            wait = bucket.reserve(url);
+        } catch (TVRageException ex) {
+            ready.completeExceptionally(ex);
+            return;
+        }
+
+        if (wait == 0 && !bucket.isPaused()) {
+            recordDelay(waited);
+            ready.complete(null);
+            return;
+        }
+
+        queued.incrementAndGet();
+        Scheduler.delay(wait, TimeUnit.NANOSECONDS).whenComplete((value, error) -> {
+            queued.decrementAndGet();
+            if (error != null) {
+                ready.completeExceptionally(error);
+            } else if (bucket.isPaused()) {
+                // Go back in the queue if the key was paused while waiting
+                acquireAsync(bucket, url, waited + wait, ready);
+            } else {
+                recordDelay(waited + wait);
+                ready.complete(null);
+            }
+        });
+    }
+
+    /**
+     * Take a slot for the key only if a request can be sent straight away, for optional requests that are not worth waiting
+     * for
+     *
+     * @param key the API key
+     * @return true if the request can be sent
+     */
+    public boolean tryAcquire(String key) {
+        Bucket bucket = bucket(key);
+        return !bucket.isPaused() && bucket.tryReserve();
+    }
+
+    /**
+     * Pause requests for the key after the server has throttled a request
+     *
+     * @param key the API key
+     * @param retryAfter the delay requested by the server in milliseconds, or 0 to use the default
+     */
+    public void backOff(String key, long retryAfter) {
+        long delay = retryAfter > 0 ? TimeUnit.MILLISECONDS.toNanos(retryAfter) : defaultBackOff;
+        throttledResponses.increment();
+        LOG.debug("Requests throttled, pausing for {}ms", TimeUnit.NANOSECONDS.toMillis(delay));
+        bucket(key).pause(delay);
+    }
+
+    /**
+     * How long a request for the key would have to wait if it was made now
+     *
+     * @param key
+     * @param unit
+     * @return
+     */
+    public long getQueueDelay(String key, TimeUnit unit) {
+        Bucket bucket = buckets.get(key);
+        return bucket == null ? 0 : unit.convert(bucket.delay(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The number of requests currently waiting
+     *
+     * @return
+     */
+    public int getQueuedRequests() {
+        return queued.get();
+    }
+
+    /**
+     * The number of requests that have had to wait
+     *
+     * @return
+     */
+    public long getDelayedRequests() {
+        return delayedRequests.sum();
+    }
+
+    /**
+     * The total time requests have spent waiting
+     *
+     * @param unit
+     * @return
+     */
+    public long getTotalDelay(TimeUnit unit) {
+        return unit.convert(totalDelay.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The number of throttled responses reported by {@link #backOff(String, long)}
+     *
+     * @return
+     */
+    public long getThrottledResponses() {
+        return throttledResponses.sum();
+    }
+
+    private void recordDelay(long waited) {
+        if (waited > 0) {
+            delayedRequests.increment();
+            totalDelay.add(waited);
+        }
+    }
+
+    private Bucket bucket(String key) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket());
+        }
+        return bucket;
+    }
+
+    /**
+     * Token bucket stored as the theoretical arrival time of the next request, which allows it to be updated without locking
+     */
+    private final class Bucket {
+
+        private final AtomicLong arrival = new AtomicLong(ticker.getAsLong());
+        private volatile long pausedUntil = ticker.getAsLong();
+
+        /**
+         * Take the next slot
+         *
+         * @return the time until the slot in nanoseconds
+         */
+        long reserve(String url) throws TVRageException {
+            while (true) {
+                long now = ticker.getAsLong();
+                long current = arrival.get();
+                long wait = Math.max(0, current - tolerance - now);
+                if (wait > maxWait) {
+                    throw new TVRageException(ApiExceptionType.HTTP_503_ERROR,
+                            "Rate limit delay of " + TimeUnit.NANOSECONDS.toMillis(wait) + "ms is too long", url);
+                }
+
+                if (arrival.compareAndSet(current, Math.max(current, now) + interval)) {
+                    return wait;
+                }
+            }
+        }
+
+        /**
+         * Take the next slot if it is available now
+         *
+         * @return true if the slot was taken
+         */
+        boolean tryReserve() {
+            while (true) {
+                long now = ticker.getAsLong();
+                long current = arrival.get();
+                if (current - tolerance - now > 0) {
+                    return false;
+                }
+                if (arrival.compareAndSet(current, Math.max(current, now) + interval)) {
+                    return true;
+                }
+            }
+        }
+
+        void pause(long delay) {
+            long now = ticker.getAsLong();
+            pausedUntil = Math.max(pausedUntil, now + delay);
+            // The first request after the pause is sent at its end, the rest at the normal rate
+            long resume = now + delay + tolerance;
+            long current = arrival.get();
+            while (current < resume && !arrival.compareAndSet(current, resume)) {
+                current = arrival.get();
+            }
+        }
+
+        boolean isPaused() {
+            return ticker.getAsLong() - pausedUntil < 0;
+        }
+
+        long delay() {
+            return Math.max(0, arrival.get() - tolerance - ticker.getAsLong());
+        }
+    }
+}
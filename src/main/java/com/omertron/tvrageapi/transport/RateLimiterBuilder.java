@@ -0,0 +1,130 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Builder for a RateLimiter
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class RateLimiterBuilder {
+
+    private double permitsPerSecond = 5.0;
+    private int burst = 10;
+    private long maxWait = TimeUnit.SECONDS.toNanos(30);
+    private long defaultBackOff = TimeUnit.SECONDS.toNanos(5);
+    private LongSupplier ticker = System::nanoTime;
+
+    /**
+     * The sustained number of requests allowed each second for each API key
+     *
+     * @param permitsPerSecond
+     * @return
+     */
+    public RateLimiterBuilder setPermitsPerSecond(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        return this;
+    }
+
+    /**
+     * The number of requests that can be sent together after a quiet period
+     *
+     * @param burst
+     * @return
+     */
+    public RateLimiterBuilder setBurst(int burst) {
+        if (burst <= 0) {
+            throw new IllegalArgumentException("Burst must be positive");
+        }
+        this.burst = burst;
+        return this;
+    }
+
+    /**
+     * The longest a request will be queued before it fails rather than waiting
+     *
+     * @param duration
+     * @param unit
+     * @return
+     */
+    public RateLimiterBuilder setMaxWait(long duration, TimeUnit unit) {
+        this.maxWait = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * The pause after a throttled response that did not include a Retry-After header
+     *
+     * @param duration
+     * @param unit
+     * @return
+     */
+    public RateLimiterBuilder setDefaultBackOff(long duration, TimeUnit unit) {
+        this.defaultBackOff = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * Source of the current time in nanoseconds, for testing
+     *
+     * @param ticker
+     * @return
+     */
+    RateLimiterBuilder setTicker(LongSupplier ticker) {
+        this.ticker = ticker;
+        return this;
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public long getMaxWait(TimeUnit unit) {
+        return unit.convert(maxWait, TimeUnit.NANOSECONDS);
+    }
+
+    public long getDefaultBackOff(TimeUnit unit) {
+        return unit.convert(defaultBackOff, TimeUnit.NANOSECONDS);
+    }
+
+    LongSupplier getTicker() {
+        return ticker;
+    }
+
+    /**
+     * Create the limiter with the current configuration
+     *
+     * @return
+     */
+    public RateLimiter build() {
+        return new RateLimiter(this);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import com.omertron.tvrageapi.TVRageException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Passes requests to another transport and saves each successful response as a fixture for a ReplayTransport.
+ *
+ * Fixtures are named with ReplayTransport.getFixtureName, a newer response for the same URL replaces the older one. A
+ * failure to save a fixture is logged, but does not fail the request.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class RecordingTransport implements Transport {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RecordingTransport.class);
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Transport delegate;
+    private final Path directory;
+    private final LongAdder recorded = new LongAdder();
+
+    /**
+     * Create a transport that records the responses of the delegate.
+     *
+     * The delegate is closed when this transport is closed.
+     *
+     * @param delegate
+     * @param directory the directory to save the fixtures in, created if it does not exist
+     * @throws IOException
+     */
+    public RecordingTransport(Transport delegate, Path directory) throws IOException {
+        this.delegate = delegate;
+        this.directory = Files.createDirectories(directory);
+    }
+
+    @Override
+    public <T> T requestContent(String url, ContentHandler<T> handler) throws TVRageException {
+        return delegate.requestContent(url, recorder(url, handler));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> requestContentAsync(String url, ContentHandler<T> handler, Executor executor) {
+        return delegate.requestContentAsync(url, recorder(url, handler), executor);
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return delegate.getMaxConcurrency();
+    }
+
+    /**
+     * The number of responses saved
+     *
+     * @return
+     */
+    public long getRecordedCount() {
+        return recorded.sum();
+    }
+
+    /**
+     * Read the whole response, save it and then pass a copy on to the handler
+     */
+    private <T> ContentHandler<T> recorder(final String url, final ContentHandler<T> handler) {
+        return content -> {
+            byte[] data;
+            try {
+                data = readFully(content);
+            } catch (IOException ex) {
+                throw new TVRageException(ApiExceptionType.CONNECTION_ERROR, ex.getMessage(), url, ex);
+            }
+            save(url, data);
+            return handler.handle(new ByteArrayInputStream(data));
+        };
+    }
+
+    private void save(String url, byte[] data) {
+        String name = ReplayTransport.getFixtureName(url);
+        try {
+            // Write to a temporary file first, so a replay never sees a partial fixture
+            Path temp = Files.createTempFile(directory, name, ".tmp");
+            try {
+                Files.write(temp, data);
+                Files.move(temp, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            recorded.increment();
+            LOG.trace("Recorded {} bytes from {} to {}", data.length, url, name);
+        } catch (IOException ex) {
+            LOG.warn("Failed to record the response from {}: {}", url, ex.getMessage());
+        }
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(BUFFER_SIZE);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            out.write(buffer, 0, count);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import com.omertron.tvrageapi.TVRageException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import org.apache.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Serves responses from fixture files rather than the site, so the parsing can be tested and benchmarked offline.
+ *
+ * The fixtures are usually captured with a RecordingTransport. Each file is memory mapped the first time it is requested
+ * and then shared by all later requests. URLs without a fixture fail with a HTTP_404_ERROR.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class ReplayTransport implements Transport {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReplayTransport.class);
+    private static final String EXTENSION = ".xml";
+    private static final int MAX_NAME_LENGTH = 120;
+
+    private final Path directory;
+    private final ConcurrentMap<String, ByteBuffer> fixtures = new ConcurrentHashMap<>();
+    private final LongAdder served = new LongAdder();
+    private final LongAdder missed = new LongAdder();
+
+    /**
+     * Create a transport for the fixtures in the directory
+     *
+     * @param directory
+     */
+    public ReplayTransport(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Get the name of the fixture file for the URL.
+     *
+     * The name is made from the API page and the query, without the API key, so fixtures can be used with any key or site
+     *
+     * @param url
+     * @return
+     */
+    public static String getFixtureName(String url) {
+        int query = url.indexOf('?');
+        int end = query < 0 ? url.length() : query;
+        StringBuilder name = new StringBuilder(url.substring(url.lastIndexOf('/', end - 1) + 1, end));
+
+        if (query >= 0) {
+            for (String parameter : url.substring(query + 1).split("&")) {
+                if (!parameter.isEmpty() && !parameter.startsWith("key=")) {
+                    name.append('_').append(parameter);
+                }
+            }
+        }
+
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '.' && c != '=' && c != '-') {
+                name.setCharAt(i, '_');
+            }
+        }
+
+        if (name.length() > MAX_NAME_LENGTH) {
+            CRC32 crc = new CRC32();
+            crc.update(name.toString().getBytes(StandardCharsets.UTF_8));
+            name.setLength(MAX_NAME_LENGTH);
+            name.append('_').append(Long.toHexString(crc.getValue()));
+        }
+        return name.append(EXTENSION).toString();
+    }
+
+    @Override
+    public <T> T requestContent(String url, ContentHandler<T> handler) throws TVRageException {
+        try (InputStream content = new BufferInputStream(getFixture(url))) {
+            return handler.handle(content);
+        } catch (IOException ex) {
+            throw new TVRageException(ApiExceptionType.CONNECTION_ERROR, ex.getMessage(), url, ex);
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> requestContentAsync(final String url, final ContentHandler<T> handler, Executor executor) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    // Cancelled before it started
+                    return;
+                }
+                try {
+                    future.complete(requestContent(url, handler));
+                } catch (TVRageException | RuntimeException ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    /**
+     * Map all of the fixtures in the directory, so that the first request for each is not slower than the rest
+     *
+     * @return the number of fixtures loaded
+     * @throws IOException
+     */
+    public int preload() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!fixtures.containsKey(name)) {
+                    fixtures.putIfAbsent(name, map(file));
+                }
+            }
+        }
+        return fixtures.size();
+    }
+
+    /**
+     * The number of requests served from a fixture
+     *
+     * @return
+     */
+    public long getServedCount() {
+        return served.sum();
+    }
+
+    /**
+     * The number of requests that had no fixture
+     *
+     * @return
+     */
+    public long getMissedCount() {
+        return missed.sum();
+    }
+
+    private ByteBuffer getFixture(String url) throws TVRageException {
+        String name = getFixtureName(url);
+        ByteBuffer buffer = fixtures.get(name);
+
+        if (buffer == null) {
+            Path file = directory.resolve(name);
+            if (!Files.isRegularFile(file)) {
+                missed.increment();
+                LOG.debug("No recorded response for {} in {}", url, file);
+                throw new TVRageException(ApiExceptionType.HTTP_404_ERROR, "No recorded response", HttpStatus.SC_NOT_FOUND, url);
+            }
+
+            try {
+                buffer = map(file);
+            } catch (IOException ex) {
+                throw new TVRageException(ApiExceptionType.CONNECTION_ERROR, ex.getMessage(), url, ex);
+            }
+            ByteBuffer existing = fixtures.putIfAbsent(name, buffer);
+            if (existing != null) {
+                buffer = existing;
+            }
+        }
+
+        served.increment();
+        // Each reader needs its own position
+        return buffer.duplicate();
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Release the fixtures, the mapped files are unmapped once they are no longer referenced
+     */
+    @Override
+    public void close() {
+        fixtures.clear();
+    }
+
+    /**
+     * Stream over the remaining content of a buffer
+     */
+    private static final class BufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
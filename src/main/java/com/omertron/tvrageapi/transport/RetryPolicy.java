@@ -0,0 +1,202 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import com.omertron.tvrageapi.TVRageException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Retries requests that failed because of a connection problem or a server error.
+ *
+ * The delay before each retry is a random time up to an exponentially growing limit ("full jitter"), so clients that failed
+ * together do not all retry together. Any longer delay requested by the server is honoured, unless it is more than the maximum
+ * delay in which case the failure is returned straight away.
+ *
+ * Only idempotent requests should be retried, which is all of the TVRage API calls.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class RetryPolicy {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RetryPolicy.class);
+
+    private final int maxAttempts;
+    private final long baseDelay;
+    private final long maxDelay;
+    private final LongAdder retries = new LongAdder();
+
+    /**
+     * A single attempt at the request
+     *
+     * @param <T>
+     */
+    @FunctionalInterface
+    public interface Attempt<T> {
+
+        T run() throws TVRageException;
+    }
+
+    RetryPolicy(RetryPolicyBuilder config) {
+        this.maxAttempts = config.getMaxAttempts();
+        this.baseDelay = config.getBaseDelay(TimeUnit.NANOSECONDS);
+        this.maxDelay = config.getMaxDelay(TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Run the attempt, retrying after a delay if it fails with a retryable error
+     *
+     * @param <T>
+     * @param url the URL being requested, used for logging and error reporting
+     * @param attempt
+     * @return
+     * @throws TVRageException the error from the last attempt
+     */
+    public <T> T execute(String url, Attempt<T> attempt) throws TVRageException {
+        for (int count = 1;; count++) {
+            try {
+                return attempt.run();
+            } catch (TVRageException ex) {
+                long delay = getDelay(count, ex);
+                if (delay < 0) {
+                    throw ex;
+                }
+
+                LOG.debug("Attempt {} failed ({}), retrying in {}ms: {}", count, ex.getExceptionType(),
+                        TimeUnit.NANOSECONDS.toMillis(delay), url);
+                retries.increment();
+                try {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    /**
+     * Start the attempt, retrying after a delay if it fails with a retryable error
+     *
+     * @param <T>
+     * @param url the URL being requested, used for logging
+     * @param attempt
+     * @return
+     */
+    public <T> CompletableFuture<T> executeAsync(String url, Supplier<CompletableFuture<T>> attempt) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        executeAsync(url, attempt, 1, result);
+        return result;
+    }
+
+    private <T> void executeAsync(final String url, final Supplier<CompletableFuture<T>> attempt, final int count,
+            final CompletableFuture<T> result) {
+        CompletableFuture<T> started;
+        try {
+            started = attempt.get();
+        } catch (Throwable ex) {
+            // A retry is started from the timer callback, where a thrown exception would be lost
+            result.completeExceptionally(ex);
+            return;
+        }
+        if (started == null) {
+            result.completeExceptionally(new NullPointerException("The attempt did not return a future: " + url));
+            return;
+        }
+
+        started.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            long delay = cause instanceof TVRageException ? getDelay(count, (TVRageException) cause) : -1;
+            if (delay < 0) {
+                result.completeExceptionally(cause);
+                return;
+            }
+
+            LOG.debug("Attempt {} failed ({}), retrying in {}ms: {}", count, ((TVRageException) cause).getExceptionType(),
+                    TimeUnit.NANOSECONDS.toMillis(delay), url);
+            retries.increment();
+            Scheduler.delay(delay, TimeUnit.NANOSECONDS).whenComplete((ready, timerError) -> {
+                if (timerError == null) {
+                    executeAsync(url, attempt, count + 1, result);
+                } else {
+                    result.completeExceptionally(cause);
+                }
+            });
+        });
+    }
+
+    /**
+     * Check if the failure is worth retrying
+     *
+     * @param ex
+     * @return
+     */
+    public boolean isRetryable(TVRageException ex) {
+        return ex.getExceptionType() == ApiExceptionType.CONNECTION_ERROR || ex.getExceptionType() == ApiExceptionType.HTTP_503_ERROR;
+    }
+
+    /**
+     * The number of retries made
+     *
+     * @return
+     */
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * Get the delay before the next attempt
+     *
+     * @param count the number of attempts made so far
+     * @param ex the error from the last attempt
+     * @return the delay in nanoseconds, or -1 if the request should not be retried
+     */
+    long getDelay(int count, TVRageException ex) {
+        if (count >= maxAttempts || !isRetryable(ex)) {
+            return -1;
+        }
+
+        long requested = TimeUnit.MILLISECONDS.toNanos(ex.getRetryAfter());
+        if (requested > maxDelay) {
+            return -1;
+        }
+
+        long limit = baseDelay;
+        for (int doubled = 1; doubled < count && limit < maxDelay; doubled++) {
+            limit <<= 1;
+        }
+        limit = Math.min(limit, maxDelay);
+        long jitter = limit > 0 ? ThreadLocalRandom.current().nextLong(limit + 1) : 0;
+        return Math.max(requested, jitter);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builder for a RetryPolicy
+ *
+ * @author Stuart.Boston
+ *
+ */
+public class RetryPolicyBuilder {
+
+    private int maxAttempts = 3;
+    private long baseDelay = TimeUnit.MILLISECONDS.toNanos(200);
+    private long maxDelay = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * The total number of attempts, including the first
+     *
+     * @param maxAttempts
+     * @return
+     */
+    public RetryPolicyBuilder setMaxAttempts(int maxAttempts) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Attempts must be positive");
+        }
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * The upper limit of the delay before the first retry, which doubles for each further retry
+     *
+     * @param duration
+     * @param unit
+     * @return
+     */
+    public RetryPolicyBuilder setBaseDelay(long duration, TimeUnit unit) {
+        this.baseDelay = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * The longest delay before a retry.
+     *
+     * A request is not retried if the server (or an open circuit breaker) asks for a longer delay than this
+     *
+     * @param duration
+     * @param unit
+     * @return
+     */
+    public RetryPolicyBuilder setMaxDelay(long duration, TimeUnit unit) {
+        this.maxDelay = unit.toNanos(duration);
+        return this;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getBaseDelay(TimeUnit unit) {
+        return unit.convert(baseDelay, TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxDelay(TimeUnit unit) {
+        return unit.convert(maxDelay, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Create the policy with the current configuration
+     *
+     * @return
+     */
+    public RetryPolicy build() {
+        return new RetryPolicy(this);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared timer used to delay the asynchronous requests, so no executor thread is held while waiting
+ *
+ * @author Stuart.Boston
+ *
+ */
+final class Scheduler {
+
+    private Scheduler() {
+        // Hide the constructor
+    }
+
+    /**
+     * Get a future that completes after the delay
+     *
+     * @param delay
+     * @param unit
+     * @return
+     */
+    static CompletableFuture<Void> delay(long delay, TimeUnit unit) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (delay <= 0) {
+            future.complete(null);
+            return future;
+        }
+
+        try {
+            Holder.INSTANCE.schedule(() -> future.complete(null), delay, unit);
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    /**
+     * The timer thread is only created when it is first needed
+     */
+    private static final class Holder {
+
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tvrage-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        private Holder() {
+            // Hide the constructor
+        }
+    }
+}
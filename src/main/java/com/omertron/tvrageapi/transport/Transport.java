@@ -0,0 +1,70 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import com.omertron.tvrageapi.TVRageException;
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Retrieves the content of a URL for a TVRageApi instance.
+ *
+ * The default implementation is HttpTransport, the recording and replay transports allow the responses to be captured and
+ * then served offline.
+ *
+ * @author Stuart.Boston
+ *
+ */
+public interface Transport extends Closeable {
+
+    /**
+     * Request the URL and pass the content of a successful response to the handler
+     *
+     * @param <T>
+     * @param url
+     * @param handler
+     * @return the value produced by the handler
+     * @throws TVRageException
+     */
+    <T> T requestContent(String url, ContentHandler<T> handler) throws TVRageException;
+
+    /**
+     * Request the URL without blocking the calling thread.
+     *
+     * The handler is called on the executor, failures complete the future exceptionally with a TVRageException.
+     *
+     * @param <T>
+     * @param url
+     * @param handler
+     * @param executor
+     * @return
+     */
+    <T> CompletableFuture<T> requestContentAsync(String url, ContentHandler<T> handler, Executor executor);
+
+    /**
+     * The number of requests the transport can send to the site at the same time, any more wait for a connection
+     *
+     * @return the limit, or Integer.MAX_VALUE if there is none or it is not known
+     */
+    default int getMaxConcurrency() {
+        return Integer.MAX_VALUE;
+    }
+}
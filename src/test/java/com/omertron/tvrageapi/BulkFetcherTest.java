@@ -0,0 +1,187 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi;
+
+import com.omertron.tvrageapi.model.EpisodeList;
+import com.omertron.tvrageapi.transport.HttpTransport;
+import com.omertron.tvrageapi.transport.HttpTransportBuilder;
+import com.omertron.tvrageapi.transport.ReplayTransport;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Check the bulk fetch passes every result to the handler, within the concurrency limit
+ *
+ * @author Stuart.Boston
+ */
+public class BulkFetcherTest {
+
+    // Logger
+    private static final Logger LOG = LoggerFactory.getLogger(BulkFetcherTest.class);
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.configure();
+    }
+
+    @Test
+    public void testFetchEpisodeLists() throws Exception {
+        LOG.info("test fetchEpisodeLists, virtual threads: {}", BulkFetcher.isVirtual());
+        Path fixtures = folder.getRoot().toPath();
+        List<String> showIDs = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            try (InputStream in = getClass().getResourceAsStream("/xml/episode_list.xml")) {
+                Files.copy(in, fixtures.resolve(ReplayTransport.getFixtureName("http://localhost/episode_list.php?key=K&sid=" + i)));
+            }
+            showIDs.add(String.valueOf(i));
+        }
+        // No fixture for this one
+        showIDs.add("999");
+
+        TVRageApi api = new TVRageApi("KEY", new ReplayTransport(fixtures));
+        api.setBulkConcurrency(8);
+        final Map<String, EpisodeList> results = new ConcurrentHashMap<>();
+        final Map<String, TVRageException> failures = new ConcurrentHashMap<>();
+        api.fetchEpisodeLists(showIDs, new BulkHandler<EpisodeList>() {
+            @Override
+            public void onResult(String id, EpisodeList result) {
+                results.put(id, result);
+            }
+
+            @Override
+            public void onFailure(String id, TVRageException ex) {
+                failures.put(id, ex);
+            }
+        });
+
+        assertEquals(50, results.size());
+        assertEquals("Chuck", results.get("25").getShowName());
+        assertEquals(1, failures.size());
+        assertEquals(ApiExceptionType.HTTP_404_ERROR, failures.get("999").getExceptionType());
+    }
+
+    @Test
+    public void testConcurrencyLimit() throws InterruptedException {
+        LOG.info("test concurrency limit");
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            ids.add(String.valueOf(i));
+        }
+
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final AtomicInteger completed = new AtomicInteger();
+        BulkFetcher.fetch(ids, 4, id -> {
+            int now = running.incrementAndGet();
+            maxRunning.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return id;
+        }, new BulkHandler<String>() {
+            @Override
+            public void onResult(String id, String result) {
+                completed.incrementAndGet();
+            }
+
+            @Override
+            public void onFailure(String id, TVRageException ex) {
+                // Not expected
+            }
+        });
+
+        assertEquals("All complete before returning", 40, completed.get());
+        assertTrue("Limit exceeded: " + maxRunning.get(), maxRunning.get() <= 4);
+        assertTrue(maxRunning.get() > 1);
+    }
+
+    @Test
+    public void testHandlerFailure() throws Exception {
+        LOG.info("test handler failure");
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(String.valueOf(i));
+        }
+
+        final AtomicInteger results = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicInteger uncaught = new AtomicInteger();
+        Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, ex) -> uncaught.incrementAndGet());
+        try {
+            BulkFetcher.fetch(ids, 4, id -> {
+                if (Integer.parseInt(id) % 2 == 1) {
+                    throw new TVRageException(ApiExceptionType.HTTP_404_ERROR, "Not Found", 404, id);
+                }
+                return id;
+            }, new BulkHandler<String>() {
+                @Override
+                public void onResult(String id, String result) {
+                    results.incrementAndGet();
+                    throw new IllegalStateException("Handler failed for " + id);
+                }
+
+                @Override
+                public void onFailure(String id, TVRageException ex) {
+                    failures.incrementAndGet();
+                    throw new IllegalStateException("Handler failed for " + id);
+                }
+            });
+            // An exception escaping a task reaches the handler just after its permit is released
+            Thread.sleep(200);
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(previous);
+        }
+
+        assertEquals(5, results.get());
+        assertEquals("A failing handler is not a failed request", 5, failures.get());
+        assertEquals("Handler failures are logged rather than thrown on the request threads", 0, uncaught.get());
+
+        try (HttpTransport transport = new HttpTransportBuilder().setMaxConnPerRoute(4).build()) {
+            assertEquals(4, transport.getMaxConcurrency());
+        }
+        // The pool of a client passed in is not known, so only the HttpClients default is assumed
+        try (CloseableHttpClient client = HttpClients.createDefault()) {
+            assertEquals(2, new HttpTransport(client).getMaxConcurrency());
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi;
+
+import com.omertron.tvrageapi.model.Episode;
+import com.omertron.tvrageapi.model.EpisodeField;
+import com.omertron.tvrageapi.model.EpisodeList;
+import com.omertron.tvrageapi.model.ShowField;
+import com.omertron.tvrageapi.model.ShowInfo;
+import com.omertron.tvrageapi.transport.ContentHandler;
+import com.omertron.tvrageapi.transport.HedgingPolicyBuilder;
+import com.omertron.tvrageapi.transport.ReplayTransport;
+import com.omertron.tvrageapi.transport.RetryPolicyBuilder;
+import com.omertron.tvrageapi.transport.Transport;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Check the asynchronous methods against recorded responses
+ *
+ * @author Stuart.Boston
+ */
+public class TVRageApiAsyncTest {
+
+    // Logger
+    private static final Logger LOG = LoggerFactory.getLogger(TVRageApiAsyncTest.class);
+    private static final String SHOW_ID = "15614";
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private ReplayTransport replay;
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.configure();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        Path fixtures = folder.getRoot().toPath();
+        copy("showinfo.xml", fixtures.resolve("showinfo.php_sid=15614.xml"));
+        copy("search.xml", fixtures.resolve("search.php_show=Chuck.xml"));
+        copy("episodeinfo.xml", fixtures.resolve("episodeinfo.php_sid=15614_ep=1x1.xml"));
+        copy("episode_list.xml", fixtures.resolve("episode_list.php_sid=15614.xml"));
+        replay = new ReplayTransport(fixtures);
+    }
+
+    @Test
+    public void testSuccess() throws Exception {
+        LOG.info("test success");
+        TVRageApi api = new TVRageApi("KEY", replay);
+        assertEquals("Chuck", api.getShowInfoAsync(15614).get(5, TimeUnit.SECONDS).getShowName());
+        assertEquals("Chuck", api.searchShowAsync("Chuck").get(5, TimeUnit.SECONDS).get(0).getShowName());
+        assertEquals("Chuck Versus the Intersect", api.getEpisodeInfoAsync(SHOW_ID, "1", "1").get(5, TimeUnit.SECONDS).getTitle());
+
+        EpisodeList episodeList = api.getEpisodeListAsync(SHOW_ID).get(5, TimeUnit.SECONDS);
+        assertEquals(api.getEpisodeList(SHOW_ID).getEpisodes().toString(), episodeList.getEpisodes().toString());
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        LOG.info("test failure");
+        TVRageApi api = new TVRageApi("KEY", replay);
+        try {
+            api.getShowInfoAsync(1).get(5, TimeUnit.SECONDS);
+            fail("Expected no recorded response");
+        } catch (ExecutionException ex) {
+            assertTrue("The cause should be the TVRageException", ex.getCause() instanceof TVRageException);
+            assertEquals(ApiExceptionType.HTTP_404_ERROR, ((TVRageException) ex.getCause()).getExceptionType());
+        }
+    }
+
+    @Test
+    public void testAsyncExecutor() throws Exception {
+        LOG.info("test async executor");
+        final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        TVRageApi api = new TVRageApi("KEY", replay);
+        api.setAsyncExecutor(tasks::add);
+
+        // Nothing is read or parsed until the executor runs the task
+        CompletableFuture<ShowInfo> result = api.getShowInfoAsync(15614);
+        assertFalse(result.isDone());
+        assertEquals(0, replay.getServedCount());
+
+        Thread worker = new Thread(() -> {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }, "async-executor");
+        worker.start();
+        worker.join(5000);
+        assertEquals("Chuck", result.get(5, TimeUnit.SECONDS).getShowName());
+        assertEquals(1, replay.getServedCount());
+    }
+
+    @Test
+    public void testRetryAndHedge() throws Exception {
+        LOG.info("test retry and hedge");
+        FlakyTransport flaky = new FlakyTransport(replay);
+        TVRageApi api = new TVRageApi("KEY", flaky);
+        api.setRetryPolicy(new RetryPolicyBuilder()
+                .setMaxAttempts(3)
+                .setBaseDelay(10, TimeUnit.MILLISECONDS)
+                .build());
+        api.setHedgingPolicy(new HedgingPolicyBuilder()
+                .setMinDelay(10, TimeUnit.MILLISECONDS)
+                .build());
+
+        // The first attempt fails with a connection error, the retry is sent through the hedging policy
+        assertEquals("Chuck", api.getShowInfoAsync(15614).get(5, TimeUnit.SECONDS).getShowName());
+        assertEquals(2, flaky.requests.get());
+    }
+
+    @Test
+    public void testFieldProjection() throws Exception {
+        LOG.info("test field projection");
+        TVRageApi api = new TVRageApi("KEY", replay);
+
+        ShowInfo showInfo = api.getShowInfoAsync(SHOW_ID, EnumSet.of(ShowField.COUNTRY)).get(5, TimeUnit.SECONDS);
+        assertEquals("Chuck", showInfo.getShowName());
+        assertEquals("US", showInfo.getCountry());
+        assertTrue(showInfo.getGenres().isEmpty());
+
+        List<ShowInfo> shows = api.searchShowAsync("Chuck", EnumSet.of(ShowField.COUNTRY)).get(5, TimeUnit.SECONDS);
+        assertEquals("Chuck", shows.get(0).getShowName());
+        assertTrue(shows.get(0).getGenres().isEmpty());
+
+        Episode episode = api.getEpisodeInfoAsync(SHOW_ID, "1", "1", EnumSet.of(EpisodeField.TITLE)).get(5, TimeUnit.SECONDS);
+        assertEquals("Chuck Versus the Intersect", episode.getTitle());
+        assertNull(episode.getAirDate());
+
+        // The projected results match the blocking methods
+        assertEquals(api.getShowInfo(SHOW_ID, EnumSet.of(ShowField.COUNTRY)).toString(), showInfo.toString());
+        assertEquals(api.getEpisodeInfo(SHOW_ID, "1", "1", EnumSet.of(EpisodeField.TITLE)).toString(), episode.toString());
+    }
+
+    /**
+     * Fails the first asynchronous request with a connection error, then passes the requests on
+     */
+    private static final class FlakyTransport implements Transport {
+
+        private final Transport delegate;
+        private final AtomicInteger requests = new AtomicInteger();
+
+        FlakyTransport(Transport delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public <T> T requestContent(String url, ContentHandler<T> handler) throws TVRageException {
+            requests.incrementAndGet();
+            return delegate.requestContent(url, handler);
+        }
+
+        @Override
+        public <T> CompletableFuture<T> requestContentAsync(String url, ContentHandler<T> handler, Executor executor) {
+            if (requests.incrementAndGet() == 1) {
+                CompletableFuture<T> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new TVRageException(ApiExceptionType.CONNECTION_ERROR, "Refused", url));
+                return failed;
+            }
+            return delegate.requestContentAsync(url, handler, executor);
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    private void copy(String resource, Path target) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/xml/" + resource)) {
+            Files.copy(in, target);
+        }
+    }
+}
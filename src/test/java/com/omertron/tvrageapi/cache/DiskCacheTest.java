@@ -0,0 +1,206 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.cache;
+
+import com.omertron.tvrageapi.TestLogger;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Check the stored responses survive re-opening the cache and that the size is bounded
+ *
+ * @author Stuart.Boston
+ */
+public class DiskCacheTest {
+
+    // Logger
+    private static final Logger LOG = LoggerFactory.getLogger(DiskCacheTest.class);
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.configure();
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        LOG.info("test reopen");
+        Path directory = folder.getRoot().toPath();
+        try (DiskCache cache = builder(directory).build()) {
+            cache.put(CacheType.SHOW_INFO, "15614", bytes("<Showinfo>Chuck</Showinfo>"));
+            cache.put(CacheType.EPISODE_LIST, "15614", bytes("<Show>first</Show>"));
+            cache.put(CacheType.EPISODE_LIST, "15614", bytes("<Show>second</Show>"));
+            cache.put(CacheType.SEARCH, "chuck", bytes("<Results/>"));
+            cache.remove(CacheType.SEARCH, "chuck");
+        }
+
+        try (DiskCache cache = builder(directory).build()) {
+            assertEquals(2, cache.size());
+            assertEquals("<Showinfo>Chuck</Showinfo>", read(cache.get(CacheType.SHOW_INFO, "15614")));
+            assertEquals("<Show>second</Show>", read(cache.get(CacheType.EPISODE_LIST, "15614")));
+            assertNull(cache.get(CacheType.SEARCH, "chuck"));
+
+            now.addAndGet(TimeUnit.HOURS.toMillis(2));
+            assertNull("Response should be too old", cache.get(CacheType.SHOW_INFO, "15614", TimeUnit.HOURS.toMillis(1)));
+            assertEquals("<Showinfo>Chuck</Showinfo>", read(cache.get(CacheType.SHOW_INFO, "15614")));
+        }
+    }
+
+    @Test
+    public void testDamagedTail() throws IOException {
+        LOG.info("test damaged tail");
+        Path directory = folder.getRoot().toPath();
+        try (DiskCache cache = builder(directory).build()) {
+            cache.put(CacheType.SHOW_INFO, "1", bytes("<Showinfo>One</Showinfo>"));
+            cache.put(CacheType.SHOW_INFO, "2", bytes("<Showinfo>Two</Showinfo>"));
+        }
+
+        // Simulate a write that was cut short
+        Path segment = directory.resolve("00000001.seg");
+        long size = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        try (DiskCache cache = builder(directory).build()) {
+            assertEquals("<Showinfo>One</Showinfo>", read(cache.get(CacheType.SHOW_INFO, "1")));
+            assertNull(cache.get(CacheType.SHOW_INFO, "2"));
+
+            // Writing carries on from the end of the last good record
+            cache.put(CacheType.SHOW_INFO, "3", bytes("<Showinfo>Three</Showinfo>"));
+        }
+
+        try (DiskCache cache = builder(directory).build()) {
+            assertEquals(2, cache.size());
+            assertEquals("<Showinfo>Three</Showinfo>", read(cache.get(CacheType.SHOW_INFO, "3")));
+        }
+
+        // A damaged record in the middle of the file is detected by the checksum
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), 30);
+        }
+        try (DiskCache cache = builder(directory).build()) {
+            assertEquals(0, cache.size());
+        }
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        LOG.info("test compaction");
+        Path directory = folder.getRoot().toPath();
+        Random random = new Random(42);
+        try (DiskCache cache = builder(directory).setMaxSize(64 * 1024).setSegmentSize(8 * 1024).build()) {
+            for (int i = 0; i < 200; i++) {
+                // Random content does not compress, so each record is about 1KB
+                byte[] content = new byte[1000];
+                random.nextBytes(content);
+                cache.put(CacheType.EPISODE_INFO, Integer.toString(i % 100), content);
+                now.incrementAndGet();
+                assertTrue("Cache is too large: " + cache.diskSize(), cache.diskSize() <= 64 * 1024);
+            }
+
+            // The newest responses are kept
+            assertTrue(cache.get(CacheType.EPISODE_INFO, "99") != null);
+            assertNull(cache.get(CacheType.EPISODE_INFO, "0"));
+        }
+
+        long total = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                total += Files.size(file);
+            }
+        }
+        assertTrue("Files are too large: " + total, total <= 64 * 1024);
+    }
+
+    @Test
+    public void testStaleAge() throws IOException {
+        LOG.info("test stale age");
+        Path directory = folder.getRoot().toPath();
+        try (DiskCache cache = builder(directory).setStaleAge(1, TimeUnit.DAYS).build()) {
+            cache.put(CacheType.SHOW_INFO, "15614", bytes("<Showinfo>Chuck</Showinfo>"));
+            cache.put(CacheType.SEARCH, "chuck", bytes("<Results/>"));
+            now.addAndGet(TimeUnit.HOURS.toMillis(12));
+            cache.compact();
+        }
+
+        // Expired responses survive the compaction on open, for the stale fallback
+        try (DiskCache cache = builder(directory).setStaleAge(1, TimeUnit.DAYS).build()) {
+            cache.compact();
+            assertEquals(2, cache.size());
+            assertNull(cache.get(CacheType.SHOW_INFO, "15614"));
+            assertEquals("<Showinfo>Chuck</Showinfo>", read(cache.get(CacheType.SHOW_INFO, "15614", cache.getStaleAge(CacheType.SHOW_INFO))));
+
+            // Past the stale age of their type they are dropped
+            now.addAndGet(TimeUnit.HOURS.toMillis(13));
+            cache.compact();
+            assertEquals(1, cache.size());
+            assertNull(cache.get(CacheType.SEARCH, "chuck", cache.getStaleAge(CacheType.SEARCH)));
+        }
+
+        try (DiskCache cache = builder(directory).setStaleAge(0, TimeUnit.DAYS).build()) {
+            cache.compact();
+            assertEquals("Expired responses are dropped without a stale age", 0, cache.size());
+        }
+    }
+
+    private DiskCacheBuilder builder(Path directory) {
+        return new DiskCacheBuilder(directory).setClock(now::get);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (InputStream content = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[256];
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
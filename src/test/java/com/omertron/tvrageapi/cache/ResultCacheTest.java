@@ -0,0 +1,138 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.cache;
+
+import com.omertron.tvrageapi.TestLogger;
+import com.omertron.tvrageapi.model.Episode;
+import com.omertron.tvrageapi.model.EpisodeList;
+import com.omertron.tvrageapi.model.EpisodeNumber;
+import com.omertron.tvrageapi.model.ShowInfo;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Check the expiry, eviction and copying of the cached results
+ *
+ * @author Stuart.Boston
+ */
+public class ResultCacheTest {
+
+    // Logger
+    private static final Logger LOG = LoggerFactory.getLogger(ResultCacheTest.class);
+    private final AtomicLong now = new AtomicLong();
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.configure();
+    }
+
+    @Test
+    public void testExpiry() {
+        LOG.info("test expiry");
+        ResultCache cache = new ResultCacheBuilder()
+                .setTtl(CacheType.SHOW_INFO, 10, TimeUnit.SECONDS)
+                .setTicker(now::get)
+                .build();
+
+        cache.put(CacheType.SHOW_INFO, "15614", createShow(15614));
+        assertNotNull(cache.get(CacheType.SHOW_INFO, "15614"));
+        assertNull("Wrong type should not match", cache.get(CacheType.EPISODE_INFO, "15614"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertNull("Entry should have expired", cache.get(CacheType.SHOW_INFO, "15614"));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.hitCount());
+        assertEquals(2, cache.missCount());
+    }
+
+    @Test
+    public void testWeightEviction() {
+        LOG.info("test weight eviction");
+        ResultCache cache = new ResultCacheBuilder()
+                .setMaxWeight(25)
+                .setConcurrencyLevel(1)
+                .setTicker(now::get)
+                .build();
+
+        cache.put(CacheType.EPISODE_LIST, "1", createEpisodeList(10));
+        cache.put(CacheType.EPISODE_LIST, "2", createEpisodeList(10));
+        assertEquals(20, cache.weight());
+
+        // Use the first list so that the second is evicted
+        assertNotNull(cache.get(CacheType.EPISODE_LIST, "1"));
+        cache.put(CacheType.EPISODE_LIST, "3", createEpisodeList(10));
+        assertEquals(20, cache.weight());
+        assertNotNull(cache.get(CacheType.EPISODE_LIST, "1"));
+        assertNull(cache.get(CacheType.EPISODE_LIST, "2"));
+        assertNotNull(cache.get(CacheType.EPISODE_LIST, "3"));
+
+        // Too heavy to cache at all
+        cache.put(CacheType.EPISODE_LIST, "4", createEpisodeList(30));
+        assertNull(cache.get(CacheType.EPISODE_LIST, "4"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testCopies() {
+        LOG.info("test copies");
+        ResultCache cache = new ResultCacheBuilder().setTicker(now::get).build();
+
+        EpisodeList original = createEpisodeList(3);
+        cache.put(CacheType.EPISODE_LIST, "1", original);
+        original.getEpisode(1, 1).setTitle("Changed");
+
+        EpisodeList first = cache.get(CacheType.EPISODE_LIST, "1");
+        assertEquals("Episode 1", first.getEpisode(1, 1).getTitle());
+        first.getEpisode(1, 2).setTitle("Changed");
+
+        EpisodeList second = cache.get(CacheType.EPISODE_LIST, "1");
+        assertNotSame(first, second);
+        assertEquals("Episode 2", second.getEpisode(1, 2).getTitle());
+        assertEquals(3, second.getEpisodes().size());
+    }
+
+    private static ShowInfo createShow(int showId) {
+        ShowInfo show = new ShowInfo();
+        show.setShowID(showId);
+        show.setShowName("Show " + showId);
+        show.addGenre("Drama");
+        return show;
+    }
+
+    private static EpisodeList createEpisodeList(int count) {
+        EpisodeList episodeList = new EpisodeList();
+        episodeList.setShowName("Test");
+        for (int i = 1; i <= count; i++) {
+            Episode episode = new Episode();
+            episode.setEpisodeNumber(new EpisodeNumber(1, i));
+            episode.setTitle("Episode " + i);
+            episodeList.addEpisode(episode);
+        }
+        return episodeList;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.cache;
+
+import com.omertron.tvrageapi.TVRageException;
+import com.omertron.tvrageapi.TestLogger;
+import com.omertron.tvrageapi.model.Episode;
+import com.omertron.tvrageapi.model.EpisodeList;
+import com.omertron.tvrageapi.model.EpisodeNumber;
+import com.omertron.tvrageapi.model.ShowInfo;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Check that concurrent loads of the same URL are joined
+ *
+ * @author Stuart.Boston
+ */
+public class SingleFlightTest {
+
+    // Logger
+    private static final Logger LOG = LoggerFactory.getLogger(SingleFlightTest.class);
+    private static final String URL = "http://localhost/showinfo.php?sid=15614";
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.configure();
+    }
+
+    @Test
+    public void testExecute() throws Exception {
+        LOG.info("test execute");
+        final SingleFlight singleFlight = new SingleFlight();
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ShowInfo>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.execute(CacheType.SHOW_INFO, URL, () -> {
+                loads.incrementAndGet();
+                started.countDown();
+                await(release);
+                ShowInfo show = new ShowInfo();
+                show.setShowID(15614);
+                return show;
+            })));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> singleFlight.execute(CacheType.SHOW_INFO, URL, () -> {
+                    loads.incrementAndGet();
+                    return new ShowInfo();
+                })));
+            }
+            CompletableFuture<ShowInfo> async = singleFlight.executeAsync(CacheType.SHOW_INFO, URL,
+                    () -> CompletableFuture.completedFuture(new ShowInfo()));
+
+            // Give the waiting callers time to join before the first finishes
+            Thread.sleep(200);
+            release.countDown();
+
+            ShowInfo first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<ShowInfo> result : results) {
+                ShowInfo show = result.get(5, TimeUnit.SECONDS);
+                assertEquals(15614, show.getShowID());
+                if (result != results.get(0)) {
+                    assertNotSame("Each caller should have its own copy", first, show);
+                }
+            }
+            assertEquals(15614, async.get(5, TimeUnit.SECONDS).getShowID());
+            assertEquals(1, loads.get());
+            assertEquals(0, singleFlight.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLeaderChangesResult() throws Exception {
+        LOG.info("test leader changes its result");
+        final SingleFlight singleFlight = new SingleFlight();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final int size = 5000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<EpisodeList> leader = executor.submit(() -> {
+                EpisodeList episodeList = singleFlight.execute(CacheType.EPISODE_LIST, URL, () -> {
+                    started.countDown();
+                    await(release);
+                    EpisodeList loaded = new EpisodeList();
+                    for (int number = 1; number <= size; number++) {
+                        Episode episode = new Episode();
+                        episode.setEpisodeNumber(new EpisodeNumber(1, number));
+                        loaded.addEpisode(episode);
+                    }
+                    return loaded;
+                });
+                // Change the result while the waiting callers copy it
+                for (int number = size + 1; number <= size * 4; number++) {
+                    Episode episode = new Episode();
+                    episode.setEpisodeNumber(new EpisodeNumber(2, number));
+                    episodeList.addEpisode(episode);
+                }
+                return episodeList;
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            List<Future<EpisodeList>> waiters = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                waiters.add(executor.submit(() -> singleFlight.execute(CacheType.EPISODE_LIST, URL, EpisodeList::new)));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            assertEquals(size * 4, leader.get(5, TimeUnit.SECONDS).getEpisodeCount());
+            for (Future<EpisodeList> waiter : waiters) {
+                assertEquals("The copy should not see the changes of the first caller", size, waiter.get(5, TimeUnit.SECONDS).getEpisodeCount());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        LOG.info("test failure");
+        SingleFlight singleFlight = new SingleFlight();
+        TVRageException error = new TVRageException(ApiExceptionType.HTTP_503_ERROR, "Unavailable", URL);
+        try {
+            singleFlight.execute(CacheType.SHOW_INFO, URL, () -> {
+                throw error;
+            });
+            fail("Exception not thrown");
+        } catch (TVRageException ex) {
+            assertSame(error, ex);
+        }
+
+        // Errors are passed on and do not leave the load in progress
+        try {
+            singleFlight.execute(CacheType.SHOW_INFO, URL, () -> {
+                throw new StackOverflowError("Parser");
+            });
+            fail("Error not thrown");
+        } catch (StackOverflowError ex) {
+            assertEquals("Parser", ex.getMessage());
+        }
+        assertEquals(0, singleFlight.size());
+
+        // The failed load is not remembered
+        ShowInfo show = singleFlight.execute(CacheType.SHOW_INFO, URL, ShowInfo::new);
+        assertEquals(0, show.getShowID());
+        assertEquals(0, singleFlight.size());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
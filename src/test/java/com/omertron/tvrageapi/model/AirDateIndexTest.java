@@ -0,0 +1,202 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.model;
+
+import com.omertron.tvrageapi.TVRageApi;
+import com.omertron.tvrageapi.TVRageException;
+import com.omertron.tvrageapi.TestLogger;
+import com.omertron.tvrageapi.tools.ParserEngine;
+import com.omertron.tvrageapi.transport.ReplayTransport;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Check the air date index against a search of the episode lists
+ *
+ * @author Stuart.Boston
+ */
+public class AirDateIndexTest {
+
+    // Logger
+    private static final Logger LOG = LoggerFactory.getLogger(AirDateIndexTest.class);
+    private static final String URL = "http://localhost/test";
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.configure();
+    }
+
+    @Test
+    public void testQueries() throws TVRageException, IOException {
+        LOG.info("test queries");
+        EpisodeList chuck = readEpisodeList();
+        EpisodeList other = new EpisodeList();
+        other.setShowName("Other");
+        for (Episode episode : chuck.getEpisodes().values()) {
+            if (episode.getSeason() == 2) {
+                other.addEpisode(new Episode(episode));
+            }
+        }
+
+        AirDateIndex index = new AirDateIndex();
+        index.update("15614", chuck);
+        index.update("1", other);
+        assertEquals(2, index.getShowCount());
+
+        Episode episode = chuck.getEpisode(2, 3);
+        List<AirDateIndex.Entry> aired = index.getAiredOn(episode.getAirLocalDate());
+        assertEquals(2, aired.size());
+        assertEquals("1", aired.get(0).getShowID());
+        assertEquals("Chuck Versus Episode 2-3 & More", aired.get(1).getEpisode().getTitle());
+
+        LocalDate from = LocalDate.of(2008, 1, 1);
+        LocalDate to = LocalDate.of(2009, 6, 30);
+        assertEquals(search(from, to, chuck) + search(from, to, other), index.getRange(from, to).size());
+        assertEquals(index.getRange(from, to).size(), index.countRange(from, to));
+        assertTrue(index.getRange(to, from).isEmpty());
+
+        // Refreshing a show replaces its episodes
+        int total = index.size();
+        other.getEpisodes().remove(new EpisodeNumber(2, 3));
+        index.update("1", other);
+        assertEquals(total - 1, index.size());
+        assertEquals(1, index.getAiredOn(episode.getAirLocalDate()).size());
+        checkOrder(index.getRange(LocalDate.MIN, LocalDate.MAX));
+
+        // A bulk update gives the same order as the single updates
+        Map<String, EpisodeList> lists = new HashMap<>();
+        lists.put("1", other);
+        lists.put("15614", chuck);
+        AirDateIndex bulk = new AirDateIndex();
+        bulk.updateAll(lists);
+        assertEquals(index.getRange(LocalDate.MIN, LocalDate.MAX).toString(), bulk.getRange(LocalDate.MIN, LocalDate.MAX).toString());
+
+        index.remove("15614");
+        assertEquals(search(LocalDate.MIN, LocalDate.MAX, other), index.size());
+        assertEquals(1, index.getShowCount());
+    }
+
+    @Test
+    public void testUpdateOrder() throws Exception {
+        LOG.info("test update order");
+        final EpisodeList newer = readEpisodeList();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        // An older list that is still being indexed when the newer one is added
+        final EpisodeList older = new EpisodeList() {
+            @Override
+            public EpisodeIndex getIndex() {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return new EpisodeIndex(new ArrayList<>(newer.getEpisodes().values()).subList(0, 1));
+            }
+        };
+
+        final AirDateIndex index = new AirDateIndex();
+        Thread thread = new Thread(() -> index.update("15614", older));
+        thread.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        index.update("15614", newer);
+        release.countDown();
+        thread.join(5000);
+
+        int expected = search(LocalDate.MIN, LocalDate.MAX, newer);
+        assertEquals("The older list should not replace the newer one", expected, index.size());
+
+        // Updating one show after a bulk update leaves the others
+        Map<String, EpisodeList> lists = new HashMap<>();
+        lists.put("1", newer);
+        lists.put("2", newer);
+        index.updateAll(lists);
+        index.update("1", newer);
+        assertEquals(expected * 3, index.size());
+        index.remove("2");
+        assertEquals(expected * 2, index.size());
+    }
+
+    @Test
+    public void testApiUpdates() throws TVRageException, IOException {
+        LOG.info("test updates from the API");
+        Path fixtures = folder.getRoot().toPath();
+        try (InputStream in = getClass().getResourceAsStream("/xml/episode_list.xml")) {
+            Files.copy(in, fixtures.resolve("episode_list.php_sid=15614.xml"));
+        }
+
+        AirDateIndex index = new AirDateIndex();
+        TVRageApi api = new TVRageApi("KEY", new ReplayTransport(fixtures));
+        api.setAirDateIndex(index);
+        api.getSeason("15614", 1);
+        assertEquals("Partial lists are not indexed", 0, index.size());
+
+        EpisodeList episodeList = api.getEpisodeList("15614");
+        assertEquals(search(LocalDate.MIN, LocalDate.MAX, episodeList), index.size());
+        assertEquals("Chuck", index.getAiredOn(episodeList.getEpisode(1, 1).getAirLocalDate()).get(0).getShowName());
+    }
+
+    private static int search(LocalDate from, LocalDate to, EpisodeList episodeList) {
+        int count = 0;
+        for (Episode episode : episodeList.getEpisodes().values()) {
+            LocalDate airDate = episode.getAirLocalDate();
+            if (airDate != null && !airDate.isBefore(from) && !airDate.isAfter(to)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void checkOrder(List<AirDateIndex.Entry> entries) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (AirDateIndex.Entry entry : entries) {
+            dates.add(entry.getAirDate());
+        }
+        List<LocalDate> sorted = new ArrayList<>(dates);
+        sorted.sort(null);
+        assertEquals(sorted, dates);
+    }
+
+    private EpisodeList readEpisodeList() throws TVRageException, IOException {
+        try (InputStream in = getClass().getResourceAsStream("/xml/episode_list.xml")) {
+            return ParserEngine.STAX.parseEpisodeList(in, URL);
+        }
+    }
+}
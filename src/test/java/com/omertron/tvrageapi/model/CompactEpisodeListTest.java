@@ -0,0 +1,108 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.model;
+
+import com.omertron.tvrageapi.TVRageException;
+import com.omertron.tvrageapi.TestLogger;
+import com.omertron.tvrageapi.cache.CacheType;
+import com.omertron.tvrageapi.cache.ResultCache;
+import com.omertron.tvrageapi.cache.ResultCacheBuilder;
+import com.omertron.tvrageapi.tools.ParserEngine;
+import java.io.IOException;
+import java.io.InputStream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Check the compact list holds the same episodes as the list it was created from
+ *
+ * @author Stuart.Boston
+ */
+public class CompactEpisodeListTest {
+
+    // Logger
+    private static final Logger LOG = LoggerFactory.getLogger(CompactEpisodeListTest.class);
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.configure();
+    }
+
+    @Test
+    public void testEpisodes() throws TVRageException, IOException {
+        LOG.info("test episodes");
+        EpisodeList source;
+        try (InputStream in = getClass().getResourceAsStream("/xml/episode_list.xml")) {
+            source = ParserEngine.STAX.parseEpisodeList(in, "http://localhost/test");
+        }
+        CompactEpisodeList compact = new CompactEpisodeList(source);
+
+        assertEquals(source.getShowName(), compact.getShowName());
+        assertEquals(source.getTotalSeasons(), compact.getTotalSeasons());
+        assertEquals(91, compact.getEpisodeCount());
+        for (Episode episode : source.getEpisodes().values()) {
+            assertEquals(episode.toString(), compact.getEpisode(episode.getSeason(), episode.getEpisode()).toString());
+        }
+        assertEquals(source.getEpisodes().toString(), compact.getEpisodes().toString());
+        assertNull(compact.getEpisode(9, 1));
+
+        int absolute = source.getEpisode(2, 3).getEpisodeNumber().getAbsolute();
+        assertEquals("Chuck Versus Episode 2-3 & More", compact.getEpisodeByAbsolute(absolute).getTitle());
+
+        // A copy can be changed again
+        EpisodeList copy = new EpisodeList(compact);
+        assertEquals(source.getEpisodes().toString(), copy.getEpisodes().toString());
+        copy.addEpisode(new Episode());
+    }
+
+    @Test
+    public void testReadOnly() {
+        LOG.info("test read only");
+        EpisodeList source = new EpisodeList();
+        source.setShowName("Test");
+        Episode episode = new Episode();
+        episode.setEpisodeNumber(new EpisodeNumber(1, 1));
+        episode.setTitle("Pilot");
+        source.addEpisode(episode);
+        CompactEpisodeList compact = new CompactEpisodeList(source);
+
+        // Changes to the episodes are not kept
+        compact.getEpisode(1, 1).setTitle("Changed");
+        assertEquals("Pilot", compact.getEpisode(1, 1).getTitle());
+
+        try {
+            compact.addEpisode(new Episode());
+            fail("List should be read only");
+        } catch (UnsupportedOperationException ex) {
+            LOG.trace("Expected: {}", ex.getMessage());
+        }
+
+        // The cache does not need to copy it
+        ResultCache cache = new ResultCacheBuilder().build();
+        cache.put(CacheType.EPISODE_LIST, "1", compact);
+        assertSame(compact, cache.get(CacheType.EPISODE_LIST, "1"));
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.model;
+
+import com.omertron.tvrageapi.TestLogger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Check the episode lookups of the EpisodeList
+ *
+ * @author Stuart.Boston
+ */
+public class EpisodeIndexTest {
+
+    // Logger
+    private static final Logger LOG = LoggerFactory.getLogger(EpisodeIndexTest.class);
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.configure();
+    }
+
+    @Test
+    public void testLookup() {
+        LOG.info("test lookup");
+        EpisodeList episodeList = new EpisodeList();
+        int absolute = 0;
+        for (int season = 1; season <= 3; season++) {
+            for (int number = 1; number <= 1500; number++) {
+                episodeList.addEpisode(createEpisode(season, number, ++absolute));
+            }
+        }
+        // A special with no absolute number
+        episodeList.addEpisode(createEpisode(0, 1, 0));
+
+        // More than 1,000 episodes in a season must not collide with the next season
+        assertEquals(4501, episodeList.getEpisodes().size());
+        assertEquals("1x1001", episodeList.getEpisode(1, 1001).getTitle());
+        assertEquals("2x1", episodeList.getEpisode(2, 1).getTitle());
+        assertEquals("3x1500", episodeList.getEpisode("3", "1500").getTitle());
+        assertEquals("0x1", episodeList.getEpisode(new EpisodeNumber(0, 1)).getTitle());
+        assertNull(episodeList.getEpisode(4, 1));
+        assertNull(episodeList.getEpisode(1, 0));
+
+        assertEquals("2x1", episodeList.getEpisodeByAbsolute(1501).getTitle());
+        assertEquals("3x1500", episodeList.getEpisodeByAbsolute(4500).getTitle());
+        assertNull(episodeList.getEpisodeByAbsolute(0));
+        assertNull(episodeList.getEpisodeByAbsolute(4501));
+
+        // The index is replaced when an episode is added
+        episodeList.addEpisode(createEpisode(4, 1, 4501));
+        assertEquals("4x1", episodeList.getEpisode(4, 1).getTitle());
+        assertEquals("4x1", episodeList.getEpisodeByAbsolute(4501).getTitle());
+    }
+
+    @Test
+    public void testWriteThroughMap() {
+        LOG.info("test writes through the episode map");
+        EpisodeList episodeList = new EpisodeList();
+        Map<EpisodeNumber, Episode> episodes = episodeList.getEpisodes();
+        assertNull(episodeList.getEpisode(1, 1));
+
+        Episode episode = createEpisode(1, 1, 1);
+        episodes.put(episode.getEpisodeNumber(), episode);
+        assertEquals(1, episodeList.getEpisodeCount());
+        assertEquals("1x1", episodeList.getEpisode(1, 1).getTitle());
+        assertEquals("1x1", episodeList.getEpisodeByAbsolute(1).getTitle());
+        assertEquals(1, episodeList.getIndex().size());
+
+        episodes.remove(episode.getEpisodeNumber());
+        assertNull(episodeList.getEpisode(1, 1));
+        assertNull(episodeList.getEpisodeByAbsolute(1));
+
+        // A read only list keeps its index
+        episodes.put(episode.getEpisodeNumber(), episode);
+        EpisodeList readOnly = ImmutableEpisodeList.copyOf(episodeList);
+        assertSame(readOnly.getIndex(), readOnly.getIndex());
+        assertEquals("1x1", readOnly.getEpisode(1, 1).getTitle());
+        assertEquals("1x1", readOnly.getEpisodeByAbsolute(1).getTitle());
+    }
+
+    @Test
+    public void testHeldIndex() {
+        LOG.info("test lookups through a held index");
+        EpisodeList episodeList = new EpisodeList();
+        int absolute = 0;
+        for (int season = 1; season <= 10; season++) {
+            for (int number = 1; number <= 24; number++) {
+                episodeList.addEpisode(createEpisode(season, number, ++absolute));
+            }
+        }
+
+        // Bulk lookups on a list that can be changed use the index, which finds the same episodes as the list
+        EpisodeIndex index = episodeList.getIndex();
+        for (int season = 0; season <= 11; season++) {
+            for (int number = 0; number <= 25; number++) {
+                assertSame(episodeList.getEpisode(season, number), index.get(season, number));
+            }
+        }
+        for (int loop = 0; loop <= absolute + 1; loop++) {
+            assertSame(episodeList.getEpisodeByAbsolute(loop), index.getByAbsolute(loop));
+        }
+
+        // The held index is not changed by later additions, a new one is needed to find them
+        episodeList.addEpisode(createEpisode(11, 1, ++absolute));
+        assertNull(index.get(11, 1));
+        assertEquals("11x1", episodeList.getIndex().get(11, 1).getTitle());
+    }
+
+    @Test
+    public void testRepeatedNumber() {
+        LOG.info("test repeated episode number");
+        List<Episode> episodes = new ArrayList<>();
+        episodes.add(createEpisode(1, 1, 1));
+        episodes.add(createEpisode(1, 2, 2));
+        episodes.add(createEpisode(1, 2, 3));
+        episodes.add(createEpisode(1, 3, 0));
+        episodes.add(createEpisode(1, 3, 4));
+        EpisodeIndex index = new EpisodeIndex(episodes);
+
+        // The last of the repeated episodes is kept, and only its absolute number finds it
+        assertEquals(3, index.size());
+        assertSame(episodes.get(2), index.get(1, 2));
+        assertNull(index.getByAbsolute(2));
+        assertSame(episodes.get(2), index.getByAbsolute(3));
+        assertSame(episodes.get(4), index.get(1, 3));
+        assertSame(episodes.get(4), index.getByAbsolute(4));
+        assertSame(episodes.get(0), index.getByAbsolute(1));
+    }
+
+    @Test
+    public void testOrder() {
+        LOG.info("test order");
+        assertTrue(new EpisodeNumber(1, 1001).compareTo(new EpisodeNumber(2, 1)) < 0);
+        assertTrue(new EpisodeNumber(2, 1).compareTo(new EpisodeNumber(1, 1001)) > 0);
+        assertEquals(0, new EpisodeNumber(1, 5, 5).compareTo(new EpisodeNumber(1, 5, 9)));
+        assertTrue(EpisodeIndex.pack(1, -1) < EpisodeIndex.pack(1, 0));
+        assertTrue(EpisodeIndex.pack(1, Integer.MAX_VALUE) < EpisodeIndex.pack(2, Integer.MIN_VALUE));
+    }
+
+    private static Episode createEpisode(int season, int number, int absolute) {
+        Episode episode = new Episode();
+        episode.setEpisodeNumber(new EpisodeNumber(season, number, absolute));
+        episode.setTitle(season + "x" + number);
+        return episode;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.model;
+
+import com.omertron.tvrageapi.TVRageApi;
+import com.omertron.tvrageapi.TVRageException;
+import com.omertron.tvrageapi.TestLogger;
+import com.omertron.tvrageapi.cache.CacheType;
+import com.omertron.tvrageapi.cache.ResultCache;
+import com.omertron.tvrageapi.cache.ResultCacheBuilder;
+import com.omertron.tvrageapi.tools.ParserEngine;
+import com.omertron.tvrageapi.transport.ReplayTransport;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Check the immutable models cannot be changed and are shared by the cache
+ *
+ * @author Stuart.Boston
+ */
+public class ImmutableModelTest {
+
+    // Logger
+    private static final Logger LOG = LoggerFactory.getLogger(ImmutableModelTest.class);
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.configure();
+    }
+
+    @Test
+    public void testBuilders() {
+        LOG.info("test builders");
+        ImmutableEpisode episode = new EpisodeBuilder()
+                .setEpisodeNumber(1, 2, 2)
+                .setTitle(" Pilot ")
+                .setAirDate(LocalDate.of(2007, 9, 24))
+                .build();
+        assertEquals("Pilot", episode.getTitle());
+        assertEquals(2, episode.getEpisode());
+        assertEquals(LocalDate.of(2007, 9, 24), episode.getAirLocalDate());
+
+        ImmutableEpisodeList episodeList = new EpisodeListBuilder()
+                .setShowName("Chuck")
+                .setTotalSeasons(5)
+                .addEpisode(episode)
+                .build();
+        assertSame(episode, episodeList.getEpisode(1, 2));
+
+        ImmutableShowInfo showInfo = new ShowInfoBuilder()
+                .setShowID(15614)
+                .setShowName("Chuck")
+                .addGenre("Action")
+                .addNetwork("US", "NBC")
+                .build();
+        assertEquals("NBC", showInfo.getNetwork().get(0).getDetail());
+
+        expectReadOnly(() -> episode.setTitle("Changed"));
+        expectReadOnly(() -> episode.getEpisodeNumber().setSeason(2));
+        expectReadOnly(() -> episodeList.addEpisode(new Episode()));
+        expectReadOnly(() -> episodeList.getEpisodes().clear());
+        expectReadOnly(() -> showInfo.addGenre("Comedy"));
+        expectReadOnly(() -> showInfo.getGenres().add("Comedy"));
+        expectReadOnly(() -> showInfo.getNetwork().get(0).setDetail("CBS"));
+
+        // The copy constructors give models that can be changed
+        Episode copy = new Episode(episode);
+        copy.setTitle("Changed");
+        copy.getEpisodeNumber().setSeason(2);
+        ShowInfo showCopy = new ShowInfo(showInfo);
+        showCopy.addGenre("Comedy");
+        showCopy.getNetwork().get(0).setDetail("CBS");
+        assertEquals("Pilot", episode.getTitle());
+        assertEquals(1, showInfo.getGenres().size());
+        assertEquals("NBC", showInfo.getNetwork().get(0).getDetail());
+    }
+
+    @Test
+    public void testShared() throws TVRageException, IOException {
+        LOG.info("test shared");
+        EpisodeList parsed;
+        try (InputStream in = getClass().getResourceAsStream("/xml/episode_list.xml")) {
+            parsed = ParserEngine.STAX.parseEpisodeList(in, "http://localhost/test");
+        }
+        ImmutableEpisodeList episodeList = ImmutableEpisodeList.copyOf(parsed);
+        assertSame(episodeList, ImmutableEpisodeList.copyOf(episodeList));
+        assertEquals(new ArrayList<>(parsed.getEpisodes().values()), new ArrayList<>(episodeList.getEpisodes().values()));
+        assertEquals(parsed.getEpisode(2, 3).getSummary(), episodeList.getEpisode(2, 3).getSummary());
+
+        ResultCache cache = new ResultCacheBuilder().build();
+        cache.put(CacheType.EPISODE_LIST, "15614", episodeList);
+        assertSame(episodeList, cache.get(CacheType.EPISODE_LIST, "15614"));
+        cache.put(CacheType.EPISODE_LIST, "15614", parsed);
+        assertNotSame(parsed, cache.get(CacheType.EPISODE_LIST, "15614"));
+
+        // Search results are copied, but the shows in them are shared
+        List<ShowInfo> shows = new ArrayList<>();
+        shows.add(new ShowInfoBuilder().setShowID(1).setShowName("Show").build());
+        cache.put(CacheType.SEARCH, "show", shows);
+        List<ShowInfo> cached = cache.get(CacheType.SEARCH, "show");
+        assertNotSame(shows, cached);
+        assertSame(shows.get(0), cached.get(0));
+    }
+
+    @Test
+    public void testSharedCache() throws TVRageException, IOException {
+        LOG.info("test cache shared with a mutable instance");
+        Path fixtures = folder.getRoot().toPath();
+        try (InputStream in = getClass().getResourceAsStream("/xml/showinfo.xml")) {
+            Files.copy(in, fixtures.resolve("showinfo.php_sid=15614.xml"));
+        }
+        ReplayTransport replay = new ReplayTransport(fixtures);
+        ResultCache cache = new ResultCacheBuilder().build();
+
+        TVRageApi immutable = new TVRageApi("KEY", replay);
+        immutable.setResultCache(cache);
+        immutable.setImmutableResults(true);
+        TVRageApi mutable = new TVRageApi("KEY", replay);
+        mutable.setResultCache(cache);
+
+        assertTrue(immutable.getShowInfo(15614) instanceof ImmutableShowInfo);
+        ShowInfo showInfo = mutable.getShowInfo(15614);
+        showInfo.setShowName("Changed");
+        showInfo.addGenre("Comedy");
+        assertEquals("Chuck", immutable.getShowInfo(15614).getShowName());
+        assertEquals("Read once and then shared", 1, replay.getServedCount());
+
+        // A result cached by the mutable instance is frozen for the immutable one
+        cache.invalidateAll();
+        mutable.getShowInfo(15614);
+        assertTrue(immutable.getShowInfo(15614) instanceof ImmutableShowInfo);
+    }
+
+    private static void expectReadOnly(Runnable change) {
+        try {
+            change.run();
+            fail("Change should not be allowed");
+        } catch (UnsupportedOperationException ex) {
+            LOG.trace("Expected: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.tools;
+
+import com.omertron.tvrageapi.TestLogger;
+import java.time.LocalDate;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.pojava.datetime.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Check the TVRage date formats are parsed
+ *
+ * @author Stuart.Boston
+ */
+public class DateParserTest {
+
+    // Logger
+    private static final Logger LOG = LoggerFactory.getLogger(DateParserTest.class);
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.configure();
+    }
+
+    @Test
+    public void testFormats() {
+        LOG.info("test formats");
+        assertEquals(LocalDate.of(2007, 9, 24), DateParser.parse("2007-09-24"));
+        assertEquals(LocalDate.of(2007, 9, 4), DateParser.parse("2007-9-4"));
+        assertEquals(LocalDate.of(2007, 9, 24), DateParser.parse("Sep/24/2007"));
+        assertEquals(LocalDate.of(2012, 1, 27), DateParser.parse(" jan/27/2012 "));
+        assertEquals(LocalDate.of(2007, 9, 24), DateParser.parse("September/24/2007"));
+
+        // Partial dates are the start of the month
+        assertEquals(LocalDate.of(2007, 9, 1), DateParser.parse("2007-09"));
+        assertEquals(LocalDate.of(2007, 9, 1), DateParser.parse("2007-09-00"));
+        assertEquals(LocalDate.of(2007, 9, 1), DateParser.parse("Sep/2007"));
+
+        // Other formats are still parsed
+        assertEquals(LocalDate.of(2007, 9, 24), DateParser.parse("24/Sep/2007"));
+    }
+
+    @Test
+    public void testInvalid() {
+        LOG.info("test invalid");
+        assertNull(DateParser.parse(null));
+        assertNull(DateParser.parse(""));
+        assertNull(DateParser.parse("0000-00-00"));
+        assertNull(DateParser.parse("2007-00-00"));
+        assertNull(DateParser.parse("2007"));
+        assertNull(DateParser.parse("2007-13-01"));
+        assertNull(DateParser.parse("2007-02-30"));
+        assertNull(DateParser.parse("UNKNOWN"));
+    }
+
+    @Test
+    public void testSameAsGeneralParser() {
+        LOG.info("test same as general parser");
+        for (String text : new String[]{"2007-09-24", "Sep/24/2007", "Feb/29/2008", "2010-12-31", "Dec/2010"}) {
+            assertEquals(text, new DateTime(text).toDate(), DateParser.parseDate(text));
+        }
+
+        // Repeated dates are remembered
+        LocalDate first = DateParser.parse("2011-03-14");
+        assertSame(first, DateParser.parse(new String("2011-03-14")));
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.tools;
+
+import com.omertron.tvrageapi.TVRageException;
+import com.omertron.tvrageapi.TestLogger;
+import com.omertron.tvrageapi.model.Episode;
+import com.omertron.tvrageapi.model.EpisodeList;
+import com.omertron.tvrageapi.model.EpisodeNumber;
+import com.omertron.tvrageapi.model.ImmutableEpisodeList;
+import com.omertron.tvrageapi.model.ShowInfo;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Check the binary form of the models
+ *
+ * @author Stuart.Boston
+ */
+public class ModelCodecTest {
+
+    // Logger
+    private static final Logger LOG = LoggerFactory.getLogger(ModelCodecTest.class);
+    private static final String URL = "http://localhost/test";
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.configure();
+    }
+
+    @Test
+    public void testRoundTrip() throws TVRageException, IOException {
+        LOG.info("test round trip");
+        EpisodeList episodeList = readEpisodeList();
+        EpisodeList decoded = ModelCodec.decodeEpisodeList(ModelCodec.encode(episodeList));
+        assertEquals(91, decoded.getEpisodeCount());
+        assertEquals(episodeList.toString(), decoded.toString());
+        assertEquals("Chuck Versus Episode 2-3 & More", decoded.getEpisode(2, 3).getTitle());
+        assertNull(decoded.getEpisode(5, 13).getAirDate());
+
+        // Immutable lists give the same data
+        assertEquals(decoded.toString(), ModelCodec.decodeEpisodeList(ModelCodec.encode(ImmutableEpisodeList.copyOf(episodeList))).toString());
+
+        List<ShowInfo> shows;
+        try (InputStream in = getResource("showinfo.xml")) {
+            shows = ParserEngine.STAX.parseShowInfo(in, URL);
+        }
+        ShowInfo showInfo = ModelCodec.decodeShowInfo(ModelCodec.encode(shows.get(0)));
+        assertEquals("NBC", showInfo.getNetwork().get(0).getDetail());
+        assertEquals(shows.get(0).toString(), showInfo.toString());
+
+        try (InputStream in = getResource("search.xml")) {
+            shows = ParserEngine.STAX.parseSearchShow(in, URL);
+        }
+        assertEquals(shows.toString(), ModelCodec.decodeShowList(ModelCodec.encodeShowList(shows)).toString());
+
+        // Values the responses do not normally hold
+        Episode episode = new Episode();
+        episode.setEpisodeNumber(new EpisodeNumber(-1, Integer.MIN_VALUE, Integer.MAX_VALUE));
+        episode.setTitle("Ça «marche» 日本");
+        episode.setAirDate(LocalDate.of(1900, 2, 28));
+        episode.setRating(7.123f);
+        Episode copy = ModelCodec.decodeEpisode(ModelCodec.encode(episode));
+        assertEquals(episode.toString(), copy.toString());
+        episode.setRating(-0.0f);
+        assertEquals(Float.floatToIntBits(-0.0f), Float.floatToIntBits(ModelCodec.decodeEpisode(ModelCodec.encode(episode)).getRating()));
+    }
+
+    @Test
+    public void testInvalidData() throws TVRageException, IOException {
+        LOG.info("test invalid data");
+        byte[] data = ModelCodec.encode(readEpisodeList());
+        checkInvalid(Arrays.copyOf(data, data.length - 1));
+        checkInvalid(Arrays.copyOf(data, data.length + 1));
+        checkInvalid(new byte[]{'<', '?', 'x', 'm', 'l'});
+
+        byte[] newer = data.clone();
+        newer[2] = (byte) (ModelCodec.VERSION + 1);
+        checkInvalid(newer);
+
+        try {
+            ModelCodec.decodeEpisode(data);
+            fail("An episode list should not decode as an episode");
+        } catch (TVRageException ex) {
+            LOG.info("Expected: {}", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testBenchmark() throws TVRageException, IOException, ClassNotFoundException {
+        LOG.info("test benchmark against serialization");
+        EpisodeList episodeList = readEpisodeList();
+        byte[] binary = ModelCodec.encode(episodeList);
+        byte[] serialized = serialize(episodeList);
+        LOG.info("Encoded {} episodes in {} bytes, serialized in {} bytes", episodeList.getEpisodeCount(), binary.length, serialized.length);
+        assertTrue("Binary form should be smaller", binary.length < serialized.length);
+
+        int iterations = 200;
+        long start = System.nanoTime();
+        for (int loop = 0; loop < iterations; loop++) {
+            ModelCodec.decodeEpisodeList(ModelCodec.encode(episodeList));
+        }
+        long codec = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int loop = 0; loop < iterations; loop++) {
+            deserialize(serialize(episodeList));
+        }
+        long java = System.nanoTime() - start;
+        LOG.info("Round trip: codec {}us, serialization {}us", codec / iterations / 1000, java / iterations / 1000);
+    }
+
+    private void checkInvalid(byte[] data) {
+        try {
+            ModelCodec.decodeEpisodeList(data);
+            fail("Invalid data should not decode");
+        } catch (TVRageException ex) {
+            LOG.info("Expected: {}", ex.getMessage());
+        }
+    }
+
+    private EpisodeList readEpisodeList() throws TVRageException, IOException {
+        try (InputStream in = getResource("episode_list.xml")) {
+            return ParserEngine.STAX.parseEpisodeList(in, URL);
+        }
+    }
+
+    private static byte[] serialize(Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream stream = new ObjectOutputStream(out)) {
+            stream.writeObject(value);
+        }
+        return out.toByteArray();
+    }
+
+    private static Object deserialize(byte[] data) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return stream.readObject();
+        }
+    }
+
+    private InputStream getResource(String name) {
+        return getClass().getResourceAsStream("/xml/" + name);
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.tools;
+
+import com.omertron.tvrageapi.EpisodeConsumer;
+import com.omertron.tvrageapi.TVRageApi;
+import com.omertron.tvrageapi.TVRageException;
+import com.omertron.tvrageapi.TestLogger;
+import com.omertron.tvrageapi.model.Episode;
+import com.omertron.tvrageapi.model.EpisodeField;
+import com.omertron.tvrageapi.model.EpisodeList;
+import com.omertron.tvrageapi.model.ShowField;
+import com.omertron.tvrageapi.model.ShowInfo;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Check that the parser engines produce the same results from the same responses
+ *
+ * @author Stuart.Boston
+ */
+public class ParserEngineTest {
+
+    // Logger
+    private static final Logger LOG = LoggerFactory.getLogger(ParserEngineTest.class);
+    private static final String URL = "http://localhost/test";
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.configure();
+    }
+
+    @Test
+    public void testParseEpisodeInfo() throws TVRageException, IOException {
+        LOG.info("test parseEpisodeInfo");
+        Episode dom, stax;
+        try (InputStream in = getResource("episodeinfo.xml")) {
+            dom = ParserEngine.DOM.parseEpisodeInfo(in, URL);
+        }
+        try (InputStream in = getResource("episodeinfo.xml")) {
+            stax = ParserEngine.STAX.parseEpisodeInfo(in, URL);
+        }
+
+        assertEquals("Chuck Versus the Intersect", dom.getTitle());
+        assertEquals(1, dom.getSeason());
+        assertEquals(1, dom.getEpisode());
+        assertEquals(dom.toString(), stax.toString());
+    }
+
+    @Test
+    public void testParseEpisodeList() throws TVRageException, IOException {
+        LOG.info("test parseEpisodeList");
+        EpisodeList dom, stax;
+        try (InputStream in = getResource("episode_list.xml")) {
+            dom = ParserEngine.DOM.parseEpisodeList(in, URL);
+        }
+        try (InputStream in = getResource("episode_list.xml")) {
+            stax = ParserEngine.STAX.parseEpisodeList(in, URL);
+        }
+
+        assertEquals("Chuck", dom.getShowName());
+        assertEquals(5, dom.getTotalSeasons());
+        assertEquals(91, dom.getEpisodes().size());
+        assertEquals("Chuck Versus Episode 2-3 & More", dom.getEpisode(2, 3).getTitle());
+        assertNull("Placeholder date should not be parsed", dom.getEpisode(5, 13).getAirDate());
+
+        assertEquals(dom.getShowName(), stax.getShowName());
+        assertEquals(dom.getTotalSeasons(), stax.getTotalSeasons());
+        assertEquals(dom.getEpisodes().toString(), stax.getEpisodes().toString());
+    }
+
+    @Test
+    public void testStreamEpisodeList() throws TVRageException, IOException {
+        LOG.info("test streamEpisodeList");
+        final List<Episode> episodes = new ArrayList<>();
+        final List<String> shows = new ArrayList<>();
+        int count;
+        try (InputStream in = getResource("episode_list.xml")) {
+            count = StaxParser.streamEpisodeList(XmlParserFactory.getDefault(), in, URL, new EpisodeConsumer() {
+                @Override
+                public void onShow(String showName, int totalSeasons) {
+                    shows.add(showName + ":" + totalSeasons);
+                }
+
+                @Override
+                public boolean accept(Episode episode) {
+                    episodes.add(episode);
+                    return true;
+                }
+            });
+        }
+        assertEquals(91, count);
+        assertEquals(91, episodes.size());
+        assertEquals("[Chuck:5]", shows.toString());
+        assertEquals("Chuck Versus Episode 1-1 & More", episodes.get(0).getTitle());
+
+        // Stop after the third episode
+        episodes.clear();
+        try (InputStream in = getResource("episode_list.xml")) {
+            count = StaxParser.streamEpisodeList(XmlParserFactory.getDefault(), in, URL, episode -> {
+                episodes.add(episode);
+                return episodes.size() < 3;
+            });
+        }
+        assertEquals(3, count);
+        assertEquals(3, episodes.size());
+    }
+
+    @Test
+    public void testFieldProjection() throws TVRageException, IOException {
+        LOG.info("test field projection");
+        EpisodeList dom, stax;
+        try (InputStream in = getResource("episode_list.xml")) {
+            dom = ParserEngine.DOM.parseEpisodeList(XmlParserFactory.getDefault(), in, URL, EnumSet.of(EpisodeField.TITLE));
+        }
+        try (InputStream in = getResource("episode_list.xml")) {
+            stax = ParserEngine.STAX.parseEpisodeList(XmlParserFactory.getDefault(), in, URL, EnumSet.of(EpisodeField.TITLE));
+        }
+
+        assertEquals(91, dom.getEpisodes().size());
+        Episode episode = dom.getEpisode(2, 3);
+        assertEquals("Chuck Versus Episode 2-3 & More", episode.getTitle());
+        assertEquals(TVRageApi.UNKNOWN, episode.getLink());
+        assertNull(episode.getAirDate());
+        assertEquals(dom.getEpisodes().toString(), stax.getEpisodes().toString());
+
+        List<ShowInfo> shows;
+        try (InputStream in = getResource("showinfo.xml")) {
+            shows = ParserEngine.STAX.parseShowInfo(XmlParserFactory.getDefault(), in, URL, EnumSet.of(ShowField.COUNTRY));
+        }
+        assertEquals("Chuck", shows.get(0).getShowName());
+        assertEquals("US", shows.get(0).getCountry());
+        assertTrue(shows.get(0).getGenres().isEmpty());
+        assertTrue(shows.get(0).getNetwork().isEmpty());
+    }
+
+    @Test
+    public void testExternalEntity() throws IOException {
+        LOG.info("test external entity");
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>"
+                + "<!DOCTYPE x [<!ENTITY e SYSTEM \"file:///etc/passwd\">]>"
+                + "<Showinfo><showid>1</showid><showname>&e;</showname></Showinfo>";
+        for (ParserEngine engine : ParserEngine.values()) {
+            try (InputStream in = new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))) {
+                List<ShowInfo> shows = engine.parseShowInfo(in, URL);
+                for (ShowInfo show : shows) {
+                    assertFalse(engine + " resolved the external entity", show.toString().contains("root:"));
+                }
+            } catch (TVRageException ex) {
+                assertEquals(engine + " failed for the wrong reason", ApiExceptionType.MAPPING_FAILED, ex.getExceptionType());
+            }
+        }
+    }
+
+    @Test
+    public void testParseSeasons() throws TVRageException, IOException {
+        LOG.info("test parseSeasons");
+        EpisodeList full, dom, stax;
+        Set<Integer> seasons = new HashSet<>(Arrays.asList(2, 4));
+        try (InputStream in = getResource("episode_list.xml")) {
+            full = ParserEngine.STAX.parseEpisodeList(in, URL);
+        }
+        try (InputStream in = getResource("episode_list.xml")) {
+            dom = ParserEngine.DOM.parseEpisodeList(XmlParserFactory.getDefault(), in, URL, EpisodeField.ALL, seasons);
+        }
+        try (InputStream in = getResource("episode_list.xml")) {
+            stax = ParserEngine.STAX.parseEpisodeList(XmlParserFactory.getDefault(), in, URL, EpisodeField.ALL, seasons);
+        }
+
+        int expected = 0;
+        for (Episode episode : full.getEpisodes().values()) {
+            if (seasons.contains(episode.getSeason())) {
+                expected++;
+            }
+        }
+        assertTrue(expected > 0);
+        assertEquals(expected, dom.getEpisodes().size());
+        assertEquals("Chuck", dom.getShowName());
+        assertEquals(5, dom.getTotalSeasons());
+        assertEquals(full.getEpisode(2, 3).toString(), dom.getEpisode(2, 3).toString());
+        assertNull(dom.getEpisode(1, 1));
+        assertEquals(dom.toString(), stax.toString());
+    }
+
+    @Test
+    public void testParseShowInfo() throws TVRageException, IOException {
+        LOG.info("test parseShowInfo");
+        List<ShowInfo> dom, stax;
+        try (InputStream in = getResource("showinfo.xml")) {
+            dom = ParserEngine.DOM.parseShowInfo(in, URL);
+        }
+        try (InputStream in = getResource("showinfo.xml")) {
+            stax = ParserEngine.STAX.parseShowInfo(in, URL);
+        }
+
+        assertEquals(1, dom.size());
+        ShowInfo showInfo = dom.get(0);
+        assertEquals(15614, showInfo.getShowID());
+        assertEquals("Chuck", showInfo.getShowName());
+        assertEquals("US", showInfo.getCountry());
+        assertEquals(3, showInfo.getGenres().size());
+        assertEquals(2, showInfo.getAkas().size());
+        assertEquals("NBC", showInfo.getNetwork().get(0).getDetail());
+        assertEquals(dom.toString(), stax.toString());
+    }
+
+    @Test
+    public void testParseSearchShow() throws TVRageException, IOException {
+        LOG.info("test parseSearchShow");
+        List<ShowInfo> dom, stax;
+        try (InputStream in = getResource("search.xml")) {
+            dom = ParserEngine.DOM.parseSearchShow(in, URL);
+        }
+        try (InputStream in = getResource("search.xml")) {
+            stax = ParserEngine.STAX.parseSearchShow(in, URL);
+        }
+
+        assertEquals(2, dom.size());
+        assertEquals("Chuck", dom.get(0).getShowName());
+        assertEquals("http://www.tvrage.com/Chuck", dom.get(0).getShowLink());
+        assertEquals(TVRageApi.UNKNOWN, dom.get(0).getSummary());
+        assertEquals(dom.toString(), stax.toString());
+    }
+
+    private InputStream getResource(String name) {
+        return getClass().getResourceAsStream("/xml/" + name);
+    }
+}
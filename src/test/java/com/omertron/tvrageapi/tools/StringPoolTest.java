@@ -0,0 +1,94 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.tools;
+
+import com.omertron.tvrageapi.TVRageException;
+import com.omertron.tvrageapi.TestLogger;
+import com.omertron.tvrageapi.model.ShowInfo;
+import java.io.IOException;
+import java.io.InputStream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Check the repeated values are shared
+ *
+ * @author Stuart.Boston
+ */
+public class StringPoolTest {
+
+    // Logger
+    private static final Logger LOG = LoggerFactory.getLogger(StringPoolTest.class);
+    private static final String URL = "http://localhost/test";
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.configure();
+    }
+
+    @Test
+    public void testPool() {
+        LOG.info("test pool");
+        StringPool pool = new StringPool(2);
+        String first = pool.get(new String("Scripted"));
+        assertSame(first, pool.get(new String("Scripted")));
+        assertSame(first, pool.get(" Scripted "));
+        assertNull(pool.get(null));
+
+        pool.get("Ended");
+        assertEquals(2, pool.size());
+
+        // The pool is full, so new values are not kept
+        String extra = new String("Returning Series");
+        assertSame(extra, pool.get(extra));
+        assertNotSame(extra, pool.get(new String("Returning Series")));
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void testParsedValues() throws TVRageException, IOException {
+        LOG.info("test parsed values");
+        for (ParserEngine engine : ParserEngine.values()) {
+            ShowInfo first = parse(engine);
+            ShowInfo second = parse(engine);
+
+            assertEquals("US", first.getCountry());
+            assertSame(first.getCountry(), second.getCountry());
+            assertSame(first.getStatus(), second.getStatus());
+            assertSame(first.getClassification(), second.getClassification());
+            assertSame(first.getAirDay(), second.getAirDay());
+            assertSame(first.getTimezone(), second.getTimezone());
+            assertSame(first.getGenres().get(0), second.getGenres().get(0));
+            assertSame(first.getNetwork().get(0).getDetail(), second.getNetwork().get(0).getDetail());
+        }
+    }
+
+    private ShowInfo parse(ParserEngine engine) throws TVRageException, IOException {
+        try (InputStream in = getClass().getResourceAsStream("/xml/showinfo.xml")) {
+            return engine.parseShowInfo(in, URL).get(0);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import com.omertron.tvrageapi.TVRageException;
+import com.omertron.tvrageapi.TestLogger;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Check the circuit opens and closes for each endpoint
+ *
+ * @author Stuart.Boston
+ */
+public class CircuitBreakerTest {
+
+    // Logger
+    private static final Logger LOG = LoggerFactory.getLogger(CircuitBreakerTest.class);
+    private static final String URL = "http://localhost/showinfo.php?sid=1";
+    private static final String ENDPOINT = "showinfo.php";
+    private final AtomicLong now = new AtomicLong();
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.configure();
+    }
+
+    @Test
+    public void testOpenAndClose() throws TVRageException {
+        LOG.info("test open and close");
+        CircuitBreaker breaker = new CircuitBreakerBuilder()
+                .setFailureThreshold(3)
+                .setOpenDuration(10, TimeUnit.SECONDS)
+                .setTicker(now::get)
+                .build();
+        TVRageException serverError = new TVRageException(ApiExceptionType.HTTP_503_ERROR, "Unavailable", 503, URL);
+
+        for (int i = 0; i < 3; i++) {
+            assertFalse("Not a trial while the circuit is closed", breaker.acquire(ENDPOINT, URL));
+            breaker.onFailure(ENDPOINT, serverError);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(ENDPOINT));
+        assertEquals("Other endpoints are not affected", CircuitBreaker.State.CLOSED, breaker.getState("search.php"));
+        assertRejected(breaker, 10_000);
+
+        // A single trial is allowed once the open duration has passed, and failing it re-opens the circuit
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(ENDPOINT));
+        assertTrue(breaker.acquire(ENDPOINT, URL));
+        assertRejected(breaker, 1);
+        breaker.onFailure(ENDPOINT, serverError, true);
+        assertRejected(breaker, 10_000);
+
+        // A successful trial closes it
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        breaker.acquire(ENDPOINT, URL);
+        breaker.onSuccess(ENDPOINT);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(ENDPOINT));
+        breaker.acquire(ENDPOINT, URL);
+    }
+
+    @Test
+    public void testTrialRelease() throws TVRageException {
+        LOG.info("test trial release");
+        CircuitBreaker breaker = new CircuitBreakerBuilder()
+                .setFailureThreshold(2)
+                .setOpenDuration(10, TimeUnit.SECONDS)
+                .setTicker(now::get)
+                .build();
+        TVRageException serverError = new TVRageException(ApiExceptionType.HTTP_503_ERROR, "Unavailable", 503, URL);
+
+        // A request sent before the circuit opened is still running
+        boolean early = breaker.acquire(ENDPOINT, URL);
+        breaker.onFailure(ENDPOINT, serverError);
+        breaker.onFailure(ENDPOINT, serverError);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertTrue(breaker.acquire(ENDPOINT, URL));
+
+        // Its result does not free the trial, so no second trial is let through
+        breaker.onFailure(ENDPOINT, new TVRageException(ApiExceptionType.HTTP_503_ERROR, "Too Many Requests", 429, URL, 1000), early);
+        assertRejected(breaker, 1);
+        breaker.release(ENDPOINT, early);
+        assertRejected(breaker, 1);
+
+        // The trial itself can be released
+        breaker.release(ENDPOINT, true);
+        assertTrue(breaker.acquire(ENDPOINT, URL));
+    }
+
+    @Test
+    public void testIgnoredFailures() throws TVRageException {
+        LOG.info("test ignored failures");
+        CircuitBreaker breaker = new CircuitBreakerBuilder()
+                .setFailureThreshold(2)
+                .setTicker(now::get)
+                .build();
+
+        // Missing shows and throttling do not show the server is failing
+        breaker.onFailure(ENDPOINT, new TVRageException(ApiExceptionType.HTTP_503_ERROR, "Unavailable", 503, URL));
+        breaker.onFailure(ENDPOINT, new TVRageException(ApiExceptionType.HTTP_404_ERROR, "Not Found", 404, URL));
+        breaker.onFailure(ENDPOINT, new TVRageException(ApiExceptionType.HTTP_503_ERROR, "Unavailable", 503, URL));
+        breaker.onFailure(ENDPOINT, new TVRageException(ApiExceptionType.HTTP_503_ERROR, "Too Many Requests", 429, URL, 1000));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(ENDPOINT));
+
+        breaker.onFailure(ENDPOINT, new TVRageException(ApiExceptionType.CONNECTION_ERROR, "Refused", URL));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(ENDPOINT));
+    }
+
+    private static void assertRejected(CircuitBreaker breaker, long retryAfter) {
+        try {
+            breaker.acquire(ENDPOINT, URL);
+            fail("Request should be rejected");
+        } catch (TVRageException ex) {
+            assertEquals(ApiExceptionType.HTTP_503_ERROR, ex.getExceptionType());
+            assertEquals(retryAfter, ex.getRetryAfter());
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import com.omertron.tvrageapi.TVRageException;
+import com.omertron.tvrageapi.TestLogger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Check slow requests are hedged, within the allowed rate
+ *
+ * @author Stuart.Boston
+ */
+public class HedgingPolicyTest {
+
+    // Logger
+    private static final Logger LOG = LoggerFactory.getLogger(HedgingPolicyTest.class);
+    private static final String ENDPOINT = "showinfo.php";
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.configure();
+    }
+
+    @Test
+    public void testHedge() throws Exception {
+        LOG.info("test hedge");
+        HedgingPolicy hedging = createPolicy(1.0);
+        assertEquals("No delay until there are enough response times", -1, hedging.getDelay(ENDPOINT, TimeUnit.MILLISECONDS));
+        warmUp(hedging);
+        assertEquals(20, hedging.getDelay(ENDPOINT, TimeUnit.MILLISECONDS));
+
+        // The original never responds, so the hedged request is used
+        final AtomicInteger sent = new AtomicInteger();
+        Supplier<CompletableFuture<String>> request = () -> sent.incrementAndGet() == 1
+                ? new CompletableFuture<>()
+                : CompletableFuture.completedFuture("hedged");
+        assertEquals("hedged", hedging.execute(ENDPOINT, request).get(5, TimeUnit.SECONDS));
+        assertEquals(2, sent.get());
+        assertEquals(1, hedging.getHedgeCount());
+        assertEquals(1, hedging.getHedgeWins());
+    }
+
+    @Test
+    public void testCancelLoser() throws Exception {
+        LOG.info("test cancel loser");
+        HedgingPolicy hedging = createPolicy(1.0);
+        warmUp(hedging);
+
+        // The original is slow, so it is cancelled once the hedged request responds
+        final CompletableFuture<String> original = new CompletableFuture<>();
+        final AtomicInteger sent = new AtomicInteger();
+        CompletableFuture<String> result = hedging.execute(ENDPOINT, () -> sent.incrementAndGet() == 1
+                ? original
+                : CompletableFuture.completedFuture("hedged"));
+        assertEquals("hedged", result.get(5, TimeUnit.SECONDS));
+        assertTrue("The losing request should be cancelled", original.isCancelled());
+
+        // Cancelling the result cancels the requests
+        final CompletableFuture<String> pending = new CompletableFuture<>();
+        hedging.execute(ENDPOINT, () -> pending).cancel(true);
+        assertTrue(pending.isCancelled());
+    }
+
+    @Test
+    public void testRateLimit() throws Exception {
+        LOG.info("test rate limit");
+        HedgingPolicy hedging = createPolicy(0.0);
+        warmUp(hedging);
+
+        final AtomicInteger sent = new AtomicInteger();
+        CompletableFuture<String> slow = new CompletableFuture<>();
+        CompletableFuture<String> result = hedging.execute(ENDPOINT, () -> {
+            sent.incrementAndGet();
+            return slow;
+        });
+
+        Thread.sleep(100);
+        assertEquals("No hedge budget, so only one request is sent", 1, sent.get());
+        slow.complete("original");
+        assertEquals("original", result.get(5, TimeUnit.SECONDS));
+        assertEquals(0, hedging.getHedgeCount());
+    }
+
+    @Test
+    public void testRateLimited() throws Exception {
+        LOG.info("test rate limited hedge");
+        HedgingPolicy hedging = createPolicy(1.0);
+        warmUp(hedging);
+        AtomicLong now = new AtomicLong();
+        RateLimiter limiter = new RateLimiterBuilder()
+                .setPermitsPerSecond(10)
+                .setBurst(1)
+                .setTicker(now::get)
+                .build();
+
+        // The original takes the only slot, so there is none free for the hedge
+        limiter.acquire("KEY", ENDPOINT);
+        final AtomicInteger sent = new AtomicInteger();
+        CompletableFuture<String> slow = new CompletableFuture<>();
+        CompletableFuture<String> result = hedging.execute(ENDPOINT, () -> {
+            sent.incrementAndGet();
+            return slow;
+        }, () -> limiter.tryAcquire("KEY"));
+        Thread.sleep(100);
+        assertEquals("The hedge is skipped rather than waiting for the limiter", 1, sent.get());
+        assertEquals(0, hedging.getHedgeCount());
+        slow.complete("original");
+        assertEquals("original", result.get(5, TimeUnit.SECONDS));
+
+        // Once a slot is free the hedge takes it
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        sent.set(0);
+        result = hedging.execute(ENDPOINT, () -> sent.incrementAndGet() == 1
+                ? new CompletableFuture<>()
+                : CompletableFuture.completedFuture("hedged"), () -> limiter.tryAcquire("KEY"));
+        assertEquals("hedged", result.get(5, TimeUnit.SECONDS));
+        assertEquals(1, hedging.getHedgeCount());
+        assertEquals("The hedge used the free slot", 100, limiter.getQueueDelay("KEY", TimeUnit.MILLISECONDS));
+
+        // A paused key does not allow hedges
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        limiter.backOff("KEY", 2000);
+        assertFalse(limiter.tryAcquire("KEY"));
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        LOG.info("test failure");
+        HedgingPolicy hedging = createPolicy(1.0);
+        warmUp(hedging);
+
+        final AtomicInteger sent = new AtomicInteger();
+        CompletableFuture<String> result = hedging.execute(ENDPOINT, () -> {
+            sent.incrementAndGet();
+            CompletableFuture<String> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new TVRageException(ApiExceptionType.CONNECTION_ERROR, "Refused", ENDPOINT));
+            return failed;
+        });
+
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            fail("Expected the failure to be returned");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof TVRageException);
+        }
+        Thread.sleep(50);
+        assertEquals("Failures are not hedged", 1, sent.get());
+    }
+
+    private static HedgingPolicy createPolicy(double rate) {
+        return new HedgingPolicyBuilder()
+                .setMinSamples(5)
+                .setMinDelay(20, TimeUnit.MILLISECONDS)
+                .setMaxHedgeRate(rate)
+                .build();
+    }
+
+    private static void warmUp(HedgingPolicy hedging) throws Exception {
+        for (int i = 0; i < 5; i++) {
+            hedging.execute(ENDPOINT, () -> CompletableFuture.completedFuture("quick")).get();
+        }
+    }
+}
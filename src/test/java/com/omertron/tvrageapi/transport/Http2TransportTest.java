@@ -0,0 +1,149 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import com.omertron.tvrageapi.TVRageApi;
+import com.omertron.tvrageapi.TVRageException;
+import com.omertron.tvrageapi.TestLogger;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Check the java.net.http transport against a local server
+ *
+ * @author Stuart.Boston
+ */
+public class Http2TransportTest {
+
+    // Logger
+    private static final Logger LOG = LoggerFactory.getLogger(Http2TransportTest.class);
+    private static HttpServer server;
+    private static String site;
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        TestLogger.configure();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/feeds/showinfo.php", exchange -> {
+            try (InputStream in = Http2TransportTest.class.getResourceAsStream("/xml/showinfo.xml");
+                    OutputStream out = exchange.getResponseBody()) {
+                exchange.sendResponseHeaders(200, 0);
+                byte[] buffer = new byte[1024];
+                int count;
+                while ((count = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, count);
+                }
+            }
+        });
+        server.createContext("/feeds/search.php", exchange -> {
+            exchange.getResponseHeaders().add("Retry-After", "2");
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        server.createContext("/feeds/slow.php", exchange -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            try (OutputStream out = exchange.getResponseBody()) {
+                exchange.sendResponseHeaders(200, 0);
+                out.write("<Results/>".getBytes(StandardCharsets.UTF_8));
+            } catch (IOException ex) {
+                LOG.trace("Client went away: {}", ex.getMessage());
+            }
+        });
+        server.start();
+        site = "http://127.0.0.1:" + server.getAddress().getPort() + "/feeds/";
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testRequest() throws Exception {
+        LOG.info("test request");
+        try (Http2Transport transport = new Http2TransportBuilder().build()) {
+            TVRageApi api = new TVRageApi("KEY", transport);
+            api.setApiSite(site);
+            assertEquals("Chuck", api.getShowInfo(15614).getShowName());
+            assertEquals("Chuck", api.getShowInfoAsync(15614).get(10, TimeUnit.SECONDS).getShowName());
+        }
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        LOG.info("test cancel");
+        final AtomicInteger handled = new AtomicInteger();
+        ContentHandler<String> handler = content -> {
+            handled.incrementAndGet();
+            return "read";
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Http2Transport http2 = new Http2TransportBuilder().build();
+                HttpTransport http = new HttpTransportBuilder().build()) {
+            CompletableFuture<String> first = http2.requestContentAsync(site + "slow.php", handler, executor);
+            CompletableFuture<String> second = http.requestContentAsync(site + "slow.php", handler, executor);
+            assertTrue(first.cancel(true));
+            assertTrue(second.cancel(true));
+
+            // A request that is not cancelled is still read
+            assertEquals("read", http2.requestContentAsync(site + "slow.php", handler, executor).get(10, TimeUnit.SECONDS));
+            Thread.sleep(400);
+            assertEquals("Cancelled responses should not be read", 1, handled.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testServerError() throws TVRageException {
+        LOG.info("test server error");
+        Http2Transport transport = new Http2TransportBuilder().build();
+        try {
+            transport.requestContent(site + "search.php?key=KEY&show=Chuck", content -> "unexpected");
+            fail("Expected the server error to be reported");
+        } catch (TVRageException ex) {
+            assertEquals(ApiExceptionType.HTTP_503_ERROR, ex.getExceptionType());
+            assertEquals(503, ex.getResponseCode());
+            assertEquals(2000, ex.getRetryAfter());
+        }
+    }
+}
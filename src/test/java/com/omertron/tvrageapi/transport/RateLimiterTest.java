@@ -0,0 +1,124 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import com.omertron.tvrageapi.TVRageException;
+import com.omertron.tvrageapi.TestLogger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Check the pacing of the requests
+ *
+ * @author Stuart.Boston
+ */
+public class RateLimiterTest {
+
+    // Logger
+    private static final Logger LOG = LoggerFactory.getLogger(RateLimiterTest.class);
+    private static final String URL = "http://localhost/test";
+    private static final String KEY = "KEY";
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.configure();
+    }
+
+    @Test
+    public void testBurstAndMaxWait() throws TVRageException {
+        LOG.info("test burst and max wait");
+        AtomicLong now = new AtomicLong();
+        RateLimiter limiter = new RateLimiterBuilder()
+                .setPermitsPerSecond(10)
+                .setBurst(3)
+                .setMaxWait(50, TimeUnit.MILLISECONDS)
+                .setTicker(now::get)
+                .build();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("Burst should not wait", 0, limiter.acquire(KEY, URL));
+        }
+        assertEquals(100, limiter.getQueueDelay(KEY, TimeUnit.MILLISECONDS));
+
+        try {
+            limiter.acquire(KEY, URL);
+            fail("Wait should be too long");
+        } catch (TVRageException ex) {
+            assertEquals(ApiExceptionType.HTTP_503_ERROR, ex.getExceptionType());
+        }
+        // The failed request did not take a slot
+        assertEquals(100, limiter.getQueueDelay(KEY, TimeUnit.MILLISECONDS));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, limiter.getQueueDelay(KEY, TimeUnit.MILLISECONDS));
+        assertEquals(0, limiter.acquire(KEY, URL));
+    }
+
+    @Test
+    public void testBackOff() {
+        LOG.info("test back off");
+        AtomicLong now = new AtomicLong();
+        RateLimiter limiter = new RateLimiterBuilder()
+                .setPermitsPerSecond(10)
+                .setDefaultBackOff(5, TimeUnit.SECONDS)
+                .setTicker(now::get)
+                .build();
+
+        limiter.backOff(KEY, 2000);
+        assertEquals(2000, limiter.getQueueDelay(KEY, TimeUnit.MILLISECONDS));
+        assertEquals("Other keys are not paused", 0, limiter.getQueueDelay("OTHER", TimeUnit.MILLISECONDS));
+
+        limiter.backOff(KEY, 0);
+        assertEquals(5000, limiter.getQueueDelay(KEY, TimeUnit.MILLISECONDS));
+        assertEquals(2, limiter.getThrottledResponses());
+    }
+
+    @Test
+    public void testAcquireAsync() throws Exception {
+        LOG.info("test acquire async");
+        RateLimiter limiter = new RateLimiterBuilder()
+                .setPermitsPerSecond(20)
+                .setBurst(1)
+                .build();
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(limiter.acquireAsync(KEY, URL));
+        }
+        CompletableFuture.allOf(requests.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("Requests were not paced: " + elapsed + "ms", elapsed >= 180);
+        assertEquals(4, limiter.getDelayedRequests());
+        assertEquals(0, limiter.getQueuedRequests());
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import com.omertron.tvrageapi.TVRageApi;
+import com.omertron.tvrageapi.TVRageException;
+import com.omertron.tvrageapi.TestLogger;
+import com.omertron.tvrageapi.tools.DOMHelper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Check responses are recorded and then replayed without the site
+ *
+ * @author Stuart.Boston
+ */
+public class ReplayTransportTest {
+
+    // Logger
+    private static final Logger LOG = LoggerFactory.getLogger(ReplayTransportTest.class);
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.configure();
+    }
+
+    @Test
+    public void testFixtureName() {
+        LOG.info("test fixture name");
+        assertEquals("showinfo.php_sid=15614.xml",
+                ReplayTransport.getFixtureName("http://services.tvrage.com/myfeeds/showinfo.php?key=ABC&sid=15614"));
+        assertEquals("The key and site are not part of the name", "episodeinfo.php_sid=15614_ep=1x01.xml",
+                ReplayTransport.getFixtureName("http://localhost:8080/feeds/episodeinfo.php?key=XYZ&sid=15614&ep=1x01"));
+        assertEquals("search.php_show=a_b.xml", ReplayTransport.getFixtureName("http://localhost/search.php?key=K&show=a/b"));
+    }
+
+    @Test
+    public void testRecordAndReplay() throws Exception {
+        LOG.info("test record and replay");
+        Path fixtures = folder.getRoot().toPath().resolve("fixtures");
+        FixedTransport site = new FixedTransport();
+
+        try (RecordingTransport recorder = new RecordingTransport(site, fixtures)) {
+            TVRageApi api = new TVRageApi("KEY", recorder);
+            assertEquals("Chuck", api.getShowInfo(15614).getShowName());
+            assertEquals(1, recorder.getRecordedCount());
+        }
+        assertTrue(Files.exists(fixtures.resolve("showinfo.php_sid=15614.xml")));
+
+        // A different key and site still find the fixture
+        ReplayTransport replay = new ReplayTransport(fixtures);
+        assertEquals(1, replay.preload());
+        TVRageApi api = new TVRageApi("OTHER", replay);
+        api.setApiSite("http://localhost:1/stub");
+        for (int i = 0; i < 10; i++) {
+            assertEquals("Chuck", api.getShowInfo(15614).getShowName());
+        }
+        assertEquals("Chuck", api.getShowInfoAsync(15614).get(5, TimeUnit.SECONDS).getShowName());
+        assertEquals(11, replay.getServedCount());
+        assertEquals("Only recorded once", 1, site.requests.get());
+
+        // The DOM helper requests the document through the transport
+        assertEquals("Chuck", DOMHelper.getValueFromElement(
+                DOMHelper.getEventDocFromUrl(replay, "http://localhost/showinfo.php?key=KEY&sid=15614").getDocumentElement(),
+                "showname"));
+
+        try {
+            api.getShowInfo(1);
+            fail("Expected no recorded response");
+        } catch (TVRageException ex) {
+            assertEquals(ApiExceptionType.HTTP_404_ERROR, ex.getExceptionType());
+            assertEquals(1, replay.getMissedCount());
+        }
+    }
+
+    /**
+     * Returns the same show information for every request
+     */
+    private static final class FixedTransport implements Transport {
+
+        private final AtomicInteger requests = new AtomicInteger();
+
+        @Override
+        public <T> T requestContent(String url, ContentHandler<T> handler) throws TVRageException {
+            requests.incrementAndGet();
+            try (InputStream in = getClass().getResourceAsStream("/xml/showinfo.xml")) {
+                return handler.handle(in);
+            } catch (IOException ex) {
+                throw new TVRageException(ApiExceptionType.CONNECTION_ERROR, ex.getMessage(), url, ex);
+            }
+        }
+
+        @Override
+        public <T> CompletableFuture<T> requestContentAsync(String url, ContentHandler<T> handler, Executor executor) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release
+        }
+    }
+}
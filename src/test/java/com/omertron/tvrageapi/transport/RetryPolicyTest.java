@@ -0,0 +1,151 @@
+/*
+ *      Copyright (c) 2004-2016 Stuart Boston
+ *
+ *      This file is part of the TVRage API.
+ *
+ *      TVRage API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TVRage API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TVRage API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.tvrageapi.transport;
+
+import com.omertron.tvrageapi.TVRageException;
+import com.omertron.tvrageapi.TestLogger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Check which failures are retried
+ *
+ * @author Stuart.Boston
+ */
+public class RetryPolicyTest {
+
+    // Logger
+    private static final Logger LOG = LoggerFactory.getLogger(RetryPolicyTest.class);
+    private static final String URL = "http://localhost/showinfo.php?sid=1";
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.configure();
+    }
+
+    @Test
+    public void testExecute() throws TVRageException {
+        LOG.info("test execute");
+        RetryPolicy policy = new RetryPolicyBuilder()
+                .setMaxAttempts(3)
+                .setBaseDelay(10, TimeUnit.MILLISECONDS)
+                .build();
+
+        AtomicInteger attempts = new AtomicInteger();
+        String result = policy.execute(URL, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new TVRageException(ApiExceptionType.HTTP_503_ERROR, "Unavailable", 503, URL);
+            }
+            return "OK";
+        });
+        assertEquals("OK", result);
+        assertEquals(2, policy.getRetryCount());
+
+        // Missing shows are not retried
+        attempts.set(0);
+        try {
+            policy.execute(URL, () -> {
+                attempts.incrementAndGet();
+                throw new TVRageException(ApiExceptionType.HTTP_404_ERROR, "Not Found", 404, URL);
+            });
+            fail("Exception not thrown");
+        } catch (TVRageException ex) {
+            assertEquals(1, attempts.get());
+        }
+    }
+
+    @Test
+    public void testDelay() {
+        LOG.info("test delay");
+        RetryPolicy policy = new RetryPolicyBuilder()
+                .setMaxAttempts(5)
+                .setBaseDelay(100, TimeUnit.MILLISECONDS)
+                .setMaxDelay(1, TimeUnit.SECONDS)
+                .build();
+        TVRageException serverError = new TVRageException(ApiExceptionType.CONNECTION_ERROR, "Refused", URL);
+
+        for (int count = 1; count < 5; count++) {
+            long delay = policy.getDelay(count, serverError);
+            long limit = TimeUnit.MILLISECONDS.toNanos(Math.min(1000, 100 << (count - 1)));
+            assertTrue("Delay out of range: " + delay, delay >= 0 && delay <= limit);
+        }
+        assertEquals("No more attempts", -1, policy.getDelay(5, serverError));
+
+        // The server's delay is used if it is within the maximum, otherwise there is no retry
+        TVRageException throttled = new TVRageException(ApiExceptionType.HTTP_503_ERROR, "Too Many Requests", 429, URL, 500);
+        assertTrue(policy.getDelay(1, throttled) >= TimeUnit.MILLISECONDS.toNanos(500));
+        throttled = new TVRageException(ApiExceptionType.HTTP_503_ERROR, "Too Many Requests", 429, URL, 5000);
+        assertEquals(-1, policy.getDelay(1, throttled));
+    }
+
+    @Test
+    public void testExecuteAsync() throws Exception {
+        LOG.info("test execute async");
+        RetryPolicy policy = new RetryPolicyBuilder()
+                .setMaxAttempts(2)
+                .setBaseDelay(10, TimeUnit.MILLISECONDS)
+                .build();
+
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<String> result = policy.executeAsync(URL, () -> {
+            CompletableFuture<String> attempt = new CompletableFuture<>();
+            attempts.incrementAndGet();
+            attempt.completeExceptionally(new TVRageException(ApiExceptionType.CONNECTION_ERROR, "Refused", URL));
+            return attempt;
+        });
+
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            fail("Exception not thrown");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof TVRageException);
+            assertEquals(2, attempts.get());
+        }
+
+        // A retry that throws instead of returning a future still completes the result
+        attempts.set(0);
+        result = policy.executeAsync(URL, () -> {
+            if (attempts.incrementAndGet() > 1) {
+                throw new IllegalStateException("Closed");
+            }
+            CompletableFuture<String> attempt = new CompletableFuture<>();
+            attempt.completeExceptionally(new TVRageException(ApiExceptionType.CONNECTION_ERROR, "Refused", URL));
+            return attempt;
+        });
+
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            fail("Exception not thrown");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof IllegalStateException);
+            assertEquals(2, attempts.get());
+        }
+    }
+}